@@ -0,0 +1,161 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.commands.builtin;
+
+import com.tcn.vera.commands.templates.CommandTemplateBase;
+import com.tcn.vera.utils.EmbedValidator;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * The pages of a help command. They are rendered once, the first time they are needed, and reused by every use of the
+ * command until a command is registered. Commands are split across as many pages as they need so that no page goes over
+ * the field or length limits of an embed.
+ * <p>
+ * A set of pages is rendered for every language that at least one command has been localized to, so that picking the
+ * pages for a user is a single lookup. Users in any other language are shown the default pages.
+ */
+final class HelpPages {
+
+    private static final int COLOR = 0x00ff00;
+    //the page counter in the footer is never longer than this
+    private static final int FOOTER_RESERVE = 32;
+
+    private final String title;
+    private final Collection<? extends CommandTemplateBase> commands;
+    private final BiFunction<CommandTemplateBase, DiscordLocale, String> nameFormatter;
+
+    private volatile RenderedPages rendered = new RenderedPages(Map.of(), List.of(), -1);
+
+    //commands are only ever added to the registry, so its size tells us whether it has changed since the pages were built
+    private record RenderedPages(Map<DiscordLocale, List<MessageEmbed>> localizedPages, List<MessageEmbed> defaultPages, int commandCount) {
+    }
+
+    HelpPages(String title, Collection<? extends CommandTemplateBase> commands, BiFunction<CommandTemplateBase, DiscordLocale, String> nameFormatter) {
+        this.title = title;
+        this.commands = commands;
+        this.nameFormatter = nameFormatter;
+    }
+
+    /**
+     * @return The default pages of the help command, each with its page number in the footer if there is more than one.
+     */
+    List<MessageEmbed> getPages() {
+        return getRenderedPages().defaultPages();
+    }
+
+    /**
+     * Gets the pages of the help command in a language.
+     *
+     * @param locale The language of the user.
+     * @return The pages in that language, or the default pages if no command has been localized to it.
+     */
+    List<MessageEmbed> getPages(DiscordLocale locale) {
+        RenderedPages pages = getRenderedPages();
+        return pages.localizedPages().getOrDefault(locale, pages.defaultPages());
+    }
+
+    private RenderedPages getRenderedPages() {
+        RenderedPages pages = rendered;
+        if (pages.commandCount() != commands.size()) {
+            synchronized (this) {
+                pages = rendered;
+                int commandCount = commands.size();
+                if (pages.commandCount() != commandCount) {
+                    pages = renderAll(commandCount);
+                    rendered = pages;
+                }
+            }
+        }
+        return pages;
+    }
+
+    private RenderedPages renderAll(int commandCount) {
+        Map<DiscordLocale, List<MessageEmbed>> localizedPages = new EnumMap<>(DiscordLocale.class);
+        for (CommandTemplateBase command : commands) {
+            command.getNameLocalizations().keySet().forEach(locale -> localizedPages.computeIfAbsent(locale, this::render));
+            command.getHelpLocalizations().keySet().forEach(locale -> localizedPages.computeIfAbsent(locale, this::render));
+        }
+        return new RenderedPages(localizedPages, render(DiscordLocale.UNKNOWN), commandCount);
+    }
+
+    private List<MessageEmbed> render(DiscordLocale locale) {
+        List<MessageEmbed.Field> fields = commands.stream()
+                .map(command -> new MessageEmbed.Field(
+                        truncate(nameFormatter.apply(command, locale), MessageEmbed.TITLE_MAX_LENGTH),
+                        truncate(command.getCommandHelp(locale), MessageEmbed.VALUE_MAX_LENGTH),
+                        false))
+                .sorted(Comparator.comparing(MessageEmbed.Field::getName))
+                .toList();
+
+        int maxPageLength = MessageEmbed.EMBED_MAX_LENGTH_BOT - FOOTER_RESERVE - title.length();
+        List<List<MessageEmbed.Field>> pageFields = new ArrayList<>();
+        List<MessageEmbed.Field> page = new ArrayList<>();
+        int pageLength = 0;
+        for (MessageEmbed.Field field : fields) {
+            int fieldLength = field.getName().length() + field.getValue().length();
+            if (!page.isEmpty() && (page.size() == EmbedValidator.MAX_FIELDS || pageLength + fieldLength > maxPageLength)) {
+                pageFields.add(page);
+                page = new ArrayList<>();
+                pageLength = 0;
+            }
+            page.add(field);
+            pageLength += fieldLength;
+        }
+        pageFields.add(page);
+
+        List<MessageEmbed> pages = new ArrayList<>(pageFields.size());
+        for (int i = 0; i < pageFields.size(); i++) {
+            EmbedBuilder embedBuilder = new EmbedBuilder()
+                    .setTitle(title)
+                    .setColor(COLOR);
+            pageFields.get(i).forEach(embedBuilder::addField);
+            if (pageFields.size() > 1) {
+                embedBuilder.setFooter("Page " + (i + 1) + " of " + pageFields.size());
+            }
+            pages.add(EmbedValidator.validate(embedBuilder.build()));
+        }
+        return List.copyOf(pages);
+    }
+
+    private static String truncate(String text, int maxLength) {
+        if (text == null || text.isBlank()) {
+            return "No help provided for this command!";
+        }
+        return text.length() <= maxLength ? text : text.substring(0, maxLength - 1) + "\u2026";
+    }
+}
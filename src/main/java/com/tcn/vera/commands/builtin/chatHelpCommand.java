@@ -1,23 +1,34 @@
 package com.tcn.vera.commands.builtin;
 
 import com.tcn.vera.commands.templates.ChatCommandTemplate;
-import net.dv8tion.jda.api.EmbedBuilder;
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.pagination.EmbedPaginator;
+import com.tcn.vera.utils.OutboundScheduler;
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 
+import java.util.List;
 import java.util.Set;
 
 public class chatHelpCommand extends ChatCommandTemplate {
     private final Set<ChatCommandTemplate> commandList;
     private final String prefix;
+    private final OutboundScheduler outboundScheduler;
+    //null if the bot has no button handler, in which case only the first page is shown
+    private final ButtonHandler buttonHandler;
+    private final HelpPages helpPages;
 
-    public chatHelpCommand(Set<ChatCommandTemplate> commandList, String prefix) {
+    public chatHelpCommand(Set<ChatCommandTemplate> commandList, String prefix, OutboundScheduler outboundScheduler, ButtonHandler buttonHandler) {
         this.commandName = "help";
         this.help = "Shows this help message containing all chat commands and their descriptions";
         this.isOwnerCommand = false;
         
         this.commandList = commandList;
         this.prefix = prefix;
+        this.outboundScheduler = outboundScheduler;
+        this.buttonHandler = buttonHandler;
+        this.helpPages = new HelpPages("Chat Command Help:", commandList, (command, locale) -> prefix + command.getCommandName());
     }
 
 
@@ -28,13 +39,19 @@ public class chatHelpCommand extends ChatCommandTemplate {
             return;
         }
 
-        EmbedBuilder embedBuilder = new EmbedBuilder()
-                .setTitle("Chat Command Help:")
-                .setColor(0x00ff00);
-
-        commandList.forEach(command -> embedBuilder.addField(prefix + command.getCommandName(), command.getCommandHelp(), false));
-
-        message.reply("").addEmbeds(embedBuilder.build()).queue();
+        //chat messages do not tell us the user's language, so the language of the guild is the best we have
+        List<MessageEmbed> pages = event.isFromGuild() ? helpPages.getPages(event.getGuild().getLocale()) : helpPages.getPages();
+        if (pages.size() > 1 && buttonHandler != null) {
+            new EmbedPaginator.Builder()
+                    .setEmbeds(pages)
+                    .setEvent(event)
+                    .setUserID(event.getAuthor().getIdLong())
+                    .setButtonHandler(buttonHandler)
+                    .build()
+                    .paginate();
+            return;
+        }
 
+        outboundScheduler.queue(message.reply("").addEmbeds(pages.get(0)));
     }
 }
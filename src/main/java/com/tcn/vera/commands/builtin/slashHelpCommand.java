@@ -1,37 +1,55 @@
 package com.tcn.vera.commands.builtin;
 
+import com.tcn.vera.commands.templates.CommandTemplateBase;
 import com.tcn.vera.commands.templates.SlashCommandTemplate;
-import net.dv8tion.jda.api.EmbedBuilder;
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.pagination.EmbedPaginator;
+import com.tcn.vera.utils.OutboundScheduler;
+import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 
+import java.util.List;
 import java.util.Set;
 
 public class slashHelpCommand extends SlashCommandTemplate {
     private final Set<SlashCommandTemplate> commandList;
+    private final OutboundScheduler outboundScheduler;
+    //null if the bot has no button handler, in which case only the first page is shown
+    private final ButtonHandler buttonHandler;
+    private final HelpPages helpPages;
 
-    public slashHelpCommand(Set<SlashCommandTemplate> commandList) {
+    public slashHelpCommand(Set<SlashCommandTemplate> commandList, OutboundScheduler outboundScheduler, ButtonHandler buttonHandler) {
         this.commandName = "help";
         this.help = "Shows this help message containing all slash commands and their descriptions";
 
         this.commandList = commandList;
-
+        this.outboundScheduler = outboundScheduler;
+        this.buttonHandler = buttonHandler;
+        this.helpPages = new HelpPages("Slash Command Help:", commandList, CommandTemplateBase::getCommandName);
     }
     @Override
     public void executeSlashCommand(SlashCommandInteractionEvent event) {
         //discord forces us to acknowledge the slash command, so we have to reply even if we don't have any commands
         if (commandList.isEmpty()) {
-            event.reply("Sorry, this bot does not support any slash commands").queue();
+            outboundScheduler.queue(event.reply("Sorry, this bot does not support any slash commands"));
             return;
         }
 
-        event.deferReply().queue();
-
-        EmbedBuilder embedBuilder = new EmbedBuilder()
-                .setTitle("Slash Command Help:")
-                .setColor(0x00ff00);
-
-        commandList.forEach(command -> embedBuilder.addField(command.getCommandName(), command.getCommandHelp(), false));
+        outboundScheduler.queue(event.deferReply());
+
+        List<MessageEmbed> pages = helpPages.getPages(event.getUserLocale());
+        if (pages.size() > 1 && buttonHandler != null) {
+            new EmbedPaginator.Builder()
+                    .setEmbeds(pages)
+                    .setEvent(event)
+                    .setUserID(event.getUser().getIdLong())
+                    .setButtonHandler(buttonHandler)
+                    .build()
+                    .paginate();
+            return;
+        }
 
-        event.getHook().editOriginalEmbeds(embedBuilder.build()).queue();
+        //the user is waiting on this edit, so it must not be dropped like a cosmetic one
+        outboundScheduler.queue(event.getHook().editOriginalEmbeds(pages.get(0)), OutboundScheduler.Priority.MESSAGE);
     }
 }
@@ -0,0 +1,126 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.commands.templates;
+
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+
+import java.time.Duration;
+
+/**
+ * A slash command whose reply only depends on its options, such as a lookup or the stats of a guild. Instead of replying
+ * to the event, commands that extend this class create their reply in {@link #createReply(SlashCommandInteractionEvent)},
+ * and the {@link com.tcn.vera.eventHandlers.CommandHandler} sends it. Every use of the command with the same options in
+ * the same {@link #resultCacheScope} is given the same reply until {@link #resultCacheDuration} has passed, and uses that
+ * come in while a reply is being created wait for it instead of creating another.
+ * <p>
+ * Everything else works the same as in the {@link SlashCommandTemplate}. Here is an example of this class's constructor
+ * and reply:
+ * <blockquote><pre>
+ *     public GuildStatsCommand(){
+ *         this.commandName = "stats";
+ *         this.help = "Shows the stats of this guild";
+ *         this.resultCacheDuration = Duration.ofMinutes(5);
+ *         this.resultCacheScope = ResultScope.GUILD;
+ *     }
+ *
+ *     public MessageCreateData createReply(SlashCommandInteractionEvent event){
+ *         return MessageCreateData.fromEmbeds(buildStats(event.getGuild()));
+ *     }
+ * </pre></blockquote>
+ */
+public abstract class CachedSlashCommandTemplate extends SlashCommandTemplate {
+
+    /**
+     * How long the reply of this command may be reused for. If this is zero, a new reply is created for every use of
+     * the command. By default, replies are reused for one minute.
+     */
+    protected Duration resultCacheDuration = Duration.ofMinutes(1);
+
+    /**
+     * Who a cached reply is shared with. By default, replies are shared within a guild.
+     */
+    protected ResultScope resultCacheScope = ResultScope.GUILD;
+
+    /**
+     * Who the cached reply of a command is shared with.
+     */
+    public enum ResultScope {
+        /**
+         * Every use of the command is given the same reply, wherever it is used.
+         */
+        GLOBAL,
+        /**
+         * Uses in the same guild are given the same reply. Uses in direct messages are only shared within their channel.
+         */
+        GUILD,
+        /**
+         * Uses in the same channel are given the same reply.
+         */
+        CHANNEL,
+        /**
+         * Uses by the same user are given the same reply.
+         */
+        USER
+    }
+
+    /**
+     * Creates the reply of this command. This must not reply to the event itself. Replies that are cached may not have
+     * any files, as those can only be sent once.
+     *
+     * @param event The {@link SlashCommandInteractionEvent} which caused the reply to be created.
+     * @return The reply to send.
+     */
+    public abstract MessageCreateData createReply(SlashCommandInteractionEvent event);
+
+    /**
+     * Cached commands cannot be executed directly. The {@link com.tcn.vera.eventHandlers.CommandHandler} sends their
+     * reply itself, through its cache and its outbound scheduler, so it never calls this. Replying here would skip both.
+     *
+     * @param event The {@link SlashCommandInteractionEvent} which caused the command to be executed.
+     * @throws IllegalStateException Always.
+     */
+    @Override
+    public final void executeSlashCommand(SlashCommandInteractionEvent event) {
+        throw new IllegalStateException("The \"" + getCommandName() + "\" slash command is cached, so its reply can only be sent by the CommandHandler!");
+    }
+
+    /**
+     * @return How long the reply of this command may be reused for, or {@link Duration#ZERO} if it is not reused.
+     */
+    public Duration getResultCacheDuration() {
+        return resultCacheDuration;
+    }
+
+    /**
+     * @return Who the cached reply of this command is shared with.
+     */
+    public ResultScope getResultCacheScope() {
+        return resultCacheScope;
+    }
+}
@@ -27,6 +27,13 @@
  */
 package com.tcn.vera.commands.templates;
 
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+
 /**
  * A common parent for every command template class. This class defines features that every command template must support
  * in order for the {@link com.tcn.vera.eventHandlers.CommandHandler} to be able to use it.
@@ -66,6 +73,22 @@ public abstract class CommandTemplateBase {
      */
     protected String help = "No help provided for this command!";
 
+    /**
+     * The name of the command in other languages. Discord shows the localized name to users whose client is set to that
+     * language, and Vera's builtin help command lists it. Chat commands can only be invoked by their {@link #commandName},
+     * so this has no effect on them.
+     * <p>
+     * Localizations are added in the constructor, for example: {@code nameLocalizations.put(DiscordLocale.GERMAN, "hilfe");}
+     */
+    protected final Map<DiscordLocale, String> nameLocalizations = new EnumMap<>(DiscordLocale.class);
+
+    /**
+     * The {@link #help} string in other languages. Vera's builtin help command shows it to users whose client is set to
+     * that language. Unless a slash command sets its own description localizations, these are also sent to Discord as its
+     * description localizations.
+     */
+    protected final Map<DiscordLocale, String> helpLocalizations = new EnumMap<>(DiscordLocale.class);
+
     protected CommandTemplateBase(CommandType type) {
         this.commandType = type;
     }
@@ -78,6 +101,54 @@ public abstract class CommandTemplateBase {
         return help;
     }
 
+    /**
+     * Gets the name of the command in a language, falling back to {@link #getCommandName()} if it has not been localized.
+     *
+     * @param locale The language to get the name in.
+     * @return The localized name.
+     */
+    public String getCommandName(DiscordLocale locale) {
+        return nameLocalizations.getOrDefault(locale, commandName);
+    }
+
+    /**
+     * Gets the help string of the command in a language, falling back to {@link #getCommandHelp()} if it has not been localized.
+     *
+     * @param locale The language to get the help string in.
+     * @return The localized help string.
+     */
+    public String getCommandHelp(DiscordLocale locale) {
+        return helpLocalizations.getOrDefault(locale, help);
+    }
+
+    /**
+     * @return Every localization of the name of this command.
+     */
+    public Map<DiscordLocale, String> getNameLocalizations() {
+        return Collections.unmodifiableMap(nameLocalizations);
+    }
+
+    /**
+     * @return Every localization of the help string of this command.
+     */
+    public Map<DiscordLocale, String> getHelpLocalizations() {
+        return Collections.unmodifiableMap(helpLocalizations);
+    }
+
+    /**
+     * Adds the localizations of this command to the data that is sent to Discord. The {@link com.tcn.vera.eventHandlers.CommandHandler}
+     * calls this when it sends its commands to Discord, so this only needs to be called for commands that are sent some other way.
+     *
+     * @param commandData The data of this command.
+     * @return The same data, with the localizations added.
+     */
+    public CommandData applyLocalizations(CommandData commandData) {
+        if (!nameLocalizations.isEmpty()) {
+            commandData.setNameLocalizations(nameLocalizations);
+        }
+        return commandData;
+    }
+
     public abstract CommandType getCommandType();
 
 }
@@ -28,9 +28,13 @@
 package com.tcn.vera.commands.templates;
 
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.DiscordLocale;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
 import net.dv8tion.jda.api.interactions.commands.build.Commands;
+import net.dv8tion.jda.api.interactions.commands.build.SlashCommandData;
 
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
 
 /**
@@ -66,6 +70,8 @@ import java.util.Objects;
  *         this.slashCommand = Commands.slash(getCommandName(), getCommandHelp());
  *     }
  * </pre></blockquote>
+ * Commands whose reply only depends on their options can extend {@link CachedSlashCommandTemplate} instead, so that
+ * their reply is reused.
  */
 public abstract class SlashCommandTemplate extends CommandTemplateBase {
 
@@ -75,6 +81,12 @@ public abstract class SlashCommandTemplate extends CommandTemplateBase {
      */
     protected CommandData slashCommand = null;
 
+    /**
+     * The description that Discord shows for this command in other languages. If none are set, the {@link #helpLocalizations}
+     * are used instead, cut down to the 100 characters that Discord allows.
+     */
+    protected final Map<DiscordLocale, String> descriptionLocalizations = new EnumMap<>(DiscordLocale.class);
+
     protected SlashCommandTemplate() {
         super(CommandType.SLASH_COMMAND);
     }
@@ -96,6 +108,22 @@ public abstract class SlashCommandTemplate extends CommandTemplateBase {
         return Objects.requireNonNullElseGet(slashCommand, () -> Commands.slash(getCommandName(), getCommandHelp()));
     }
 
+    @Override
+    public CommandData applyLocalizations(CommandData commandData) {
+        super.applyLocalizations(commandData);
+        if (!(commandData instanceof SlashCommandData slashCommandData)) {
+            return commandData;
+        }
+
+        if (!descriptionLocalizations.isEmpty()) {
+            slashCommandData.setDescriptionLocalizations(descriptionLocalizations);
+        } else {
+            helpLocalizations.forEach((locale, localizedHelp) -> slashCommandData.setDescriptionLocalization(locale,
+                    localizedHelp.length() <= SlashCommandData.MAX_DESCRIPTION_LENGTH ? localizedHelp : localizedHelp.substring(0, SlashCommandData.MAX_DESCRIPTION_LENGTH - 1) + "\u2026"));
+        }
+        return commandData;
+    }
+
     public CommandType getCommandType() {
         return commandType;
     }
@@ -28,11 +28,33 @@
 package com.tcn.vera.eventHandlers;
 
 import com.tcn.vera.commands.interactions.ButtonInterface;
+import com.tcn.vera.pagination.EmbedPaginator;
+import com.tcn.vera.pagination.PaginatorRestorer;
+import com.tcn.vera.state.ComponentState;
+import com.tcn.vera.state.ComponentStateStore;
 import com.tcn.vera.utils.CommandCache;
+import com.tcn.vera.utils.ComponentIdCodec;
+import com.tcn.vera.utils.MessageEditQueue;
+import com.tcn.vera.utils.OutboundScheduler;
+import com.tcn.vera.utils.TimingWheel;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.EventListener;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * The Button handler for Vera. It is recommended that you only use one instance of this class per bot. If you have ANY commands that
@@ -40,27 +62,72 @@ import java.util.function.Consumer;
  * properly register your buttons and handle any presses.
  * <p>
  * If you are using any of Vera's paginator classes, you must pass the same instance of this class to the paginator, so it can properly register itself.
+ * <p>
+ * Buttons that belong to commands are kept for as long as the handler exists. Every other button set, such as the ones
+ * created by paginators, is kept in a bounded cache and removed once the cache is full or the buttons have not been used for a while.
+ * If a {@link ComponentStateStore} is set via {@link #setStateStore(ComponentStateStore)}, paginators also save their state
+ * there and are rebuilt the first time one of their buttons is pressed after they have left the cache or the bot has restarted.
  *
  * @implNote By default, this class has a cache size of 100. If you need to support more buttons at a time, please use {@link #ButtonHandler(int cacheSize)}.
  */
 public class ButtonHandler implements EventListener {
-    int cacheSize = 100;
-    private final CommandCache<String, Consumer<? super ButtonInteractionEvent>> listeners = new CommandCache<>(cacheSize);
+    private static final int EXPIRY_BATCH_SIZE = 25;
+
+    private final int cacheSize;
+    private final CommandCache<String, ButtonSet> listeners;
+    private final Map<String, Consumer<? super ButtonInteractionEvent>> commandListeners = new ConcurrentHashMap<>();
+    private volatile ComponentIdCodec componentIdCodec = ComponentIdCodec.withRandomKey();
+    private volatile ComponentStateStore stateStore = null;
+    private final Map<String, PaginatorRestorer> restorers = new ConcurrentHashMap<>();
+    private final Object restoreLock = new Object();
+    //shared by every paginator, so thousands of open menus only ever cost one timer thread
+    private final TimingWheel timeoutWheel = new TimingWheel(Duration.ofMillis(100), 512);
+    //menus that have expired and still show their components. They are stripped a batch at a time, so a wave of
+    //expiring menus does not fill the outbound queue with edits that would then be dropped
+    private final Queue<Supplier<? extends CompletableFuture<?>>> expiredMenus = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isStrippingMenus = new AtomicBoolean(false);
+    //shared by every paginator and the command handler, so urgent requests always go out before cosmetic ones
+    private final OutboundScheduler outboundScheduler = new OutboundScheduler();
+    //shared by every paginator, so that edits to the same message from different places are still queued together
+    private final MessageEditQueue editQueue = new MessageEditQueue(1000, outboundScheduler);
+    private final Logger logger = LoggerFactory.getLogger("Vera: Button Handler");
 
     /**
      * Creates a new ButtonHandler with a cache size of 100. If you need to support more buttons at a time, please use
      * {@link #ButtonHandler(int cacheSize)}.
      */
     public ButtonHandler() {
+        this(100);
     }
 
     /**
      * Creates a new ButtonHandler with a custom cache size.
      *
-     * @param cacheSize The maximum number of buttons that can be registered at a time. If more buttons are registered, the oldest button will be removed.
+     * @param cacheSize The maximum number of buttons that can be registered at a time. If more buttons are registered, the least recently used button will be removed.
      */
     public ButtonHandler(int cacheSize) {
+        this(cacheSize, Duration.ZERO);
+    }
+
+    /**
+     * Creates a new ButtonHandler with a custom cache size and idle timeout.
+     *
+     * @param cacheSize  The maximum number of buttons that can be registered at a time. If more buttons are registered, the least recently used button will be removed.
+     * @param idleExpiry How long a button set may go without being pressed before it is removed. {@link Duration#ZERO} disables this timeout.
+     */
+    public ButtonHandler(int cacheSize, Duration idleExpiry) {
         this.cacheSize = cacheSize;
+        this.listeners = new CommandCache.Builder<String, ButtonSet>()
+                .setMaximumSize(cacheSize)
+                .setExpireAfterAccess(idleExpiry)
+                .setEvictionListener((prefix, buttonSet, cause) -> {
+                    if (cause.wasEvicted() && buttonSet.onEviction() != null) {
+                        buttonSet.onEviction().run();
+                    }
+                })
+                .build();
+
+        registerRestorer(EmbedPaginator.RESTORER_ID, EmbedPaginator::restore);
     }
 
     /**
@@ -69,12 +136,38 @@ public class ButtonHandler implements EventListener {
      * @param event The {@link ButtonInteractionEvent} that was fired.
      */
     public void onEvent(ButtonInteractionEvent event) {
-        Consumer<? super ButtonInteractionEvent> callback = listeners.find(prefix -> event.getComponentId().startsWith(prefix));
+        Consumer<? super ButtonInteractionEvent> callback = findCallback(event.getComponentId());
 
         if (callback != null) {
             callback.accept(event);
         } else {
-            event.reply("This button is not valid").setEphemeral(true).queue();
+            outboundScheduler.queue(event.reply("This button is not valid").setEphemeral(true));
+        }
+    }
+
+    /**
+     * This method is called when an option of a select menu is chosen. Only select menus that were registered alongside
+     * a button set are handled here, any other select menu is ignored.
+     *
+     * @param event The {@link StringSelectInteractionEvent} that was fired.
+     */
+    public void onEvent(StringSelectInteractionEvent event) {
+        ButtonSet buttonSet = findButtonSet(event.getComponentId());
+        if (buttonSet != null && buttonSet.selectCallback() != null) {
+            buttonSet.selectCallback().accept(event);
+        }
+    }
+
+    /**
+     * This method is called when a modal is submitted. Only modals that were registered alongside a button set are
+     * handled here, any other modal is ignored.
+     *
+     * @param event The {@link ModalInteractionEvent} that was fired.
+     */
+    public void onEvent(ModalInteractionEvent event) {
+        ButtonSet buttonSet = findButtonSet(event.getModalId());
+        if (buttonSet != null && buttonSet.modalCallback() != null) {
+            buttonSet.modalCallback().accept(event);
         }
     }
 
@@ -85,6 +178,270 @@ public class ButtonHandler implements EventListener {
      * @param callback The callback to call when the button is pressed.
      */
     public void registerButtonSet(String prefix, Consumer<? super ButtonInteractionEvent> callback) {
-        listeners.add(prefix, callback);
+        registerButtonSet(prefix, callback, null);
+    }
+
+    /**
+     * Registers a button with a callback. The callback will be called when the button is pressed.
+     *
+     * @param prefix     The prefix of the button. This is used to identify the button.
+     * @param callback   The callback to call when the button is pressed.
+     * @param onEviction Called if the button set is removed from the cache because it is full or the buttons have expired. May be null.
+     */
+    public void registerButtonSet(String prefix, Consumer<? super ButtonInteractionEvent> callback, Runnable onEviction) {
+        registerButtonSet(prefix, callback, null, null, onEviction);
+    }
+
+    /**
+     * Registers a button set along with the select menus and modals that belong to it. Select menus and modals are
+     * matched the same way as buttons, so their IDs must start with the same prefix. All of them are removed together.
+     *
+     * @param prefix         The prefix of the buttons, select menus, and modals. This is used to identify them.
+     * @param callback       The callback to call when a button is pressed.
+     * @param selectCallback The callback to call when an option of a select menu is chosen. May be null.
+     * @param modalCallback  The callback to call when a modal is submitted. May be null.
+     * @param onEviction     Called if the button set is removed from the cache because it is full or the buttons have expired. May be null.
+     */
+    public void registerButtonSet(String prefix, Consumer<? super ButtonInteractionEvent> callback, Consumer<? super StringSelectInteractionEvent> selectCallback,
+                                  Consumer<? super ModalInteractionEvent> modalCallback, Runnable onEviction) {
+        listeners.add(prefix, new ButtonSet(callback, selectCallback, modalCallback, onEviction));
+    }
+
+    /**
+     * Removes a button set from the handler. Any further presses of its buttons will be treated as invalid.
+     *
+     * @param prefix The prefix that the button set was registered with.
+     */
+    public void unregisterButtonSet(String prefix) {
+        listeners.remove(prefix);
+    }
+
+    /**
+     * @return The hit, miss, and eviction counters of the cache holding all non-command button sets.
+     */
+    public CommandCache.Stats getCacheStats() {
+        return listeners.getStats();
+    }
+
+    /**
+     * @return The maximum number of non-command button sets that this handler keeps at a time.
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Registers a button set that is never removed from this handler. This is used for buttons that belong to commands
+     * and for stateless components, which must keep working for as long as the bot is running.
+     *
+     * @param prefix   The prefix of the button. This is used to identify the button.
+     * @param callback The callback to call when the button is pressed.
+     */
+    public void registerPermanentButtonSet(String prefix, Consumer<? super ButtonInteractionEvent> callback) {
+        commandListeners.put(prefix, callback);
+    }
+
+    /**
+     * Schedules a task on the timing wheel that this handler uses to time out paginators. The task runs on the wheel's
+     * thread up to 100 milliseconds after the delay has passed, together with every other task that expires at the same time.
+     *
+     * @param delay The time to wait before running the task.
+     * @param task  The task to run. It should not block.
+     * @return A handle that can be used to cancel the task.
+     */
+    public TimingWheel.Timeout scheduleTimeout(Duration delay, Runnable task) {
+        return timeoutWheel.schedule(delay, task);
+    }
+
+    /**
+     * Queues the edit that removes the components from a menu that has expired. These edits are sent in batches of
+     * {@value #EXPIRY_BATCH_SIZE}, starting on the next tick of the timing wheel so that every menu that expired at the
+     * same time is part of the first batch. Each batch is only sent once the one before it is done.
+     *
+     * @param strip Sends the edit, and returns a future that completes once it is done.
+     */
+    public void stripExpiredMenu(Supplier<? extends CompletableFuture<?>> strip) {
+        expiredMenus.add(strip);
+        if (isStrippingMenus.compareAndSet(false, true)) {
+            timeoutWheel.schedule(Duration.ZERO, this::stripExpiredMenus);
+        }
+    }
+
+    private void stripExpiredMenus() {
+        List<CompletableFuture<?>> batch = new ArrayList<>(EXPIRY_BATCH_SIZE);
+        Supplier<? extends CompletableFuture<?>> strip;
+        while (batch.size() < EXPIRY_BATCH_SIZE && (strip = expiredMenus.poll()) != null) {
+            try {
+                batch.add(strip.get().exceptionally(error -> {
+                    logger.debug("Unable to remove the components of an expired menu", error);
+                    return null;
+                }));
+            } catch (RuntimeException e) {
+                logger.debug("Unable to remove the components of an expired menu", e);
+            }
+        }
+
+        if (batch.isEmpty()) {
+            isStrippingMenus.set(false);
+            //a menu may have expired after the queue was found empty, but before the flag was cleared
+            if (!expiredMenus.isEmpty() && isStrippingMenus.compareAndSet(false, true)) {
+                timeoutWheel.schedule(Duration.ZERO, this::stripExpiredMenus);
+            }
+            return;
+        }
+        CompletableFuture.allOf(batch.toArray(new CompletableFuture<?>[0]))
+                .whenComplete((result, error) -> timeoutWheel.schedule(Duration.ZERO, this::stripExpiredMenus));
+    }
+
+    /**
+     * Sets the key used to sign the custom IDs of stateless components such as the {@link com.tcn.vera.pagination.StatelessPaginator}.
+     * If this is never called, a random key is used, and stateless components will stop working once the bot restarts.
+     * If you run more than one instance of your bot, every instance must use the same key.
+     *
+     * @param key The secret key. It should be at least 32 bytes long.
+     */
+    public void setSigningKey(byte[] key) {
+        this.componentIdCodec = new ComponentIdCodec(key);
+    }
+
+    /**
+     * @return The codec used to create and verify the custom IDs of stateless components.
+     */
+    public ComponentIdCodec getComponentIdCodec() {
+        return componentIdCodec;
+    }
+
+    /**
+     * Sets the store that paginators save their state in. Once a store is set, paginators are no longer destroyed when they
+     * are evicted from this handler's cache. Instead, they are rebuilt from the store when one of their buttons is pressed.
+     *
+     * @param stateStore The store to use, or null to only keep paginators in memory.
+     */
+    public void setStateStore(ComponentStateStore stateStore) {
+        this.stateStore = stateStore;
+    }
+
+    /**
+     * Gets the scheduler that paginators, and the command handler that this handler belongs to, send their requests
+     * through. Commands can use it as well, so that their requests are prioritized along with Vera's.
+     *
+     * @return The outbound scheduler of this handler.
+     */
+    public OutboundScheduler getOutboundScheduler() {
+        return outboundScheduler;
+    }
+
+    /**
+     * Gets the queue that paginators send their edits through. Commands that edit a paginator's message, or any other
+     * message that is edited often, can use it as well.
+     *
+     * @return The edit queue of this handler.
+     */
+    public MessageEditQueue getEditQueue() {
+        return editQueue;
+    }
+
+    /**
+     * @return The store that paginators save their state in, or null if none was set.
+     */
+    public ComponentStateStore getStateStore() {
+        return stateStore;
+    }
+
+    /**
+     * Registers a restorer that is able to rebuild paginators from their saved state. A restorer for the {@link EmbedPaginator}
+     * is registered automatically.
+     *
+     * @param restorerID The ID that the paginator saves in {@link ComponentState#restorerID()}.
+     * @param restorer   The restorer.
+     */
+    public void registerRestorer(String restorerID, PaginatorRestorer restorer) {
+        restorers.put(restorerID, restorer);
+    }
+
+    private Consumer<? super ButtonInteractionEvent> findCallback(String componentId) {
+        //vera's own buttons are always registered under everything before the last colon, so try that before scanning
+        int separator = componentId.lastIndexOf(':');
+        if (separator > 0 && !componentId.startsWith(ComponentIdCodec.PREFIX)) {
+            String prefix = componentId.substring(0, separator);
+            ButtonSet buttonSet = listeners.get(prefix);
+            if (buttonSet != null) {
+                return buttonSet.callback();
+            }
+            Consumer<? super ButtonInteractionEvent> commandCallback = commandListeners.get(prefix);
+            if (commandCallback != null) {
+                return commandCallback;
+            }
+        }
+
+        for (Map.Entry<String, Consumer<? super ButtonInteractionEvent>> entry : commandListeners.entrySet()) {
+            if (componentId.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+
+        ButtonSet buttonSet = listeners.find(componentId::startsWith);
+        if (buttonSet == null) {
+            buttonSet = restoreButtonSet(componentId);
+        }
+        return buttonSet == null ? null : buttonSet.callback();
+    }
+
+    private ButtonSet findButtonSet(String componentId) {
+        int separator = componentId.lastIndexOf(':');
+        if (separator > 0) {
+            ButtonSet buttonSet = listeners.get(componentId.substring(0, separator));
+            if (buttonSet != null) {
+                return buttonSet;
+            }
+        }
+
+        ButtonSet buttonSet = listeners.find(componentId::startsWith);
+        return buttonSet == null ? restoreButtonSet(componentId) : buttonSet;
+    }
+
+    //paginator buttons look like "paginatorID:userID:buttonName". If the paginator has been saved, rebuild it
+    private ButtonSet restoreButtonSet(String componentId) {
+        ComponentStateStore store = stateStore;
+        int idEnd = componentId.indexOf(':');
+        int separator = componentId.lastIndexOf(':');
+        if (store == null || idEnd <= 0 || separator <= idEnd) {
+            return null;
+        }
+
+        long paginatorID;
+        try {
+            paginatorID = Long.parseLong(componentId.substring(0, idEnd));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        String prefix = componentId.substring(0, separator);
+
+        synchronized (restoreLock) {
+            //another click may have restored this paginator while we were waiting for the lock
+            ButtonSet buttonSet = listeners.get(prefix);
+            if (buttonSet != null) {
+                return buttonSet;
+            }
+
+            ComponentState state = store.get(paginatorID);
+            if (state == null) {
+                return null;
+            }
+
+            PaginatorRestorer restorer = restorers.get(state.restorerID());
+            if (restorer == null) {
+                logger.warn("Unable to restore paginator {}. No restorer has been registered with the ID \"{}\"", paginatorID, state.restorerID());
+                return null;
+            }
+
+            //paginators register themselves with this handler when they are built
+            restorer.restore(state, this);
+            return listeners.get(prefix);
+        }
+    }
+
+    private record ButtonSet(Consumer<? super ButtonInteractionEvent> callback, Consumer<? super StringSelectInteractionEvent> selectCallback,
+                             Consumer<? super ModalInteractionEvent> modalCallback, Runnable onEviction) {
     }
 }
@@ -31,6 +31,12 @@ import com.tcn.vera.commands.builtin.chatHelpCommand;
 import com.tcn.vera.commands.builtin.slashHelpCommand;
 import com.tcn.vera.commands.interactions.*;
 import com.tcn.vera.commands.templates.*;
+import com.tcn.vera.state.CommandToggleStore;
+import com.tcn.vera.utils.BKTree;
+import com.tcn.vera.utils.BatchLoader;
+import com.tcn.vera.utils.CommandCache;
+import com.tcn.vera.utils.OutboundScheduler;
+import com.tcn.vera.utils.ResultCache;
 import com.tcn.vera.utils.VeraUtils;
 import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.command.CommandAutoCompleteInteractionEvent;
@@ -43,19 +49,30 @@ import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionE
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.session.ReadyEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.interactions.commands.OptionMapping;
 import net.dv8tion.jda.api.interactions.commands.build.CommandData;
+import net.dv8tion.jda.api.utils.messages.MessageCreateData;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * The command handler for Vera.
@@ -73,7 +90,17 @@ public class CommandHandler extends ListenerAdapter {
     private final Set<UserContextTemplate> userContextCommandSet = ConcurrentHashMap.newKeySet();
     private final Set<MessageContextTemplate> messageContextCommandSet = ConcurrentHashMap.newKeySet();
     private final ButtonHandler buttonHandler;
+    private final OutboundScheduler outboundScheduler;
     private final ExecutorService commandPool = Executors.newCachedThreadPool(VeraUtils.createThreadFactory("VeraCommandRunner", false));
+    //which commands have been disabled in which guilds. Created once every command has been registered
+    private final CommandToggles commandToggles;
+    //every name and alias of the chat commands that can be suggested for a mistyped command. Null if suggestions are disabled
+    private final BKTree<ChatCommandTemplate> chatCommandNames;
+    //when each user was last sent a suggestion, so that typos cannot be used to make the bot send messages over and over
+    private final CommandCache<Long, Long> suggestionCooldowns = new CommandCache<>(10_000);
+    private final long suggestionCooldownNanos;
+    //the replies of slash commands that cache their reply
+    private final ResultCache<CachedReplyKey, MessageCreateData> replyCache = new ResultCache<>(1000);
     private final Logger logger;
 
     //bot specific information
@@ -83,11 +110,13 @@ public class CommandHandler extends ListenerAdapter {
     /**
      * To create an instance of this class, please use the {@link CommandHandlerBuilder}.
      */
-    CommandHandler(ArrayList<? extends CommandTemplateBase> commandList, ArrayList<String> botOwner, String prefix, ButtonHandler buttonHandler, boolean enableHelpCommands) {
+    CommandHandler(ArrayList<? extends CommandTemplateBase> commandList, ArrayList<String> botOwner, String prefix, ButtonHandler buttonHandler, boolean enableHelpCommands, CommandToggleStore toggleStore,
+                   boolean enableSuggestions, Duration suggestionCooldown) {
         logger = LoggerFactory.getLogger("Vera: Command Handler");
         this.botOwner = botOwner;
         this.prefix = prefix;
         this.buttonHandler = buttonHandler;
+        this.outboundScheduler = buttonHandler != null ? buttonHandler.getOutboundScheduler() : new OutboundScheduler();
 
         //split the commandList into their respective hashmaps. This allows us to get specific command types easier
         for (CommandTemplateBase command : commandList) {
@@ -102,20 +131,20 @@ public class CommandHandler extends ListenerAdapter {
 
             //aside from splitting our types out, we also need to put all buttons into their cache
             if (command instanceof ButtonInterface buttonInterface) {
-                buttonHandler.registerButtonSet(buttonInterface.getButtonClassID(), buttonInterface::executeButton);
+                buttonHandler.registerPermanentButtonSet(buttonInterface.getButtonClassID(), buttonInterface::executeButton);
             }
         }
 
         //if help commands are enabled, we need to register them too
         if(enableHelpCommands) {
             if(!chatCommandSet.isEmpty()){
-                registerCommand(this.chatCommandSet, new chatHelpCommand(chatCommandSet, prefix));
+                registerCommand(this.chatCommandSet, new chatHelpCommand(chatCommandSet, prefix, outboundScheduler, buttonHandler));
             }else{
                 logger.debug("No chat commands were registered. The default chat help command will not be registered.");
             }
 
             if(!slashCommandSet.isEmpty()){
-                registerCommand(this.slashCommandSet, new slashHelpCommand(slashCommandSet));
+                registerCommand(this.slashCommandSet, new slashHelpCommand(slashCommandSet, outboundScheduler, buttonHandler));
             }else{
                 logger.debug("No slash commands were registered. The default slash help command will not be registered.");
             }
@@ -126,6 +155,24 @@ public class CommandHandler extends ListenerAdapter {
         logger.info("Registered {} user context menu command(s).", userContextCommandSet.size());
         logger.info("Registered {} message context menu command(s).", messageContextCommandSet.size());
 
+        //every command gets its ordinal here, so no command may be registered after this
+        List<CommandTemplateBase> allCommands = new ArrayList<>();
+        allCommands.addAll(chatCommandSet);
+        allCommands.addAll(slashCommandSet);
+        allCommands.addAll(userContextCommandSet);
+        allCommands.addAll(messageContextCommandSet);
+        this.commandToggles = new CommandToggles(allCommands, toggleStore);
+
+        this.suggestionCooldownNanos = suggestionCooldown.toNanos();
+        if (enableSuggestions) {
+            chatCommandNames = new BKTree<>();
+            //owner commands are never suggested, so that their names are not given away to everyone else
+            chatCommandSet.stream().filter(command -> !command.isOwnerCommand()).forEach(command ->
+                    command.getAllCommandNames().forEach(name -> chatCommandNames.add(name.toLowerCase(), command)));
+        } else {
+            chatCommandNames = null;
+        }
+
     }
 
 
@@ -146,15 +193,37 @@ public class CommandHandler extends ListenerAdapter {
         }
     }
 
+    /**
+     * Gets the toggles that control which commands may be used in which guilds. Commands that are disabled in a guild are
+     * ignored when they are used there.
+     *
+     * @return The command toggles of this handler.
+     */
+    public CommandToggles getCommandToggles() {
+        return commandToggles;
+    }
+
+    /**
+     * Creates a {@link BatchLoader} whose batches run on the same threads as Vera's commands. Commands can share the loader
+     * to turn their lookups into batches.
+     *
+     * @param batchFunction Looks up every key in a batch at once. Keys that are missing from the map it returns are loaded as null.
+     * @param <K>           The type of the keys.
+     * @param <V>           The type of the values.
+     * @return A new batch loader that collects keys for 10 milliseconds, or until 100 keys have been collected.
+     */
+    public <K, V> BatchLoader<K, V> createBatchLoader(Function<Set<K>, Map<K, V>> batchFunction) {
+        return new BatchLoader<>(batchFunction, commandPool);
+    }
 
     @Override
     public void onReady(@NotNull ReadyEvent event) {
         //we need to send slash, userContext, and messageContext commands to discord
         List<CommandData> toAdd = new ArrayList<>();
 
-        slashCommandSet.forEach(c -> toAdd.add(c.getSlashCommand()));
-        userContextCommandSet.forEach(c -> toAdd.add(c.getUserContextCommand()));
-        messageContextCommandSet.forEach(c -> toAdd.add(c.getMessageContextCommand()));
+        slashCommandSet.forEach(c -> toAdd.add(c.applyLocalizations(c.getSlashCommand())));
+        userContextCommandSet.forEach(c -> toAdd.add(c.applyLocalizations(c.getUserContextCommand())));
+        messageContextCommandSet.forEach(c -> toAdd.add(c.applyLocalizations(c.getMessageContextCommand())));
 
         event.getJDA().updateCommands().addCommands(toAdd).queue();
 
@@ -180,6 +249,10 @@ public class CommandHandler extends ListenerAdapter {
             ).findFirst().orElse(null);
 
             if (null != command) {
+                if (event.isFromGuild() && !commandToggles.isEnabled(event.getGuild().getIdLong(), command)) {
+                    logger.debug(event.getAuthor().getName() + " has attempted to use the \"" + command.getCommandName() + "\" chat command, which is disabled in their guild");
+                    return;
+                }
                 if (command.isOwnerCommand()) {
                     if (botOwner.stream().anyMatch(c -> c.equalsIgnoreCase(event.getAuthor().getId()))) {
                         logger.debug(event.getAuthor().getName() + " has used the \"" + command.getCommandName() + "\" chat command");
@@ -192,17 +265,51 @@ public class CommandHandler extends ListenerAdapter {
                     logger.debug(event.getAuthor().getName() + " has used the \"" + command.getCommandName() + "\" chat command");
                     executeChatCommand(command, event, rawMessage.substring(commandName.length() + 1));
                 }
+            } else if (chatCommandNames != null) {
+                suggestChatCommand(event, commandName);
             }
         }
     }
 
+    private void suggestChatCommand(MessageReceivedEvent event, String typedName) {
+        //a message that is just the prefix, or a long word that happens to start with it, is not a mistyped command
+        if (typedName.isBlank() || typedName.length() > 32) {
+            return;
+        }
+
+        String query = typedName.toLowerCase();
+        //short names are close to many others, so they are only allowed a single typo
+        int maxDistance = query.length() <= 4 ? 1 : 2;
+        BKTree.Match<ChatCommandTemplate> suggestion = chatCommandNames.search(query, maxDistance).stream()
+                .filter(match -> !event.isFromGuild() || commandToggles.isEnabled(event.getGuild().getIdLong(), match.value()))
+                .findFirst().orElse(null);
+
+        if (suggestion == null || !startSuggestionCooldown(event.getAuthor().getIdLong())) {
+            return;
+        }
+        logger.debug(event.getAuthor().getName() + " has used the unknown \"" + typedName + "\" chat command. Suggesting \"" + suggestion.key() + "\"");
+        outboundScheduler.queue(event.getMessage().reply("Sorry, I don't know that command. Did you mean `" + prefix + suggestion.key() + "`?"));
+    }
+
+    private boolean startSuggestionCooldown(long userID) {
+        long now = System.nanoTime();
+        synchronized (suggestionCooldowns) {
+            Long lastSuggestion = suggestionCooldowns.get(userID);
+            if (lastSuggestion != null && now - lastSuggestion < suggestionCooldownNanos) {
+                return false;
+            }
+            suggestionCooldowns.add(userID, now);
+            return true;
+        }
+    }
+
     @Override
     public void onSlashCommandInteraction(@NotNull SlashCommandInteractionEvent event) {
         SlashCommandTemplate command = slashCommandSet.stream().filter(
                 p -> p.getSlashCommand().getName().equalsIgnoreCase(event.getFullCommandName())
         ).findFirst().orElse(null);
 
-        if (null != command) {
+        if (null != command && !replyIfDisabled(command, event)) {
             logger.debug(event.getUser().getName() + " has used the \"" + command.getCommandName() + "\" slash command");
             executeSlashCommand(command, event);
         }
@@ -215,6 +322,11 @@ public class CommandHandler extends ListenerAdapter {
         ).findFirst().orElse(null);
 
         if (command instanceof AutoCompleteInterface autoCompleteInstance) {
+            //a disabled command should not hint at its options, or run its lookups, while the user is still typing
+            if (event.isFromGuild() && !commandToggles.isEnabled(event.getGuild().getIdLong(), command)) {
+                outboundScheduler.queue(event.replyChoices(List.of()));
+                return;
+            }
             logger.debug(event.getUser().getName() + " is using autocomplete on \"" + command.getCommandName() + "\"");
             executeAutoCompleteInteraction(autoCompleteInstance, event);
         }
@@ -232,7 +344,7 @@ public class CommandHandler extends ListenerAdapter {
         for (UserContextTemplate command : userContextCommandSet) {
             if (command instanceof StringSelectInterface stringSelectInterfaceInstance) {
                 if (event.getSelectMenu().getId().equalsIgnoreCase(stringSelectInterfaceInstance.getMenu().getId())) {
-                    executeStringSelectInteraction(stringSelectInterfaceInstance, event);
+                    executeStringSelectInteraction(stringSelectInterfaceInstance::executeStringSelectInteraction, event);
                     return;
                 }
             }
@@ -241,7 +353,7 @@ public class CommandHandler extends ListenerAdapter {
         for (MessageContextTemplate command : messageContextCommandSet) {
             if (command instanceof StringSelectInterface stringSelectInterfaceInstance) {
                 if (event.getSelectMenu().getId().equalsIgnoreCase(stringSelectInterfaceInstance.getMenu().getId())) {
-                    executeStringSelectInteraction(stringSelectInterfaceInstance, event);
+                    executeStringSelectInteraction(stringSelectInterfaceInstance::executeStringSelectInteraction, event);
                     return;
                 }
             }
@@ -250,11 +362,16 @@ public class CommandHandler extends ListenerAdapter {
         for (SlashCommandTemplate command : slashCommandSet) {
             if (command instanceof StringSelectInterface stringSelectInterfaceInstance) {
                 if (event.getSelectMenu().getId().equalsIgnoreCase(stringSelectInterfaceInstance.getMenu().getId())) {
-                    executeStringSelectInteraction(stringSelectInterfaceInstance, event);
+                    executeStringSelectInteraction(stringSelectInterfaceInstance::executeStringSelectInteraction, event);
                     return;
                 }
             }
         }
+
+        //select menus that do not belong to a command may belong to a paginator
+        if (buttonHandler != null) {
+            executeStringSelectInteraction(buttonHandler::onEvent, event);
+        }
     }
 
     @Override
@@ -300,7 +417,7 @@ public class CommandHandler extends ListenerAdapter {
         for (MessageContextTemplate command : messageContextCommandSet) {
             if (command instanceof ModalInterface modalInstance) {
                 if (modalInstance.getModal().getId().equals(event.getModalId())) {
-                    executeModalInteraction(modalInstance, event);
+                    executeModalInteraction(modalInstance::executeModal, event);
                     return;
                 }
             }
@@ -309,7 +426,7 @@ public class CommandHandler extends ListenerAdapter {
         for (UserContextTemplate command : userContextCommandSet) {
             if (command instanceof ModalInterface modalInstance) {
                 if (modalInstance.getModal().getId().equals(event.getModalId())) {
-                    executeModalInteraction(modalInstance, event);
+                    executeModalInteraction(modalInstance::executeModal, event);
                     return;
                 }
             }
@@ -318,11 +435,16 @@ public class CommandHandler extends ListenerAdapter {
         for (SlashCommandTemplate command : slashCommandSet) {
             if (command instanceof ModalInterface modalInstance) {
                 if (modalInstance.getModal().getId().equals(event.getModalId())) {
-                    executeModalInteraction((ModalInterface) command, event);
+                    executeModalInteraction(modalInstance::executeModal, event);
                     return;
                 }
             }
         }
+
+        //modals that do not belong to a command may belong to a paginator
+        if (buttonHandler != null) {
+            executeModalInteraction(buttonHandler::onEvent, event);
+        }
     }
 
     @Override
@@ -331,7 +453,7 @@ public class CommandHandler extends ListenerAdapter {
                 p -> p.getUserContextCommand().getName().equalsIgnoreCase(event.getFullCommandName())
         ).findFirst().orElse(null);
 
-        if (null != command) {
+        if (null != command && !replyIfDisabled(command, event)) {
             logger.debug(event.getUser().getName() + " has used the \"" + command.getCommandName() + "\" slash command");
             executeUserContextCommand(command, event);
         }
@@ -343,12 +465,22 @@ public class CommandHandler extends ListenerAdapter {
                 p -> p.getMessageContextCommand().getName().equalsIgnoreCase(event.getFullCommandName())
         ).findFirst().orElse(null);
 
-        if (null != command) {
+        if (null != command && !replyIfDisabled(command, event)) {
             logger.debug(event.getUser().getName() + " has used the \"" + command.getCommandName() + "\" slash command");
             executeMessageContextCommand(command, event);
         }
     }
 
+    //the check is done before the command is handed to the command pool, so disabled commands never cost a thread
+    private boolean replyIfDisabled(CommandTemplateBase command, IReplyCallback event) {
+        if (!event.isFromGuild() || commandToggles.isEnabled(event.getGuild().getIdLong(), command)) {
+            return false;
+        }
+        logger.debug(event.getUser().getName() + " has attempted to use the \"" + command.getCommandName() + "\" command, which is disabled in their guild");
+        outboundScheduler.queue(event.reply("Sorry, this command has been disabled in this server.").setEphemeral(true));
+        return true;
+    }
+
     private void executeChatCommand(ChatCommandTemplate template, MessageReceivedEvent event, String messageContent) {
         this.commandPool.submit(() -> {
             try {
@@ -356,12 +488,17 @@ public class CommandHandler extends ListenerAdapter {
             } catch (final Exception e) {
                 logger.error("Error while executing the \"" + template.getCommandName() + "\" chat command! \n" +
                         "Exception: " + e.getLocalizedMessage());
-                event.getMessage().reply("Sorry, I was unable to finish executing that command. Please try again later.").queue();
+                outboundScheduler.queue(event.getMessage().reply("Sorry, I was unable to finish executing that command. Please try again later."));
             }
         });
     }
 
     private void executeSlashCommand(SlashCommandTemplate template, SlashCommandInteractionEvent event) {
+        if (template instanceof CachedSlashCommandTemplate cachedTemplate) {
+            executeCachedSlashCommand(cachedTemplate, event);
+            return;
+        }
+
         this.commandPool.submit(() -> {
             try {
                 template.executeSlashCommand(event);
@@ -369,14 +506,82 @@ public class CommandHandler extends ListenerAdapter {
                 logger.error("Error while executing the \"" + template.getCommandName() + "\" slash command! \n" +
                         "Exception: " + e.getLocalizedMessage());
                 if (event.isAcknowledged()) {
-                    event.getHook().editOriginal("Sorry, I was unable to finish executing that command. Please try again later.").setActionRow().setEmbeds().queue();
+                    outboundScheduler.queue(event.getHook().editOriginal("Sorry, I was unable to finish executing that command. Please try again later.").setActionRow().setEmbeds(), OutboundScheduler.Priority.MESSAGE);
                 } else {
-                    event.reply("Sorry, I was unable to finish executing that command. Please try again later.").setEphemeral(true).queue();
+                    outboundScheduler.queue(event.reply("Sorry, I was unable to finish executing that command. Please try again later.").setEphemeral(true));
                 }
             }
         });
     }
 
+    private void executeCachedSlashCommand(CachedSlashCommandTemplate template, SlashCommandInteractionEvent event) {
+        CompletableFuture<MessageCreateData> reply;
+        if (template.getResultCacheDuration().isZero()) {
+            reply = CompletableFuture.supplyAsync(() -> template.createReply(event), commandPool);
+        } else {
+            reply = replyCache.get(createCachedReplyKey(template, event), template.getResultCacheDuration(), () -> {
+                MessageCreateData data = template.createReply(event);
+                if (!data.getFiles().isEmpty()) {
+                    //a file can only be uploaded once, so every use after the first would fail to send
+                    data.close();
+                    throw new IllegalStateException("The reply of the \"" + template.getCommandName() + "\" slash command cannot be cached because it has files!");
+                }
+                return data;
+            }, commandPool);
+        }
+
+        //the reply is still being created, which may take longer than discord waits for us to respond
+        boolean isDeferred = !reply.isDone();
+        if (isDeferred) {
+            outboundScheduler.queue(event.deferReply());
+        }
+
+        reply.whenComplete((data, error) -> {
+            if (error != null) {
+                logger.error("Error while executing the \"" + template.getCommandName() + "\" slash command! \n" +
+                        "Exception: " + error.getLocalizedMessage());
+                if (isDeferred) {
+                    outboundScheduler.queue(event.getHook().editOriginal("Sorry, I was unable to finish executing that command. Please try again later."), OutboundScheduler.Priority.MESSAGE);
+                } else {
+                    outboundScheduler.queue(event.reply("Sorry, I was unable to finish executing that command. Please try again later.").setEphemeral(true));
+                }
+            } else if (isDeferred) {
+                outboundScheduler.queue(event.getHook().editOriginal(MessageEditData.fromCreateData(data)), OutboundScheduler.Priority.MESSAGE);
+            } else {
+                outboundScheduler.queue(event.reply(data));
+            }
+        });
+    }
+
+    private record CachedReplyKey(String commandName, String options, CachedSlashCommandTemplate.ResultScope scope, long scopeID) {
+    }
+
+    private static CachedReplyKey createCachedReplyKey(CachedSlashCommandTemplate template, SlashCommandInteractionEvent event) {
+        //options are sorted by name and their values normalized, so that the order they were typed in does not matter
+        String options = event.getOptions().stream()
+                .sorted(Comparator.comparing(OptionMapping::getName))
+                .map(option -> option.getName() + "=" + normalizeOption(option))
+                .collect(Collectors.joining("\u0000"));
+
+        long scopeID = switch (template.getResultCacheScope()) {
+            case GLOBAL -> 0;
+            case GUILD -> event.isFromGuild() ? event.getGuild().getIdLong() : event.getChannel().getIdLong();
+            case CHANNEL -> event.getChannel().getIdLong();
+            case USER -> event.getUser().getIdLong();
+        };
+        return new CachedReplyKey(event.getFullCommandName(), options, template.getResultCacheScope(), scopeID);
+    }
+
+    private static String normalizeOption(OptionMapping option) {
+        return switch (option.getType()) {
+            case STRING -> option.getAsString().strip();
+            case INTEGER -> Long.toString(option.getAsLong());
+            case NUMBER -> Double.toString(option.getAsDouble());
+            //mentionables, users, channels, roles and attachments are all identified by their ID
+            default -> option.getType() + ":" + option.getAsString();
+        };
+    }
+
     private void executeAutoCompleteInteraction(AutoCompleteInterface template, CommandAutoCompleteInteractionEvent event) {
         this.commandPool.submit(() -> {
             try {
@@ -398,15 +603,15 @@ public class CommandHandler extends ListenerAdapter {
         });
     }
 
-    private void executeStringSelectInteraction(StringSelectInterface template, StringSelectInteractionEvent event) {
+    private void executeStringSelectInteraction(Consumer<StringSelectInteractionEvent> handler, StringSelectInteractionEvent event) {
         this.commandPool.submit(() -> {
             try {
-                template.executeStringSelectInteraction(event);
+                handler.accept(event);
             } catch (Exception e) {
                 if (event.isAcknowledged()) {
-                    event.getHook().editOriginal("Sorry, I was unable to execute that command").queue();
+                    outboundScheduler.queue(event.getHook().editOriginal("Sorry, I was unable to execute that command"), OutboundScheduler.Priority.MESSAGE);
                 } else {
-                    event.reply("Sorry, I was unable to execute that command. Please try again later").setEphemeral(true).queue();
+                    outboundScheduler.queue(event.reply("Sorry, I was unable to execute that command. Please try again later").setEphemeral(true));
                 }
             }
         });
@@ -418,24 +623,24 @@ public class CommandHandler extends ListenerAdapter {
                 template.executeEntitySelectInteraction(event);
             } catch (Exception e) {
                 if (event.isAcknowledged()) {
-                    event.getHook().editOriginal("Sorry, I was unable to execute that command").queue();
+                    outboundScheduler.queue(event.getHook().editOriginal("Sorry, I was unable to execute that command"), OutboundScheduler.Priority.MESSAGE);
                 } else {
-                    event.reply("Sorry, I was unable to execute that command. Please try again later").setEphemeral(true).queue();
+                    outboundScheduler.queue(event.reply("Sorry, I was unable to execute that command. Please try again later").setEphemeral(true));
                 }
             }
         });
     }
 
-    private void executeModalInteraction(ModalInterface template, ModalInteractionEvent event) {
+    private void executeModalInteraction(Consumer<ModalInteractionEvent> handler, ModalInteractionEvent event) {
         this.commandPool.submit(() -> {
             try {
-                template.executeModal(event);
+                handler.accept(event);
             } catch (Exception e) {
                 //this one is very important to catch. The modal will not close unless it gets handled.
                 if (event.isAcknowledged()) {
-                    event.getHook().editOriginal("Sorry, I was unable to execute that command. Please try again later").queue();
+                    outboundScheduler.queue(event.getHook().editOriginal("Sorry, I was unable to execute that command. Please try again later"), OutboundScheduler.Priority.MESSAGE);
                 } else {
-                    event.reply("Sorry, I was unable to execute that command. Please try again later").setEphemeral(true).queue();
+                    outboundScheduler.queue(event.reply("Sorry, I was unable to execute that command. Please try again later").setEphemeral(true));
                 }
             }
         });
@@ -447,9 +652,9 @@ public class CommandHandler extends ListenerAdapter {
                 template.executeUserContextCommand(event);
             } catch (final Exception e) {
                 if (event.isAcknowledged()) {
-                    event.getHook().editOriginal("Sorry, I was unable to execute that command").queue();
+                    outboundScheduler.queue(event.getHook().editOriginal("Sorry, I was unable to execute that command"), OutboundScheduler.Priority.MESSAGE);
                 } else {
-                    event.reply("Sorry, I was unable to execute that command. Please try again later").setEphemeral(true).queue();
+                    outboundScheduler.queue(event.reply("Sorry, I was unable to execute that command. Please try again later").setEphemeral(true));
                 }
             }
         });
@@ -461,9 +666,9 @@ public class CommandHandler extends ListenerAdapter {
                 template.executeMessageContextCommand(event);
             } catch (final Exception e) {
                 if (event.isAcknowledged()) {
-                    event.getHook().editOriginal("Sorry, I was unable to execute that command").queue();
+                    outboundScheduler.queue(event.getHook().editOriginal("Sorry, I was unable to execute that command"), OutboundScheduler.Priority.MESSAGE);
                 } else {
-                    event.reply("Sorry, I was unable to execute that command. Please try again later").setEphemeral(true).queue();
+                    outboundScheduler.queue(event.reply("Sorry, I was unable to execute that command. Please try again later").setEphemeral(true));
                 }
             }
         });
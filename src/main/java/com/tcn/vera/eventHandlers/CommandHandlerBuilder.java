@@ -30,8 +30,10 @@ package com.tcn.vera.eventHandlers;
 import com.tcn.vera.commands.templates.ChatCommandTemplate;
 import com.tcn.vera.commands.templates.CommandTemplateBase;
 import com.tcn.vera.commands.templates.CommandType;
+import com.tcn.vera.state.CommandToggleStore;
 import org.slf4j.LoggerFactory;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 
@@ -44,9 +46,15 @@ public class CommandHandlerBuilder {
 
     private boolean enableDefaultHelpCommand = true;
 
+    private CommandToggleStore commandToggleStore = null;
+
+    private boolean enableCommandSuggestions = false;
+    private Duration suggestionCooldown = Duration.ofSeconds(30);
+
     public CommandHandler build() {
         runChecks();
-        return new CommandHandler(commandList, botOwner, prefix, buttonHandler, enableDefaultHelpCommand);
+        return new CommandHandler(commandList, botOwner, prefix, buttonHandler, enableDefaultHelpCommand, commandToggleStore,
+                enableCommandSuggestions, suggestionCooldown);
     }
 
     private void runChecks() {
@@ -150,4 +158,46 @@ public class CommandHandlerBuilder {
         return this;
     }
 
+    /**
+     * Sets the store that remembers which commands have been disabled in which guilds. Without one, commands can still
+     * be disabled through {@link CommandHandler#getCommandToggles()}, but are enabled again once the bot restarts.
+     * <p>
+     * Default value: none
+     * @param commandToggleStore The store to load and save disabled commands with.
+     * @return This builder
+     */
+    public CommandHandlerBuilder setCommandToggleStore(CommandToggleStore commandToggleStore) {
+        this.commandToggleStore = commandToggleStore;
+        return this;
+    }
+
+    /**
+     * Determines if Vera should reply to chat commands that do not exist with the closest command name, such as
+     * suggesting {@code !help} for {@code !hlep}. Owner commands and commands that are disabled in the guild are never
+     * suggested. Each user is sent at most one suggestion per {@link #setSuggestionCooldown(Duration) cooldown}.
+     * <p>
+     * Default value: false
+     * @param enable Suggests commands if true, ignores unknown commands if false.
+     * @return This builder
+     */
+    public CommandHandlerBuilder enableCommandSuggestions(boolean enable) {
+        this.enableCommandSuggestions = enable;
+        return this;
+    }
+
+    /**
+     * Sets how long a user has to wait after being sent a command suggestion before they are sent another.
+     * <p>
+     * Default value: 30 seconds
+     * @param cooldown The time between two suggestions to the same user.
+     * @return This builder
+     */
+    public CommandHandlerBuilder setSuggestionCooldown(Duration cooldown) {
+        if (cooldown.isNegative()) {
+            throw new IllegalArgumentException("The suggestion cooldown cannot be negative!");
+        }
+        this.suggestionCooldown = cooldown;
+        return this;
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,227 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.eventHandlers;
+
+import com.tcn.vera.commands.templates.CommandTemplateBase;
+import com.tcn.vera.commands.templates.CommandType;
+import com.tcn.vera.state.CommandToggleStore;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of which commands have been disabled in which guilds. The {@link CommandHandler} checks it before every
+ * command that is used in a guild, and ignores commands that are disabled there.
+ * <p>
+ * Every command is given a dense ordinal when the command handler is built, and the commands that are disabled in a guild
+ * are kept as a bitset indexed by those ordinals. Checking a command is a map lookup and a bit test, and a guild only
+ * takes up memory once something has been disabled in it, a single long for every 64 commands. The bitsets are never
+ * changed once they are in the map, only replaced, so checks never wait on a lock.
+ * <blockquote><pre>
+ *     //in an admin command
+ *     commandHandler.getCommandToggles().setEnabled(event.getGuild().getIdLong(), CommandType.SLASH_COMMAND, "stats", false);
+ * </pre></blockquote>
+ */
+public class CommandToggles {
+
+    private final Map<CommandTemplateBase, Integer> ordinals = new IdentityHashMap<>();
+    private final Map<String, Integer> ordinalsByKey = new HashMap<>();
+    private final String[] keys;
+    private final int words;
+
+    private final ConcurrentHashMap<Long, long[]> disabled = new ConcurrentHashMap<>();
+    //null if the toggles are only kept in memory
+    private final CommandToggleStore store;
+
+    CommandToggles(Collection<? extends CommandTemplateBase> commands, CommandToggleStore store) {
+        this.keys = new String[commands.size()];
+        this.words = Math.max(1, (commands.size() + 63) >>> 6);
+        this.store = store;
+
+        int ordinal = 0;
+        for (CommandTemplateBase command : commands) {
+            ordinals.put(command, ordinal);
+            ordinalsByKey.put(getCommandKey(command), ordinal);
+            keys[ordinal] = getCommandKey(command);
+            ordinal++;
+        }
+
+        if (store != null) {
+            store.loadAll((guildID, disabledCommands) -> {
+                long[] bits = new long[words];
+                for (String key : disabledCommands) {
+                    Integer disabledOrdinal = ordinalsByKey.get(key);
+                    //the command may have been removed since it was disabled
+                    if (disabledOrdinal != null) {
+                        bits[disabledOrdinal >>> 6] |= 1L << disabledOrdinal;
+                    }
+                }
+                if (!isEmpty(bits)) {
+                    disabled.put(guildID, bits);
+                }
+            });
+        }
+    }
+
+    /**
+     * Gets the key that a command is identified by in a {@link CommandToggleStore}. It is made of the type and the name
+     * of the command, so commands of different types may share a name.
+     *
+     * @param command The command.
+     * @return The key of the command.
+     */
+    public static String getCommandKey(CommandTemplateBase command) {
+        return getCommandKey(command.getCommandType(), command.getCommandName());
+    }
+
+    private static String getCommandKey(CommandType type, String commandName) {
+        return type.name() + ":" + commandName;
+    }
+
+    /**
+     * Checks whether a command may be used in a guild.
+     *
+     * @param guildID The ID of the guild.
+     * @param command The command.
+     * @return False if the command has been disabled in the guild. Commands that were not registered with the command
+     * handler are always enabled.
+     */
+    public boolean isEnabled(long guildID, CommandTemplateBase command) {
+        long[] bits = disabled.get(guildID);
+        if (bits == null) {
+            return true;
+        }
+        Integer ordinal = ordinals.get(command);
+        return ordinal == null || (bits[ordinal >>> 6] & (1L << ordinal)) == 0;
+    }
+
+    /**
+     * Enables or disables a command in a guild, and saves the change to the {@link CommandToggleStore} if there is one.
+     *
+     * @param guildID The ID of the guild.
+     * @param command The command.
+     * @param enabled Whether the command may be used in the guild.
+     */
+    public void setEnabled(long guildID, CommandTemplateBase command, boolean enabled) {
+        Integer ordinal = ordinals.get(command);
+        if (ordinal == null) {
+            throw new IllegalArgumentException("The \"" + command.getCommandName() + "\" command was not registered with this command handler!");
+        }
+        setEnabled(guildID, ordinal, enabled);
+    }
+
+    /**
+     * Enables or disables a command in a guild by its name, and saves the change to the {@link CommandToggleStore} if
+     * there is one.
+     *
+     * @param guildID     The ID of the guild.
+     * @param type        The type of the command.
+     * @param commandName The name of the command. Aliases of chat commands are not accepted.
+     * @param enabled     Whether the command may be used in the guild.
+     * @return False if there is no command with that type and name.
+     */
+    public boolean setEnabled(long guildID, CommandType type, String commandName, boolean enabled) {
+        Integer ordinal = ordinalsByKey.get(getCommandKey(type, commandName));
+        if (ordinal == null) {
+            return false;
+        }
+        setEnabled(guildID, ordinal, enabled);
+        return true;
+    }
+
+    /**
+     * Gets the commands that have been disabled in a guild.
+     *
+     * @param guildID The ID of the guild.
+     * @return The keys of the disabled commands, as returned by {@link #getCommandKey(CommandTemplateBase)}.
+     */
+    public Set<String> getDisabledCommands(long guildID) {
+        return toKeys(disabled.get(guildID));
+    }
+
+    /**
+     * @return The number of guilds that have at least one disabled command.
+     */
+    public int getGuildCount() {
+        return disabled.size();
+    }
+
+    //writes are serialized so that the store is always given the changes of a guild in the order they were made
+    private synchronized void setEnabled(long guildID, int ordinal, boolean enabled) {
+        long[] current = disabled.get(guildID);
+        long[] bits = current == null ? new long[words] : current.clone();
+        if (enabled) {
+            bits[ordinal >>> 6] &= ~(1L << ordinal);
+        } else {
+            bits[ordinal >>> 6] |= 1L << ordinal;
+        }
+
+        if (current != null && current[ordinal >>> 6] == bits[ordinal >>> 6]) {
+            //nothing changed
+            return;
+        }
+        if (isEmpty(bits)) {
+            if (current == null) {
+                return;
+            }
+            disabled.remove(guildID);
+        } else {
+            disabled.put(guildID, bits);
+        }
+
+        if (store != null) {
+            store.save(guildID, toKeys(bits));
+        }
+    }
+
+    private Set<String> toKeys(long[] bits) {
+        Set<String> disabledKeys = new LinkedHashSet<>();
+        if (bits != null) {
+            for (int ordinal = 0; ordinal < keys.length; ordinal++) {
+                if ((bits[ordinal >>> 6] & (1L << ordinal)) != 0) {
+                    disabledKeys.add(keys[ordinal]);
+                }
+            }
+        }
+        return disabledKeys;
+    }
+
+    private static boolean isEmpty(long[] bits) {
+        for (long word : bits) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -28,6 +28,9 @@
 package com.tcn.vera.pagination;
 
 import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.state.ComponentState;
+import com.tcn.vera.utils.EmbedSerializer;
+import com.tcn.vera.utils.EmbedValidator;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
@@ -35,10 +38,18 @@ import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
 import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * A Pagainator that is capable of displaying embeds in a more advanced way than the {@link EmbedPaginator}. This paginator
@@ -51,17 +62,42 @@ import java.util.function.BiConsumer;
  */
 public class AdvancedEmbedPaginator extends PaginatorBase{
 
+    private static final int DEFAULT_PAGE_CACHE_SIZE = 10;
+
+    private static final MessageEmbed EMPTY_SOURCE_PAGE = new EmbedBuilder().setDescription("There is nothing to show here.").build();
+
     private final ArrayList<MessageEmbed> generatedEmbedList;
     private final ArrayList<Object> pageDataList;
     private final BiConsumer<EmbedBuilder, Object> embedConsumer;
 
     private final BiConsumer<SlashCommandInteractionEvent, Object> eventSelectConsumer;
     private final BiConsumer<Message, Object> messageSelectConsumer;
+    //only kept if the event select consumer needs it
+    private final SlashCommandInteractionEvent selectEvent;
 
     private final boolean hasSelectButton;
 
     private final boolean addPageNum;
 
+    private final String restorerID;
+    private final Function<Object, String> pageDataEncoder;
+
+    //only set if the pages come from a PageSource instead of the page data list
+    private final PageWindow<?> pageWindow;
+
+    //the most recently used pages of the page data list. Pre-made embeds stay in the generated embed list for good
+    private PageEmbedCache pageCache = new PageEmbedCache(DEFAULT_PAGE_CACHE_SIZE, null);
+    private RenderPolicy renderPolicy = RenderPolicy.prefetch(1);
+
+    //pages rendered by other paginators showing the same content. Null if this paginator does not share its pages
+    private SharedPageCache sharedPageCache = null;
+    private Object contentKey = null;
+
+    //uploads the image of each page once. Null if the pages do not have generated images
+    private PageImageStore imageStore = null;
+    private String imageFileName = null;
+    private Function<Object, byte[]> imageRenderer = null;
+
     /**
      * Please consider using the AdvancedEmbedPaginatorBuilder to build this object.
      * <p>
@@ -80,18 +116,134 @@ public class AdvancedEmbedPaginator extends PaginatorBase{
      * @param addPageNum Determines if the paginator should add the page number to the footer of the embed when its is being generated and no footer is present.
      */
     protected AdvancedEmbedPaginator(Message message, SlashCommandInteractionEvent commandEvent, int numberOfPages, boolean shouldWrap, long userID, ButtonHandler buttonHandler, ArrayList<Object> pageDataList, ArrayList<MessageEmbed> embedList, BiConsumer<EmbedBuilder, Object> pageBuilder, BiConsumer<SlashCommandInteractionEvent, Object> eventSelectConsumer, BiConsumer<Message, Object> messageSelectConsumer, boolean addPageNum){
+        this(message, commandEvent, numberOfPages, shouldWrap, userID, buttonHandler, pageDataList, embedList, pageBuilder, eventSelectConsumer, messageSelectConsumer, addPageNum, null, null);
+    }
+
+    /**
+     * Please consider using the AdvancedEmbedPaginatorBuilder to build this object.
+     * <p>
+     * This is the same as the other constructor, but allows the paginator to be saved in a {@link com.tcn.vera.state.ComponentStateStore}.
+     *
+     * @param restorerID The ID of the {@link PaginatorRestorer} that can rebuild this paginator. Null if the paginator should not be saved.
+     * @param pageDataEncoder A function that turns an element of the pageDataList into a string. Null if the paginator should not be saved.
+     */
+    protected AdvancedEmbedPaginator(Message message, SlashCommandInteractionEvent commandEvent, int numberOfPages, boolean shouldWrap, long userID, ButtonHandler buttonHandler, ArrayList<Object> pageDataList, ArrayList<MessageEmbed> embedList, BiConsumer<EmbedBuilder, Object> pageBuilder, BiConsumer<SlashCommandInteractionEvent, Object> eventSelectConsumer, BiConsumer<Message, Object> messageSelectConsumer, boolean addPageNum, String restorerID, Function<Object, String> pageDataEncoder){
         super(message, commandEvent, numberOfPages, shouldWrap, userID, buttonHandler);
 
         this.pageDataList = pageDataList;
         this.eventSelectConsumer = eventSelectConsumer;
         this.messageSelectConsumer = messageSelectConsumer;
+        this.selectEvent = eventSelectConsumer == null ? null : commandEvent;
         this.generatedEmbedList = embedList;
         this.addPageNum = addPageNum;
+        this.restorerID = restorerID;
+        this.pageDataEncoder = pageDataEncoder;
+        this.pageWindow = null;
 
         embedConsumer = pageBuilder;
         hasSelectButton = eventSelectConsumer != null || messageSelectConsumer != null;
 
-        if(numberOfPages > 1){
+        addNavigationButtons();
+    }
+
+    protected AdvancedEmbedPaginator(ComponentState state, ButtonHandler buttonHandler, ArrayList<Object> pageDataList, ArrayList<MessageEmbed> embedList, BiConsumer<EmbedBuilder, Object> pageBuilder, BiConsumer<Message, Object> messageSelectConsumer, boolean addPageNum){
+        super(state, pageDataList.size(), buttonHandler);
+
+        this.pageDataList = pageDataList;
+        this.eventSelectConsumer = null;
+        this.messageSelectConsumer = messageSelectConsumer;
+        this.selectEvent = null;
+        this.generatedEmbedList = embedList;
+        this.addPageNum = addPageNum;
+        this.restorerID = state.restorerID();
+        this.pageDataEncoder = null;
+        this.pageWindow = null;
+
+        embedConsumer = pageBuilder;
+        hasSelectButton = messageSelectConsumer != null;
+
+        addNavigationButtons();
+    }
+
+    /**
+     * Please consider using the AdvancedEmbedPaginatorBuilder to build this object.
+     * <p>
+     * This paginator loads its pages from a {@link PageSource} as they are needed, and only keeps a few pages around the
+     * current one in memory. Paginators that use a page source cannot be saved in a {@link com.tcn.vera.state.ComponentStateStore}.
+     *
+     * @param message The message that the paginator is going to modify. Null if this is a slash command.
+     * @param commandEvent The commandEvent that the paginator is responding to. Null if this is a message command.
+     * @param shouldWrap Determines if the paginator should wrap from the last page to the first.
+     * @param userID The id of the discord user who caused the paginator to be created.
+     * @param buttonHandler The buttonHandler class that the paginator should use for its buttons.
+     * @param pageSource The source to load the page data from.
+     * @param windowSize The number of pages to keep in memory. Must be at least 3, so that the pages on both sides of the current one fit.
+     * @param pageBuilder A biconsumer that takes in an {@link EmbedBuilder} and the data of a page to form a page.
+     * @param eventSelectConsumer A consumer that is executed when the 'select' button is pressed on a page of the paginator and the paginator is using a slash command.
+     * @param messageSelectConsumer A consumer that is executed when the 'select' button is pressed on a page of the paginator and the paginator is using a chat command.
+     * @param addPageNum Determines if the paginator should add the page number to the footer of the embed when its is being generated and no footer is present.
+     */
+    protected AdvancedEmbedPaginator(Message message, SlashCommandInteractionEvent commandEvent, boolean shouldWrap, long userID, ButtonHandler buttonHandler, PageSource<?> pageSource, int windowSize, BiConsumer<EmbedBuilder, Object> pageBuilder, BiConsumer<SlashCommandInteractionEvent, Object> eventSelectConsumer, BiConsumer<Message, Object> messageSelectConsumer, boolean addPageNum){
+        this(message, commandEvent, shouldWrap, userID, buttonHandler, new PageWindow<>(pageSource, windowSize), pageBuilder, eventSelectConsumer, messageSelectConsumer, addPageNum);
+    }
+
+    private AdvancedEmbedPaginator(Message message, SlashCommandInteractionEvent commandEvent, boolean shouldWrap, long userID, ButtonHandler buttonHandler, PageWindow<?> pageWindow, BiConsumer<EmbedBuilder, Object> pageBuilder, BiConsumer<SlashCommandInteractionEvent, Object> eventSelectConsumer, BiConsumer<Message, Object> messageSelectConsumer, boolean addPageNum){
+        super(message, commandEvent, pageWindow.getPageCount(), shouldWrap, userID, buttonHandler);
+
+        this.pageDataList = new ArrayList<>();
+        this.eventSelectConsumer = eventSelectConsumer;
+        this.messageSelectConsumer = messageSelectConsumer;
+        this.selectEvent = eventSelectConsumer == null ? null : commandEvent;
+        this.generatedEmbedList = new ArrayList<>();
+        this.addPageNum = addPageNum;
+        this.restorerID = null;
+        this.pageDataEncoder = null;
+        this.pageWindow = pageWindow;
+        setPageWindow(pageWindow);
+
+        embedConsumer = pageBuilder;
+        hasSelectButton = eventSelectConsumer != null || messageSelectConsumer != null;
+
+        addNavigationButtons();
+    }
+
+    /**
+     * Creates a {@link PaginatorRestorer} that can rebuild AdvancedEmbedPaginators that were saved with
+     * {@link Builder#enablePersistence(String, Function)}. Register it with {@link ButtonHandler#registerRestorer(String, PaginatorRestorer)}
+     * under the same ID that was given to the builder.
+     * <p>
+     * Restored paginators do not have access to the event that created them, so the select button will always call a
+     * message select consumer with the message that the paginator is on.
+     *
+     * @param pageBuilder The same page builder that the paginator was built with.
+     * @param pageDataDecoder A function that turns the strings created by the page data encoder back into page data.
+     * @param messageSelectConsumer The consumer to call when the select button is pressed. May be null.
+     * @return A restorer for AdvancedEmbedPaginators.
+     */
+    public static PaginatorRestorer createRestorer(BiConsumer<EmbedBuilder, Object> pageBuilder, Function<String, Object> pageDataDecoder, BiConsumer<Message, Object> messageSelectConsumer) {
+        return (state, buttonHandler) -> {
+            DataObject savedData = DataObject.fromJson(state.payload());
+            DataArray pages = savedData.getArray("pages");
+
+            ArrayList<Object> pageDataList = new ArrayList<>(pages.length());
+            ArrayList<MessageEmbed> embedList = new ArrayList<>(pages.length());
+            for (int i = 0; i < pages.length(); i++) {
+                DataObject page = pages.getObject(i);
+                if (page.hasKey("embed")) {
+                    embedList.add(EmbedSerializer.fromData(page.getObject("embed")));
+                    pageDataList.add(null);
+                } else {
+                    embedList.add(null);
+                    pageDataList.add(pageDataDecoder.apply(page.getString("data")));
+                }
+            }
+
+            return new AdvancedEmbedPaginator(state, buttonHandler, pageDataList, embedList, pageBuilder, messageSelectConsumer, savedData.getBoolean("addPageNum"));
+        };
+    }
+
+    private void addNavigationButtons() {
+        if(numberOfPages > 1 || numberOfPages == PageSource.UNKNOWN_PAGE_COUNT){
             //left, stop, right buttons
             addButton(Button.primary(getFullButtonID("previous"),  Emoji.fromUnicode("\u2B05")));
             addButton(Button.danger(getFullButtonID("stop"), Emoji.fromUnicode("\uD83D\uDDD1")));
@@ -102,15 +254,34 @@ public class AdvancedEmbedPaginator extends PaginatorBase{
         }
     }
 
+    @Override
+    protected String getRestorerID() {
+        return pageDataEncoder == null || pageWindow != null ? null : restorerID;
+    }
+
+    @Override
+    protected byte[] savePages() {
+        //pre-made embeds are saved as they are, everything else is saved as page data and generated again when needed
+        DataArray pages = DataArray.empty();
+        for (int i = 0; i < pageDataList.size(); i++) {
+            if (pageDataList.get(i) == null) {
+                pages.add(DataObject.empty().put("embed", generatedEmbedList.get(i).toData()));
+            } else {
+                pages.add(DataObject.empty().put("data", pageDataEncoder.apply(pageDataList.get(i))));
+            }
+        }
+        return DataObject.empty().put("addPageNum", addPageNum).put("pages", pages).toJson();
+    }
+
     @Override
     protected void onButtonClick(ButtonInteractionEvent event) {
 
         if (event.getUser().getIdLong() != userID) {
-            event.reply("You are not the user who created this menu!").setEphemeral(true).queue();
+            queue(event.reply("You are not the user who created this menu!").setEphemeral(true));
             return;
         }
 
-        event.deferEdit().queue();
+        queue(event.deferEdit());
 
         switch (event.getComponentId().split(":")[2]) {
             case "previous" -> decPageNum();
@@ -120,7 +291,7 @@ public class AdvancedEmbedPaginator extends PaginatorBase{
                 return;
             }
             case "success" -> {
-                enterSubMenu();
+                enterSubMenu(event.getMessage());
                 //we don't want to continue this paginator after the user has selected something. return
                 return;
             }
@@ -129,78 +300,201 @@ public class AdvancedEmbedPaginator extends PaginatorBase{
             }
         }
 
-
-        showPage();
-
-        //now we need to ensure the next pages are generated
-        if(getNextPageNum() != -1){
-            getMenuEmbed(getNextPageNum());
-        }
-        if(getPreviousPageNum() != -1){
-            getMenuEmbed(getPreviousPageNum());
-        }
-
+        updatePage();
+        prefetchNeighbours();
     }
 
-    private void enterSubMenu(){
+    private void enterSubMenu(Message menuMessage){
         //depending on how this page was created, we either need to send a embedBuilder or the pageData object
         Object toSend;
-        if(pageDataList.get(currentPage) == null){
-            toSend = getMenuEmbed(currentPage);
+        if(pageWindow != null){
+            PageSource.Page<?> page = pageWindow.getPage(currentPage);
+            toSend = page == null ? null : page.data();
+        } else if(pageDataList.get(currentPage) == null){
+            toSend = generatedEmbedList.get(currentPage);
         } else {
             toSend = pageDataList.get(currentPage);
         }
-        if (hasSelectButton) {
-            if (isCommand) {
-                eventSelectConsumer.accept(commandEvent, toSend);
-            } else {
-                messageSelectConsumer.accept(sentMessage, toSend);
-            }
+        if (isCommand && eventSelectConsumer != null) {
+            eventSelectConsumer.accept(selectEvent, toSend);
+        } else if (!isCommand && messageSelectConsumer != null) {
+            messageSelectConsumer.accept(menuMessage, toSend);
+        }
+    }
+
+    /**
+     * Gets the page with the given number. The text of the page is rendered right away, but its image may still be
+     * uploading, so the page is only complete once the future is.
+     *
+     * @return A future that completes with the page, or null if a page source has no page with this number.
+     */
+    private CompletableFuture<MessageEmbed> getMenuEmbed(int pagenum){
+        if(pageWindow != null){
+            CompletableFuture<MessageEmbed> embed = getSourceEmbed(pageWindow, pagenum);
+            return embed == null && numberOfPages == 0 ? CompletableFuture.completedFuture(EMPTY_SOURCE_PAGE) : embed;
         }
+
+        return renderPage(pagenum, null);
     }
 
-    private MessageEmbed getMenuEmbed(int pagenum){
-        if(generatedEmbedList.size() - 1 >= pagenum && null != generatedEmbedList.get(pagenum)){
-            return generatedEmbedList.get(pagenum);
+    /**
+     * Gets the page that has been or is being rendered, or starts rendering it. Only one render of a page ever runs,
+     * everyone else that asks for the page shares its future.
+     *
+     * @param pagenum The page to render.
+     * @param executor The executor to render the page on, or null to render it on the current thread.
+     * @return A future that completes with the rendered page.
+     */
+    private CompletableFuture<MessageEmbed> renderPage(int pagenum, Executor executor){
+        //pre-made embeds do not need to be rendered, and cannot be rendered again if they were dropped
+        MessageEmbed premade = generatedEmbedList.size() > pagenum ? generatedEmbedList.get(pagenum) : null;
+        if(premade != null){
+            return CompletableFuture.completedFuture(premade);
+        }
+
+        CompletableFuture<MessageEmbed> render = new CompletableFuture<>();
+        CompletableFuture<MessageEmbed> existing = pageCache.putIfAbsent(pagenum, render);
+        if(existing != null){
+            return existing;
         }
 
-        //executed only if the page hasn't been generated yet
+        Runnable task = () -> {
+            try {
+                Object pageData = pageDataList.get(pagenum);
+                renderShared(pagenum, () -> buildEmbed(pageData, pagenum))
+                        .thenCompose(embed -> attachImage(embed, pageData, pagenum))
+                        .whenComplete((finished, error) -> {
+                            if (error != null) {
+                                failRender(pagenum, render, error);
+                                return;
+                            }
+                            render.complete(finished);
+                            pageCache.rendered(pagenum, render, finished);
+                        });
+            } catch (Throwable t) {
+                failRender(pagenum, render, t);
+            }
+        };
+        if(executor == null){
+            task.run();
+        } else {
+            executor.execute(task);
+        }
+        return render;
+    }
+
+    private void failRender(int pagenum, CompletableFuture<MessageEmbed> render, Throwable error){
+        //let the next request try again
+        pageCache.remove(pagenum, render);
+        render.completeExceptionally(error);
+    }
+
+    private <T> CompletableFuture<MessageEmbed> getSourceEmbed(PageWindow<T> window, int pagenum){
+        return getWindowEmbed(window, pagenum, page -> renderShared(pagenum, () -> buildEmbed(page.data(), pagenum))
+                .thenCompose(embed -> attachImage(embed, page.data(), pagenum)));
+    }
+
+    //another paginator may be rendering the same page, in which case we share its render instead of waiting for it
+    private CompletableFuture<MessageEmbed> renderShared(int pagenum, Supplier<MessageEmbed> renderer){
+        return sharedPageCache == null ? CompletableFuture.completedFuture(renderer.get()) : sharedPageCache.get(contentKey, pagenum, renderer);
+    }
+
+    private MessageEmbed buildEmbed(Object pageData, int pagenum){
         EmbedBuilder embedBuilder = new EmbedBuilder();
-        embedConsumer.accept(embedBuilder, pageDataList.get(pagenum));
+        embedConsumer.accept(embedBuilder, pageData);
 
         //if the embed doesn't have a footer, add one that shows the page number if the user wants it
         if(addPageNum && embedBuilder.build().getFooter() == null){
-            embedBuilder.setFooter("Page " + (pagenum + 1) + " of " + numberOfPages);
+            if(numberOfPages == PageSource.UNKNOWN_PAGE_COUNT){
+                embedBuilder.setFooter("Page " + (pagenum + 1));
+            } else {
+                embedBuilder.setFooter("Page " + (pagenum + 1) + " of " + numberOfPages);
+            }
+        }
+
+        //catch an embed that discord would reject here, where the page that caused it is still known
+        return EmbedValidator.validate(embedBuilder.build());
+    }
+
+    //the image is uploaded without holding up whoever asked for the page. The text of the page is shared without it, so
+    //the same image is looked up again for every paginator, which is cheap once it has been uploaded
+    private CompletableFuture<MessageEmbed> attachImage(MessageEmbed embed, Object pageData, int pagenum){
+        if(imageStore == null || pageData == null){
+            return CompletableFuture.completedFuture(embed);
         }
 
-        generatedEmbedList.set(pagenum, embedBuilder.build());
+        //pages that show the same content share their images, everything else is only shared with this paginator
+        Object imageKey = List.of(contentKey != null ? contentKey : getButtonID(), pagenum);
+        return imageStore.getUrl(imageKey, imageFileName, () -> imageRenderer.apply(pageData)).handle((url, error) -> {
+            //if the upload failed, the store has already logged why. The page is still worth showing without its image
+            return error != null ? embed : EmbedValidator.validate(new EmbedBuilder(embed).setImage(url).build());
+        });
+    }
 
-        return embedBuilder.build();
+    @Override
+    protected CompletableFuture<Message> showPage() {
+        CompletableFuture<MessageEmbed> page = getMenuEmbed(currentPage);
+        if (page == null) {
+            return CompletableFuture.failedFuture(new IllegalStateException("Page " + (currentPage + 1) + " does not exist!"));
+        }
+        return page.thenCompose(this::showEmbed);
     }
 
     @Override
-    protected void showPage() {
-        if (isCommand) {
-            commandEvent.getHook().editOriginalComponents().setEmbeds(getMenuEmbed(currentPage)).setActionRow(buttonList).queue();
-        } else {
-            if(sentMessage == null){
-                sentMessage = message.getChannel().sendMessageEmbeds(getMenuEmbed(currentPage)).setActionRow(buttonList).complete();
-            }else{
-                sentMessage.editMessageEmbeds(getMenuEmbed(currentPage)).setActionRow(buttonList).queue();
+    public CompletionStage<Message> paginate(int pageNum) {
+        if (renderPolicy.mode() == RenderPolicy.Mode.EAGER && pageWindow == null) {
+            for (int i = 0; i < numberOfPages; i++) {
+                renderPage(i, renderPolicy.executor());
             }
         }
+
+        CompletionStage<Message> shown = super.paginate(pageNum);
+        prefetchNeighbours();
+        return shown;
+    }
+
+    @Override
+    protected void jumpToPage(int pagenum) {
+        super.jumpToPage(pagenum);
+        prefetchNeighbours();
     }
 
     @Override
-    public void paginate() {
-        paginate(1);
+    protected void destroyMenu(boolean deleteMessage) {
+        super.destroyMenu(deleteMessage);
+        pageCache.clear();
+    }
+
+    //renders the pages around the current one in the background, so that the next button press does not have to wait
+    private void prefetchNeighbours() {
+        if (renderPolicy.mode() != RenderPolicy.Mode.PREFETCH) {
+            return;
+        }
+        for (int distance = 1; distance <= renderPolicy.prefetchDepth(); distance++) {
+            prefetch(getNeighbour(currentPage + distance));
+            prefetch(getNeighbour(currentPage - distance));
+        }
+    }
 
-        //now we need to ensure the next pages are generated
-        if(getNextPageNum() != -1){
-            getMenuEmbed(getNextPageNum());
+    private void prefetch(int pagenum) {
+        if (pagenum == -1) {
+            return;
         }
-        if(getPreviousPageNum() != -1){
-            getMenuEmbed(getPreviousPageNum());
+        if (pageWindow != null) {
+            //the window only fetches each page once, and makes other callers wait for a fetch that is in progress
+            renderPolicy.executor().execute(() -> getMenuEmbed(pagenum));
+        } else {
+            renderPage(pagenum, renderPolicy.executor());
+        }
+    }
+
+    private int getNeighbour(int pagenum) {
+        if (numberOfPages == PageSource.UNKNOWN_PAGE_COUNT) {
+            return pagenum >= 0 ? pagenum : -1;
+        } else if (shouldWrap && numberOfPages > 0) {
+            return Math.floorMod(pagenum, numberOfPages);
+        } else {
+            return pagenum >= 0 && pagenum < numberOfPages ? pagenum : -1;
         }
     }
 
@@ -209,8 +503,8 @@ public class AdvancedEmbedPaginator extends PaginatorBase{
      * <p>
      * The advancedEmbedPaginator is a paginator that allows you to use a biconsumer to build your pages as they are needed instead of all at once.
      * This is useful if you have a lot of pages or if the pages are costly to generate. Simply add your page data to the pageDataList via the {@link #addPageData(Object)} method
-     * and then whenever it is needed, the biconsumer will be called the page will be generated. This paginator attempts to keep at least one page ahead of the current page generated
-     * so a user never has to wait for a page to be generated.
+     * and then whenever it is needed, the biconsumer will be called the page will be generated. By default, this paginator renders the pages next to the current page
+     * in the background so a user rarely has to wait for a page to be generated. See {@link #setRenderPolicy(RenderPolicy)} to change this.
      * <p>
      * Submenus are handled by biconsumers as well. If you want to use a submenu, you must pass in a biconsumer that will be executed when the user selects the page.
      * These are type sensitive. Only pass a eventSelectConsumer if you are using a slash command, and only pass a messageSelectConsumer if you are using a chat command.
@@ -229,6 +523,30 @@ public class AdvancedEmbedPaginator extends PaginatorBase{
 
         private boolean addPageNum = true;
 
+        private String restorerID = null;
+
+        private Function<Object, String> pageDataEncoder = null;
+
+        private PageSource<?> pageSource = null;
+
+        private int pageWindowSize = 5;
+
+        private RenderPolicy renderPolicy = RenderPolicy.prefetch(1);
+
+        private int pageCacheSize = DEFAULT_PAGE_CACHE_SIZE;
+
+        private PageCacheBudget pageCacheBudget = null;
+
+        private SharedPageCache sharedPageCache = null;
+
+        private Object contentKey = null;
+
+        private PageImageStore imageStore = null;
+
+        private String imageFileName = null;
+
+        private Function<Object, byte[]> imageRenderer = null;
+
         /**
          * Builds the paginator. This method will throw an IllegalArgumentException if the paginator is not valid.
          *
@@ -241,20 +559,55 @@ public class AdvancedEmbedPaginator extends PaginatorBase{
                 throw new IllegalArgumentException("Cannot build, invalid arguments!");
             }
 
-            return new AdvancedEmbedPaginator(message, commandEvent, pageDataList.size(), shouldWrap, userID, buttonHandler, pageDataList, generatedEmbedList, embedConsumer, eventSelectConsumer, messageSelectConsumer, addPageNum);
+            AdvancedEmbedPaginator paginator;
+            if (pageSource != null) {
+                //the window has to hold every page that is prefetched, or they would push each other out
+                int windowSize = Math.max(pageWindowSize, renderPolicy.prefetchDepth() * 2 + 1);
+                paginator = new AdvancedEmbedPaginator(message, commandEvent, shouldWrap, userID, buttonHandler, pageSource, windowSize, embedConsumer, eventSelectConsumer, messageSelectConsumer, addPageNum);
+            } else {
+                paginator = new AdvancedEmbedPaginator(message, commandEvent, pageDataList.size(), shouldWrap, userID, buttonHandler, pageDataList, generatedEmbedList, embedConsumer, eventSelectConsumer, messageSelectConsumer, addPageNum, restorerID, pageDataEncoder);
+            }
+            paginator.renderPolicy = renderPolicy;
+            paginator.sharedPageCache = sharedPageCache;
+            paginator.contentKey = contentKey;
+            paginator.imageStore = imageStore;
+            paginator.imageFileName = imageFileName;
+            paginator.imageRenderer = imageRenderer;
+            //every prefetched page has to fit, or they would push each other out. Eager paginators render every page up
+            //front, so dropping any of them would only mean rendering it a second time
+            int cachedPages = renderPolicy.mode() == RenderPolicy.Mode.EAGER ? pageDataList.size() : renderPolicy.prefetchDepth() * 2 + 1;
+            paginator.pageCache = new PageEmbedCache(Math.max(pageCacheSize, cachedPages), pageCacheBudget);
+            return applyCommonOptions(paginator);
         }
 
         @Override
         protected boolean runAdditionalChecks() {
+            if (pageSource != null) {
+                if (embedConsumer == null) {
+                    throw new IllegalArgumentException("You must provide a embed consumer!");
+                }
+                if (!pageDataList.isEmpty()) {
+                    throw new IllegalArgumentException("A paginator cannot use both a page source and page data or pre-made embeds!");
+                }
+                if (pageDataEncoder != null) {
+                    throw new IllegalArgumentException("A paginator that uses a page source cannot be saved!");
+                }
+                if (renderPolicy.mode() == RenderPolicy.Mode.EAGER) {
+                    throw new IllegalArgumentException("A paginator that uses a page source cannot render all of its pages ahead of time!");
+                }
+            }
+
             //an embed consumer is required if there are pages that need to be generated
             if (embedConsumer == null && !pageDataList.isEmpty()) {
                 throw new IllegalArgumentException("You must provide a embed consumer!");
             }
 
             //there has to be at least one pageDataList object or a pre-generated embed
-            if (pageDataList.isEmpty() && generatedEmbedList.isEmpty()) {
+            if (pageSource == null && pageDataList.isEmpty() && generatedEmbedList.isEmpty()) {
                 throw new IllegalArgumentException("You must provide at least one page of data! This can be in the form of a pre-generated embed or a pageData object.");
             }
+            //pages that are generated from page data hold a null here until they are rendered
+            generatedEmbedList.stream().filter(Objects::nonNull).forEach(EmbedValidator::validate);
 
             if (eventSelectConsumer != null && messageSelectConsumer != null) {
                 throw new IllegalArgumentException("This paginator cannot have both a message and event select consumer! " +
@@ -313,10 +666,129 @@ public class AdvancedEmbedPaginator extends PaginatorBase{
         }
 
 
+        /**
+         * Loads the page data from a {@link PageSource} as it is needed, instead of from the page data list. This allows
+         * the paginator to show very large or unbounded result sets, since only a few pages are kept in memory at a time.
+         * Each page that the source returns is passed to the embed consumer.
+         * <p>
+         * A paginator with a page source cannot also have page data or pre-made embeds, and cannot be saved.
+         * @param pageSource The source to load pages from.
+         * @return This Builder.
+         */
+        public AdvancedEmbedPaginator.Builder setPageSource(PageSource<?> pageSource) {
+            this.pageSource = pageSource;
+            return this;
+        }
+
+        /**
+         * Sets how many pages of the {@link PageSource} are kept in memory. Pages that fall out of the window are loaded
+         * from the source again if the user returns to them.
+         * <p>
+         * Default value: 5
+         * @param pageWindowSize The number of pages to keep. Must be at least 3.
+         * @return This Builder.
+         */
+        public AdvancedEmbedPaginator.Builder setPageWindowSize(int pageWindowSize) {
+            if (pageWindowSize < 3) {
+                throw new IllegalArgumentException("The page window must hold at least 3 pages!");
+            }
+            this.pageWindowSize = pageWindowSize;
+            return this;
+        }
+
+        /**
+         * Sets when the paginator renders its pages. See {@link RenderPolicy} for the available policies. Pages loaded
+         * from a {@link PageSource} cannot be rendered eagerly.
+         * <p>
+         * Default value: {@link RenderPolicy#prefetch(int)} with a depth of 1
+         * @param renderPolicy The policy to use.
+         * @return This Builder.
+         */
+        public AdvancedEmbedPaginator.Builder setRenderPolicy(RenderPolicy renderPolicy) {
+            this.renderPolicy = renderPolicy;
+            return this;
+        }
+
+        /**
+         * Sets how many rendered pages the paginator keeps in memory. Once more pages have been rendered, the page that
+         * was used the longest time ago is dropped, and rendered again from its page data if it is needed. Pre-made embeds
+         * added with {@link #addEmbed(MessageEmbed)} are always kept. Pages loaded from a {@link PageSource} are kept
+         * according to {@link #setPageWindowSize(int)} instead. Paginators that use {@link RenderPolicy#eager()} always
+         * keep every page, so this is ignored for them.
+         * <p>
+         * Default value: 10
+         * @param pageCacheSize The number of rendered pages to keep. Must be at least 1.
+         * @return This Builder.
+         */
+        public AdvancedEmbedPaginator.Builder setPageCacheSize(int pageCacheSize) {
+            if (pageCacheSize < 1) {
+                throw new IllegalArgumentException("The page cache must hold at least 1 page!");
+            }
+            this.pageCacheSize = pageCacheSize;
+            return this;
+        }
+
+        /**
+         * Counts the pages that this paginator renders against a budget that is shared with other paginators. Once the
+         * budget is used up, the oldest rendered pages of any paginator using it are dropped.
+         * <p>
+         * Default value: none
+         * @param pageCacheBudget The budget to use, or null to only limit the number of pages.
+         * @return This Builder.
+         */
+        public AdvancedEmbedPaginator.Builder setPageCacheBudget(PageCacheBudget pageCacheBudget) {
+            this.pageCacheBudget = pageCacheBudget;
+            return this;
+        }
+
+        /**
+         * Shares the pages that this paginator renders with every other paginator that uses the same cache and content
+         * key, so that a page is only rendered once for all of them. Only use this if every paginator with the same
+         * content key would render the same pages. Pre-made embeds are never shared.
+         * <p>
+         * Default value: none
+         * @param sharedPageCache The cache to share pages through.
+         * @param contentKey A key that identifies the content of this paginator, such as the name of the command and its arguments.
+         * @return This Builder.
+         */
+        public AdvancedEmbedPaginator.Builder setSharedPageCache(SharedPageCache sharedPageCache, Object contentKey) {
+            if (sharedPageCache != null && contentKey == null) {
+                throw new IllegalArgumentException("A shared page cache needs a content key to share pages under!");
+            }
+            this.sharedPageCache = sharedPageCache;
+            this.contentKey = contentKey;
+            return this;
+        }
+
+        /**
+         * Gives every generated page an image, such as a chart, that is uploaded to the store's storage channel the first
+         * time the page is rendered. When the page is rendered again, the embed links to the uploaded image instead of
+         * generating and sending it again. Pages that fail to upload their image are shown without it.
+         * <p>
+         * If a shared page cache is also set, the images are shared under its content key as well. Pre-made embeds are
+         * left as they are.
+         * <p>
+         * Default value: none
+         * @param imageStore The store to upload the images to.
+         * @param fileName The name to upload each image under, such as "chart.png". Its extension tells discord what kind of image it is.
+         * @param imageRenderer A function that generates the image of a page from its page data.
+         * @return This Builder.
+         */
+        public AdvancedEmbedPaginator.Builder setPageImages(PageImageStore imageStore, String fileName, Function<Object, byte[]> imageRenderer) {
+            if (imageStore != null && (fileName == null || imageRenderer == null)) {
+                throw new IllegalArgumentException("Page images need a file name and a function to generate them!");
+            }
+            this.imageStore = imageStore;
+            this.imageFileName = fileName;
+            this.imageRenderer = imageRenderer;
+            return this;
+        }
+
         /**
          * Sets the embed consumer for the paginator. This is the function that will be called to generate the embeds for each page.
          * <p>
-         * The consumer will be called once for each page and then the embed will be cached.
+         * The consumer is called when a page is first needed and the embed is then cached. It may be called again for a page that
+         * has been dropped from the cache, so it should always build the same embed for the same page data. See {@link #setPageCacheSize(int)}.
          * @param embedBuilder The embed consumer that will be used to generate the embeds for each page.
          * @return This Builder.
          */
@@ -369,5 +841,24 @@ public class AdvancedEmbedPaginator extends PaginatorBase{
             this.addPageNum = addPageNum;
             return this;
         }
+
+        /**
+         * Allows the paginator to be saved in the {@link com.tcn.vera.state.ComponentStateStore} of its button handler, so that
+         * it keeps working after it has been evicted or the bot has restarted. The page data is saved as strings, so an encoder
+         * is needed to turn each page data object into a string.
+         * <p>
+         * A restorer created with {@link AdvancedEmbedPaginator#createRestorer(BiConsumer, Function, BiConsumer)} must be
+         * registered with the button handler under the same ID.
+         * <p>
+         * Default value: disabled
+         * @param restorerID The ID of the restorer that can rebuild this paginator.
+         * @param pageDataEncoder A function that turns an element of the page data list into a string.
+         * @return This Builder.
+         */
+        public AdvancedEmbedPaginator.Builder enablePersistence(String restorerID, Function<Object, String> pageDataEncoder) {
+            this.restorerID = restorerID;
+            this.pageDataEncoder = pageDataEncoder;
+            return this;
+        }
     }
 }
@@ -28,6 +28,9 @@
 package com.tcn.vera.pagination;
 
 import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.state.ComponentState;
+import com.tcn.vera.utils.EmbedSerializer;
+import com.tcn.vera.utils.EmbedValidator;
 import net.dv8tion.jda.api.entities.Message;
 import net.dv8tion.jda.api.entities.MessageEmbed;
 import net.dv8tion.jda.api.entities.emoji.Emoji;
@@ -37,6 +40,7 @@ import net.dv8tion.jda.api.interactions.components.buttons.Button;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * A class that allows for pagination of an array of embeds. This very simple version of the Vera paginator is
@@ -45,13 +49,39 @@ import java.util.List;
  */
 public class EmbedPaginator extends PaginatorBase {
 
+    /**
+     * The ID that this paginator is saved under in a {@link com.tcn.vera.state.ComponentStateStore}. The {@link ButtonHandler}
+     * registers a restorer for it automatically.
+     */
+    public static final String RESTORER_ID = "vera:embed";
+
     private final ArrayList<MessageEmbed> embedList;
 
 
     public EmbedPaginator(Message message, SlashCommandInteractionEvent commandEvent, int numberOfPages, boolean shouldWrap, long userID, ArrayList<MessageEmbed> embedList, ButtonHandler buttonHandler) {
         super(message, commandEvent, numberOfPages, shouldWrap, userID, buttonHandler);
         this.embedList = embedList;
+        addNavigationButtons();
+    }
+
+    protected EmbedPaginator(ComponentState state, ArrayList<MessageEmbed> embedList, ButtonHandler buttonHandler) {
+        super(state, embedList.size(), buttonHandler);
+        this.embedList = embedList;
+        addNavigationButtons();
+    }
+
+    /**
+     * Rebuilds an EmbedPaginator from its saved state. This is the {@link PaginatorRestorer} for {@link #RESTORER_ID}.
+     *
+     * @param state         The state that the paginator saved.
+     * @param buttonHandler The button handler that the paginator should register itself with.
+     * @return The rebuilt paginator.
+     */
+    public static EmbedPaginator restore(ComponentState state, ButtonHandler buttonHandler) {
+        return new EmbedPaginator(state, EmbedSerializer.fromJson(state.payload()), buttonHandler);
+    }
 
+    private void addNavigationButtons() {
         if (numberOfPages > 1) {
             //left, stop, right buttons
             addButton(Button.primary(getFullButtonID("previous"), Emoji.fromUnicode("\u2B05")));
@@ -60,10 +90,20 @@ public class EmbedPaginator extends PaginatorBase {
         }
     }
 
+    @Override
+    protected String getRestorerID() {
+        return RESTORER_ID;
+    }
+
+    @Override
+    protected byte[] savePages() {
+        return EmbedSerializer.toJson(embedList);
+    }
+
     @Override
     protected void onButtonClick(ButtonInteractionEvent event) {
         if (event.getUser().getIdLong() != userID) {
-            event.reply("You are not the user who created this menu!").setEphemeral(true).queue();
+            queue(event.reply("You are not the user who created this menu!").setEphemeral(true));
             return;
         }
 
@@ -79,21 +119,13 @@ public class EmbedPaginator extends PaginatorBase {
         } else {
             return;
         }
-        event.deferEdit().queue();
-        showPage();
+        queue(event.deferEdit());
+        updatePage();
     }
 
     @Override
-    protected void showPage() {
-        if (isCommand) {
-            commandEvent.getHook().editOriginalComponents().setEmbeds(embedList.get(currentPage)).setActionRow(buttonList).queue();
-        } else {
-            if(sentMessage == null){
-                sentMessage = message.getChannel().sendMessageEmbeds(embedList.get(currentPage)).setActionRow(buttonList).complete();
-            }else{
-                sentMessage.editMessageEmbeds(embedList.get(currentPage)).setActionRow(buttonList).queue();
-            }
-        }
+    protected CompletableFuture<Message> showPage() {
+        return showEmbed(embedList.get(currentPage));
     }
 
     public static class Builder extends PaginatorBase.Builder<EmbedPaginator.Builder, EmbedPaginator> {
@@ -112,7 +144,7 @@ public class EmbedPaginator extends PaginatorBase {
             }
 
             //calculate the number of pages
-            return new EmbedPaginator(message, commandEvent, embedList.size(), shouldWrap, userID, (ArrayList<MessageEmbed>) embedList, buttonHandler);
+            return applyCommonOptions(new EmbedPaginator(message, commandEvent, embedList.size(), shouldWrap, userID, (ArrayList<MessageEmbed>) embedList, buttonHandler));
         }
 
         @Override
@@ -120,6 +152,7 @@ public class EmbedPaginator extends PaginatorBase {
             if (embedList.isEmpty()) {
                 throw new IllegalArgumentException("An embed paginator must have at least one embed set.");
             }
+            embedList.forEach(EmbedValidator::validate);
             return true;
         }
 
@@ -0,0 +1,424 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.utils.EmbedValidator;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+
+import java.awt.Color;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A paginator that shows a list of items, a set number of items per page. Each item is rendered as either a line of the
+ * description or a field of the embed, so results such as a leaderboard or a search can be shown without building the
+ * embeds by hand.
+ * <p>
+ * Unlike the {@link AdvancedEmbedPaginator}, this paginator knows the type of its items, so neither the renderers nor
+ * the select consumers have to cast them. Pages are rendered straight from views of the list, so the items are never
+ * copied.
+ * <blockquote><pre>
+ *     new ListPaginator.Builder&lt;Score&gt;()
+ *          .setItems(scores)
+ *          .setItemsPerPage(10)
+ *          .setRowRenderer((index, score) -&gt; (index + 1) + ". " + score.name() + " - " + score.points())
+ *          .setTitle("Leaderboard")
+ *          .setEvent(event)
+ *          .setUserID(event.getUser().getIdLong())
+ *          .setButtonHandler(buttonHandler)
+ *          .build()
+ *          .paginate();
+ * </pre></blockquote>
+ *
+ * @param <T> The type of the items in the list.
+ */
+public class ListPaginator<T> extends PaginatorBase {
+
+    private static final MessageEmbed EMPTY_PAGE = new EmbedBuilder().setDescription("There is nothing to show here.").build();
+
+    private final List<T> items;
+    //only set if the items come from a PageSource instead of a list
+    private final PageWindow<List<T>> pageWindow;
+    private final int itemsPerPage;
+
+    private final RowRenderer<T> rowRenderer;
+    private final Function<T, MessageEmbed.Field> fieldRenderer;
+    private final String title;
+    private final Color color;
+
+    private final BiConsumer<SlashCommandInteractionEvent, List<T>> eventSelectConsumer;
+    private final BiConsumer<Message, List<T>> messageSelectConsumer;
+    //only kept if the event select consumer needs it
+    private final SlashCommandInteractionEvent selectEvent;
+
+    /**
+     * Renders a single item as a line of a page's description.
+     *
+     * @param <T> The type of the items in the list.
+     */
+    @FunctionalInterface
+    public interface RowRenderer<T> {
+
+        /**
+         * @param index The zero based position of the item in the whole list, not just on its page.
+         * @param item The item to render.
+         * @return The line to show for the item. It should not contain a line break.
+         */
+        String render(int index, T item);
+    }
+
+    private ListPaginator(Builder<T> builder, int numberOfPages, PageWindow<List<T>> pageWindow) {
+        super(builder.message, builder.commandEvent, numberOfPages, builder.shouldWrap, builder.userID, builder.buttonHandler);
+
+        this.items = builder.items;
+        this.pageWindow = pageWindow;
+        this.itemsPerPage = builder.itemsPerPage;
+        this.rowRenderer = builder.rowRenderer;
+        this.fieldRenderer = builder.fieldRenderer;
+        this.title = builder.title;
+        this.color = builder.color;
+        this.eventSelectConsumer = builder.eventSelectConsumer;
+        this.messageSelectConsumer = builder.messageSelectConsumer;
+        this.selectEvent = eventSelectConsumer == null ? null : builder.commandEvent;
+        if (pageWindow != null) {
+            setPageWindow(pageWindow);
+        }
+
+        if (numberOfPages > 1 || numberOfPages == PageSource.UNKNOWN_PAGE_COUNT) {
+            addButton(Button.primary(getFullButtonID("previous"), Emoji.fromUnicode("\u2B05")));
+            addButton(Button.danger(getFullButtonID("stop"), Emoji.fromUnicode("\uD83D\uDDD1")));
+            if (eventSelectConsumer != null || messageSelectConsumer != null) {
+                addButton(Button.success(getFullButtonID("success"), "Select This"));
+            }
+            addButton(Button.primary(getFullButtonID("next"), Emoji.fromUnicode("\u27A1")));
+        }
+    }
+
+    /**
+     * Gets the items on a page. The list that is returned is a view of the paginator's list, and must not be changed.
+     *
+     * @param pageNum The zero based number of the page.
+     * @return The items on the page, or null if there is no such page.
+     */
+    private List<T> getPageItems(int pageNum) {
+        if (pageWindow != null) {
+            PageSource.Page<List<T>> page = pageWindow.getPage(pageNum);
+            numberOfPages = pageWindow.getPageCount();
+            return page == null ? null : page.data();
+        }
+
+        int start = pageNum * itemsPerPage;
+        if (pageNum < 0 || start >= items.size()) {
+            return null;
+        }
+        return items.subList(start, Math.min(start + itemsPerPage, items.size()));
+    }
+
+    private MessageEmbed getPageEmbed(int pageNum) {
+        MessageEmbed embed;
+        if (pageWindow != null) {
+            //list pages have no images to wait for, so they are always rendered by the time the window hands them back
+            CompletableFuture<MessageEmbed> rendered = getWindowEmbed(pageWindow, pageNum, page -> CompletableFuture.completedFuture(renderPage(page.data(), pageNum)));
+            embed = rendered == null ? null : rendered.getNow(null);
+        } else {
+            List<T> pageItems = getPageItems(pageNum);
+            embed = pageItems == null ? null : renderPage(pageItems, pageNum);
+        }
+        return embed == null && numberOfPages <= 1 && pageNum == 0 ? EMPTY_PAGE : embed;
+    }
+
+    private MessageEmbed renderPage(List<T> pageItems, int pageNum) {
+        EmbedBuilder embedBuilder = new EmbedBuilder().setTitle(title).setColor(color);
+
+        int firstIndex = pageNum * itemsPerPage;
+        if (fieldRenderer != null) {
+            for (T item : pageItems) {
+                embedBuilder.addField(fieldRenderer.apply(item));
+            }
+        } else {
+            StringBuilder description = embedBuilder.getDescriptionBuilder();
+            for (int i = 0; i < pageItems.size(); i++) {
+                if (i > 0) {
+                    description.append('\n');
+                }
+                description.append(rowRenderer.render(firstIndex + i, pageItems.get(i)));
+            }
+        }
+
+        if (numberOfPages == PageSource.UNKNOWN_PAGE_COUNT) {
+            embedBuilder.setFooter("Page " + (pageNum + 1));
+        } else if (numberOfPages > 1) {
+            embedBuilder.setFooter("Page " + (pageNum + 1) + " of " + numberOfPages);
+        }
+        return EmbedValidator.validate(embedBuilder.build());
+    }
+
+    @Override
+    protected void onButtonClick(ButtonInteractionEvent event) {
+        if (event.getUser().getIdLong() != userID) {
+            queue(event.reply("You are not the user who created this menu!").setEphemeral(true));
+            return;
+        }
+
+        String pressedButton = event.getComponentId();
+
+        if (getFullButtonID("previous").equals(pressedButton)) {
+            decPageNum();
+        } else if (getFullButtonID("next").equals(pressedButton)) {
+            incPageNum();
+        } else if (getFullButtonID("stop").equals(pressedButton)) {
+            destroyMenu(false);
+            return;
+        } else if (getFullButtonID("success").equals(pressedButton)) {
+            queue(event.deferEdit());
+            select(event.getMessage());
+            return;
+        } else {
+            return;
+        }
+
+        queue(event.deferEdit());
+        updatePage();
+    }
+
+    private void select(Message menuMessage) {
+        List<T> pageItems = getPageItems(currentPage);
+        if (pageItems == null) {
+            pageItems = List.of();
+        }
+        if (isCommand && eventSelectConsumer != null) {
+            eventSelectConsumer.accept(selectEvent, pageItems);
+        } else if (!isCommand && messageSelectConsumer != null) {
+            messageSelectConsumer.accept(menuMessage, pageItems);
+        }
+    }
+
+    @Override
+    protected CompletableFuture<Message> showPage() {
+        return showEmbed(getPageEmbed(currentPage));
+    }
+
+    /**
+     * The builder class for the ListPaginator.
+     * <p>
+     * The items can either be given as a list, or loaded from a {@link PageSource} one page at a time. Every item is
+     * rendered by either a row renderer, which turns it into a line of the description, or a field renderer, which turns
+     * it into a field. Exactly one of the two has to be set.
+     * <p>
+     * Like the {@link AdvancedEmbedPaginator}, only pass an eventSelectConsumer if you are using a slash command, and only
+     * pass a messageSelectConsumer if you are using a chat command. They are given the items on the page that was selected.
+     *
+     * @param <T> The type of the items in the list.
+     */
+    public static class Builder<T> extends PaginatorBase.Builder<ListPaginator.Builder<T>, ListPaginator<T>> {
+        private List<T> items = null;
+        private PageSource<List<T>> pageSource = null;
+        private int pageWindowSize = 5;
+        private int itemsPerPage = 10;
+        private RowRenderer<T> rowRenderer = null;
+        private Function<T, MessageEmbed.Field> fieldRenderer = null;
+        private String title = null;
+        private Color color = null;
+        private BiConsumer<SlashCommandInteractionEvent, List<T>> eventSelectConsumer = null;
+        private BiConsumer<Message, List<T>> messageSelectConsumer = null;
+
+        /**
+         * Builds the paginator. This method will throw an IllegalArgumentException if the paginator is not valid.
+         *
+         * @return A new ListPaginator object.
+         */
+        @Override
+        public ListPaginator<T> build() {
+            if (!runChecks()) {
+                throw new IllegalArgumentException("Cannot build, invalid arguments!");
+            }
+
+            if (pageSource != null) {
+                PageWindow<List<T>> window = new PageWindow<>(pageSource, pageWindowSize);
+                return applyCommonOptions(new ListPaginator<>(this, window.getPageCount(), window));
+            }
+            int numberOfPages = Math.max(1, (items.size() + itemsPerPage - 1) / itemsPerPage);
+            return applyCommonOptions(new ListPaginator<>(this, numberOfPages, null));
+        }
+
+        @Override
+        protected boolean runAdditionalChecks() {
+            if ((items == null) == (pageSource == null)) {
+                throw new IllegalArgumentException("A list paginator must have either a list of items or a page source!");
+            }
+            if ((rowRenderer == null) == (fieldRenderer == null)) {
+                throw new IllegalArgumentException("A list paginator must have either a row renderer or a field renderer!");
+            }
+            if (fieldRenderer != null && itemsPerPage > EmbedValidator.MAX_FIELDS) {
+                throw new IllegalArgumentException("An embed cannot have more than " + EmbedValidator.MAX_FIELDS + " fields, so a page cannot have more than " + EmbedValidator.MAX_FIELDS + " items!");
+            }
+            if (eventSelectConsumer != null && messageSelectConsumer != null) {
+                throw new IllegalArgumentException("This paginator cannot have both a message and event select consumer! " +
+                        "Please provide only the one that matches the type of paginator you are using.");
+            }
+            return true;
+        }
+
+        /**
+         * Sets the items to show. The list is not copied, so it should not be changed while the paginator is in use.
+         *
+         * @param items The items to show.
+         * @return This Builder.
+         */
+        public ListPaginator.Builder<T> setItems(List<T> items) {
+            this.items = items;
+            return this;
+        }
+
+        /**
+         * Sets a source to load the items from, one page at a time. Each page of the source should hold the items of one
+         * page of the paginator, so no more than the number set with {@link #setItemsPerPage(int)}.
+         *
+         * @param pageSource The source to load the items from.
+         * @return This Builder.
+         */
+        public ListPaginator.Builder<T> setPageSource(PageSource<List<T>> pageSource) {
+            this.pageSource = pageSource;
+            return this;
+        }
+
+        /**
+         * Sets the number of pages from the page source to keep in memory at once.
+         * <p>
+         * Default value: 5
+         *
+         * @param pageWindowSize The number of pages to keep. Must be at least 3.
+         * @return This Builder.
+         */
+        public ListPaginator.Builder<T> setPageWindowSize(int pageWindowSize) {
+            if (pageWindowSize < 3) {
+                throw new IllegalArgumentException("The page window must be able to hold the current page and the pages on both sides of it!");
+            }
+            this.pageWindowSize = pageWindowSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of items on each page.
+         * <p>
+         * Default value: 10
+         *
+         * @param itemsPerPage The number of items on each page.
+         * @return This Builder.
+         */
+        public ListPaginator.Builder<T> setItemsPerPage(int itemsPerPage) {
+            if (itemsPerPage < 1) {
+                throw new IllegalArgumentException("A page must have at least one item!");
+            }
+            this.itemsPerPage = itemsPerPage;
+            return this;
+        }
+
+        /**
+         * Sets the renderer that turns each item into a line of the page's description.
+         *
+         * @param rowRenderer The row renderer.
+         * @return This Builder.
+         */
+        public ListPaginator.Builder<T> setRowRenderer(RowRenderer<T> rowRenderer) {
+            this.rowRenderer = rowRenderer;
+            return this;
+        }
+
+        /**
+         * Sets the renderer that turns each item into a field of the page. A page cannot have more than 25 items if a
+         * field renderer is used.
+         *
+         * @param fieldRenderer The field renderer.
+         * @return This Builder.
+         */
+        public ListPaginator.Builder<T> setFieldRenderer(Function<T, MessageEmbed.Field> fieldRenderer) {
+            this.fieldRenderer = fieldRenderer;
+            return this;
+        }
+
+        /**
+         * Sets the title that is shown above every page.
+         * <p>
+         * Default value: none
+         *
+         * @param title The title.
+         * @return This Builder.
+         */
+        public ListPaginator.Builder<T> setTitle(String title) {
+            this.title = title;
+            return this;
+        }
+
+        /**
+         * Sets the color of every page.
+         * <p>
+         * Default value: none
+         *
+         * @param color The color.
+         * @return This Builder.
+         */
+        public ListPaginator.Builder<T> setColor(Color color) {
+            this.color = color;
+            return this;
+        }
+
+        /**
+         * Sets the consumer that is given the items on the current page when the 'select' button is pressed. Only set
+         * this if the paginator is for a slash command.
+         *
+         * @param eventSelectConsumer The consumer to call.
+         * @return This Builder.
+         */
+        public ListPaginator.Builder<T> setEventSelectConsumer(BiConsumer<SlashCommandInteractionEvent, List<T>> eventSelectConsumer) {
+            this.eventSelectConsumer = eventSelectConsumer;
+            return this;
+        }
+
+        /**
+         * Sets the consumer that is given the items on the current page when the 'select' button is pressed. Only set
+         * this if the paginator is for a chat command.
+         *
+         * @param messageSelectConsumer The consumer to call.
+         * @return This Builder.
+         */
+        public ListPaginator.Builder<T> setMessageSelectConsumer(BiConsumer<Message, List<T>> messageSelectConsumer) {
+            this.messageSelectConsumer = messageSelectConsumer;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * A limit on the memory that rendered pages may take up, shared by every {@link AdvancedEmbedPaginator} it is given to.
+ * Each paginator already only keeps a few pages around the one it is showing, but a bot with thousands of open menus
+ * can still hold a lot of embeds. Once the budget is used up, the pages that were rendered the longest time ago are
+ * dropped, no matter which paginator they belong to, and are rendered again if they are needed.
+ * <p>
+ * The size of a page is estimated from the length of its embed. Pre-made embeds are never counted or dropped.
+ * <blockquote><pre>
+ *     PageCacheBudget budget = new PageCacheBudget(64 * 1024 * 1024);
+ *     new AdvancedEmbedPaginator.Builder()
+ *          .setPageCacheBudget(budget)
+ *          ...
+ * </pre></blockquote>
+ */
+public class PageCacheBudget {
+
+    private final long maxBytes;
+    private final LinkedHashSet<Charge> charges = new LinkedHashSet<>();
+    private long usedBytes = 0;
+
+    /**
+     * Creates a new budget.
+     *
+     * @param maxBytes The estimated number of bytes that rendered pages may take up.
+     */
+    public PageCacheBudget(long maxBytes) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("The page cache budget must be at least one byte!");
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * @return The estimated number of bytes that rendered pages take up right now.
+     */
+    public synchronized long getUsedBytes() {
+        return usedBytes;
+    }
+
+    /**
+     * @return The estimated number of bytes that rendered pages may take up.
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    void charge(Charge charge) {
+        List<Charge> victims = new ArrayList<>();
+        synchronized (this) {
+            charges.add(charge);
+            usedBytes += charge.bytes();
+
+            Iterator<Charge> oldest = charges.iterator();
+            while (usedBytes > maxBytes && oldest.hasNext()) {
+                Charge victim = oldest.next();
+                if (victim == charge) {
+                    break;
+                }
+                oldest.remove();
+                usedBytes -= victim.bytes();
+                victims.add(victim);
+            }
+        }
+
+        //the caches are told outside of our lock, since they call back into it when they drop pages themselves
+        victims.forEach(victim -> victim.cache().forget(victim));
+    }
+
+    synchronized void release(Charge charge) {
+        if (charges.remove(charge)) {
+            usedBytes -= charge.bytes();
+        }
+    }
+
+    /**
+     * A rendered page that counts against the budget. Identity matters here, so this is not a record.
+     */
+    static final class Charge {
+        private final PageEmbedCache cache;
+        private final int pageNum;
+        private final long bytes;
+
+        Charge(PageEmbedCache cache, int pageNum, long bytes) {
+            this.cache = cache;
+            this.pageNum = pageNum;
+            this.bytes = bytes;
+        }
+
+        PageEmbedCache cache() {
+            return cache;
+        }
+
+        int pageNum() {
+            return pageNum;
+        }
+
+        long bytes() {
+            return bytes;
+        }
+    }
+}
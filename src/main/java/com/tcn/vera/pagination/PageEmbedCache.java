@@ -0,0 +1,128 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The rendered pages of a single {@link AdvancedEmbedPaginator}. Only the most recently used pages are kept, and if a
+ * {@link PageCacheBudget} is set, every rendered page also counts against it.
+ */
+final class PageEmbedCache {
+
+    //a rough guess at what an embed costs on top of its text, which is stored as two bytes per character
+    private static final long EMBED_OVERHEAD_BYTES = 512;
+
+    private final PageCacheBudget budget;
+    private final Map<Integer, CompletableFuture<MessageEmbed>> pages;
+    private final Map<Integer, PageCacheBudget.Charge> charges = new HashMap<>();
+
+    PageEmbedCache(int capacity, PageCacheBudget budget) {
+        this.budget = budget;
+        this.pages = new LinkedHashMap<>(capacity + 1, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CompletableFuture<MessageEmbed>> eldest) {
+                if (size() > capacity) {
+                    release(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Adds a page that is about to be rendered, unless it is already cached.
+     *
+     * @return The page that was already cached, or null if the given one was added.
+     */
+    synchronized CompletableFuture<MessageEmbed> putIfAbsent(int pageNum, CompletableFuture<MessageEmbed> render) {
+        return pages.putIfAbsent(pageNum, render);
+    }
+
+    /**
+     * Counts a page that has finished rendering against the budget.
+     */
+    void rendered(int pageNum, CompletableFuture<MessageEmbed> render, MessageEmbed embed) {
+        if (budget == null) {
+            return;
+        }
+
+        PageCacheBudget.Charge charge;
+        synchronized (this) {
+            //the page may have been dropped while it was rendering
+            if (pages.get(pageNum) != render) {
+                return;
+            }
+            charge = new PageCacheBudget.Charge(this, pageNum, EMBED_OVERHEAD_BYTES + embed.getLength() * 2L);
+            charges.put(pageNum, charge);
+        }
+        budget.charge(charge);
+    }
+
+    /**
+     * Drops a page that failed to render, so that it is rendered again the next time it is needed.
+     */
+    synchronized void remove(int pageNum, CompletableFuture<MessageEmbed> render) {
+        pages.remove(pageNum, render);
+    }
+
+    /**
+     * Drops every page and gives their memory back to the budget.
+     */
+    synchronized void clear() {
+        if (budget != null) {
+            charges.values().forEach(budget::release);
+        }
+        charges.clear();
+        pages.clear();
+    }
+
+    synchronized int size() {
+        return pages.size();
+    }
+
+    //called by the budget once it has already stopped counting the page
+    synchronized void forget(PageCacheBudget.Charge charge) {
+        if (charges.remove(charge.pageNum(), charge)) {
+            pages.remove(charge.pageNum());
+        }
+    }
+
+    private void release(int pageNum) {
+        PageCacheBudget.Charge charge = charges.remove(pageNum);
+        if (charge != null) {
+            budget.release(charge);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.utils.CommandCache;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.utils.FileUpload;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiFunction;
+import java.util.function.Supplier;
+
+/**
+ * Uploads the images of paginator pages, such as charts, to a storage channel once and remembers the URL that discord
+ * serves them from. Pages that are shown again, by any paginator using the same store, then only link to the image
+ * with {@link net.dv8tion.jda.api.EmbedBuilder#setImage(String)} instead of generating and sending it again.
+ * <blockquote><pre>
+ *     PageImageStore imageStore = new PageImageStore(jda.getTextChannelById(STORAGE_CHANNEL_ID), 1000, Duration.ofHours(12));
+ *     new AdvancedEmbedPaginator.Builder()
+ *          .setPageImages(imageStore, "chart.png", pageData -&gt; renderChart((Stats) pageData))
+ *          ...
+ * </pre></blockquote>
+ * The storage channel should be one that only the bot uses, since every image is sent there as a message.
+ */
+public class PageImageStore {
+
+    private static final Logger logger = LoggerFactory.getLogger("Vera: Page Images");
+
+    private final BiFunction<byte[], String, CompletableFuture<String>> uploader;
+    private final CommandCache<Object, Upload> uploads;
+    private final long maxAge;
+
+    private record Upload(CompletableFuture<String> url, long uploadedAt) {
+    }
+
+    /**
+     * Creates a new store that uploads its images to a channel.
+     *
+     * @param storageChannel The channel to upload the images to.
+     * @param maximumSize The number of image URLs to remember. Once more images have been uploaded, the URL that was used
+     *                    the longest time ago is forgotten, and the image is uploaded again if it is needed.
+     * @param maxAge How long a URL may be used for after its image was uploaded, since discord does not serve attachments
+     *               forever. {@link Duration#ZERO} to use URLs for as long as they are remembered.
+     */
+    public PageImageStore(MessageChannel storageChannel, int maximumSize, Duration maxAge) {
+        this((image, fileName) -> storageChannel.sendFiles(FileUpload.fromData(image, fileName)).submit()
+                .thenApply(PageImageStore::getAttachmentUrl), maximumSize, maxAge);
+    }
+
+    PageImageStore(BiFunction<byte[], String, CompletableFuture<String>> uploader, int maximumSize, Duration maxAge) {
+        if (maxAge.isNegative()) {
+            throw new IllegalArgumentException("The maximum age of an image cannot be negative!");
+        }
+        this.uploader = uploader;
+        this.uploads = new CommandCache<>(maximumSize);
+        this.maxAge = maxAge.toNanos();
+    }
+
+    private static String getAttachmentUrl(Message message) {
+        if (message.getAttachments().isEmpty()) {
+            throw new IllegalStateException("Discord did not keep the uploaded image!");
+        }
+        return message.getAttachments().get(0).getUrl();
+    }
+
+    /**
+     * Gets the URL of an image, uploading it if it has not been uploaded yet. If the image is being uploaded right now,
+     * this returns the same upload rather than starting another one.
+     *
+     * @param imageKey A key that identifies the image, such as the content of the page that it belongs to.
+     * @param fileName The name to upload the image under. Its extension tells discord what kind of image it is.
+     * @param imageRenderer Generates the image. Only called if the image has to be uploaded.
+     * @return A future that completes with the URL of the image.
+     */
+    public CompletableFuture<String> getUrl(Object imageKey, String fileName, Supplier<byte[]> imageRenderer) {
+        CompletableFuture<String> url = new CompletableFuture<>();
+        Upload upload;
+        synchronized (this) {
+            Upload existing = uploads.get(imageKey);
+            if (existing != null && (maxAge == 0 || System.nanoTime() - existing.uploadedAt() < maxAge)) {
+                return existing.url();
+            }
+            upload = new Upload(url, System.nanoTime());
+            uploads.add(imageKey, upload);
+        }
+
+        try {
+            uploader.apply(imageRenderer.get(), fileName).whenComplete((uploadedUrl, error) -> {
+                if (error != null) {
+                    fail(imageKey, upload, error);
+                } else {
+                    url.complete(uploadedUrl);
+                }
+            });
+        } catch (RuntimeException e) {
+            fail(imageKey, upload, e);
+        }
+        return url;
+    }
+
+    private void fail(Object imageKey, Upload upload, Throwable error) {
+        logger.error("Unable to upload the page image {}", imageKey, error);
+        //let the next request try again
+        synchronized (this) {
+            if (uploads.get(imageKey) == upload) {
+                uploads.remove(imageKey);
+            }
+        }
+        upload.url().completeExceptionally(error);
+    }
+
+    /**
+     * Forgets the URL of an image, so that it is generated and uploaded again the next time it is needed.
+     *
+     * @param imageKey The key of the image.
+     */
+    public synchronized void invalidate(Object imageKey) {
+        uploads.remove(imageKey);
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+/**
+ * Supplies the page data of an {@link AdvancedEmbedPaginator} one page at a time, so that large or unbounded result sets,
+ * such as a paginated database query, never have to be loaded into memory all at once. The paginator only keeps a small
+ * window of pages around the one that is being shown, and asks the source for pages again as the user moves through them.
+ * <p>
+ * Sources that can jump straight to any page only need to implement {@link #fetchPage(int)}. Sources that are faster when
+ * reading on from where the last page ended, such as a keyset query, should also return a cursor with each page and
+ * override {@link #fetchNext(Page)}.
+ * <blockquote><pre>
+ *     new AdvancedEmbedPaginator.Builder()
+ *          .setPageSource(pageNum -&gt; {
+ *              List&lt;Row&gt; rows = database.fetchResults(pageNum * 10, 10);
+ *              return rows.isEmpty() ? null : new PageSource.Page&lt;&gt;(pageNum, rows);
+ *          })
+ *          .setEmbedConsumer((embedBuilder, rows) -&gt; ...)
+ * </pre></blockquote>
+ * Sources are called from the thread that handles the button press and must be thread safe.
+ *
+ * @param <T> The type of page data. Each page is passed to the paginator's embed consumer.
+ */
+@FunctionalInterface
+public interface PageSource<T> {
+
+    /**
+     * Returned by {@link #getPageCount()} if the source does not know how many pages it has.
+     */
+    int UNKNOWN_PAGE_COUNT = -1;
+
+    /**
+     * Fetches a page by its number.
+     *
+     * @param pageNum The zero based number of the page to fetch.
+     * @return The page, or null if there is no page with this number.
+     */
+    Page<T> fetchPage(int pageNum);
+
+    /**
+     * Fetches the page that comes after another page. The default implementation calls {@link #fetchPage(int)}.
+     *
+     * @param previous The page before the one to fetch. Its {@link Page#nextCursor()} can be used to continue from it.
+     * @return The next page, or null if the previous page was the last one.
+     */
+    default Page<T> fetchNext(Page<T> previous) {
+        return fetchPage(previous.pageNum() + 1);
+    }
+
+    /**
+     * Gets the number of pages. This is only called once, when the paginator is built. Sources that do not know
+     * their size, or that would have to run an expensive count to find out, should keep the default.
+     *
+     * @return The number of pages, or {@link #UNKNOWN_PAGE_COUNT}.
+     */
+    default int getPageCount() {
+        return UNKNOWN_PAGE_COUNT;
+    }
+
+    /**
+     * A page of data fetched from a {@link PageSource}.
+     *
+     * @param pageNum    The zero based number of the page.
+     * @param data       The data that makes up the page.
+     * @param nextCursor A cursor that {@link #fetchNext(Page)} can use to continue after this page. May be null.
+     * @param isLast     Whether this is known to be the last page.
+     * @param <T>        The type of page data.
+     */
+    record Page<T>(int pageNum, T data, String nextCursor, boolean isLast) {
+
+        /**
+         * Creates a page that has no cursor and is not known to be the last page.
+         *
+         * @param pageNum The zero based number of the page.
+         * @param data    The data that makes up the page.
+         */
+        public Page(int pageNum, T data) {
+            this(pageNum, data, null, false);
+        }
+    }
+}
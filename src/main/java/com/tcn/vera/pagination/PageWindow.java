@@ -0,0 +1,159 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Keeps the most recently used pages of a {@link PageSource}, along with the embeds that were made from them. Only the
+ * pages in the window are held in memory, no matter how many pages the source has.
+ */
+final class PageWindow<T> {
+
+    private final PageSource<T> source;
+    private final Map<Integer, WindowEntry<T>> pages;
+    private int pageCount;
+
+    PageWindow(PageSource<T> source, int windowSize) {
+        this.source = source;
+        this.pageCount = source.getPageCount();
+        this.pages = new LinkedHashMap<>(windowSize + 1, 1f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, WindowEntry<T>> eldest) {
+                return size() > windowSize;
+            }
+        };
+    }
+
+    /**
+     * @return The page with the given number, or null if it does not exist.
+     */
+    synchronized PageSource.Page<T> getPage(int pageNum) {
+        WindowEntry<T> entry = getEntry(pageNum);
+        return entry == null ? null : entry.page;
+    }
+
+    /**
+     * @return The embed for the given page, built with the given function the first time it is needed, or null if the page
+     * does not exist. The function must not wait for the embed to finish, since it is called while holding the window.
+     */
+    synchronized CompletableFuture<MessageEmbed> getEmbed(int pageNum, Function<PageSource.Page<T>, CompletableFuture<MessageEmbed>> embedBuilder) {
+        WindowEntry<T> entry = getEntry(pageNum);
+        if (entry == null) {
+            return null;
+        }
+        //a failed embed is built again, so that one bad render does not stick to the page for as long as it is in the window
+        if (entry.embed == null || entry.embed.isCompletedExceptionally()) {
+            entry.embed = embedBuilder.apply(entry.page);
+        }
+        return entry.embed;
+    }
+
+    /**
+     * Finds the page to show after the previous or next button moved from one page to another. The source may only
+     * reveal that the page it moved to is past its end once it is fetched.
+     *
+     * @return The page that was moved to if it exists. Otherwise the first page if the paginator wraps around, or else
+     * the last page, or the page that was moved from if the end of the source is still not known.
+     */
+    synchronized int resolveMove(int fromPage, int toPage, boolean shouldWrap) {
+        if (getEntry(toPage) != null) {
+            return toPage;
+        }
+        //we went past the last page of the source, which we only just found out about
+        if (shouldWrap || pageCount == 0) {
+            return 0;
+        }
+        return pageCount == PageSource.UNKNOWN_PAGE_COUNT ? fromPage : pageCount - 1;
+    }
+
+    /**
+     * Finds the page to show after jumping straight to a page, which may be past the end of the source.
+     *
+     * @return The page that was jumped to if it exists or may exist. Otherwise the last page, or the page that was jumped
+     * from if the end of the source is still not known.
+     */
+    synchronized int resolveJump(int fromPage, int toPage) {
+        if (pageCount != PageSource.UNKNOWN_PAGE_COUNT || getEntry(toPage) != null) {
+            return toPage;
+        }
+        //the source ended before the page that was asked for. Stay where we are unless we found out where it ends
+        return pageCount == PageSource.UNKNOWN_PAGE_COUNT ? fromPage : pageCount - 1;
+    }
+
+    /**
+     * @return The number of pages, or {@link PageSource#UNKNOWN_PAGE_COUNT} if the end has not been reached yet.
+     */
+    synchronized int getPageCount() {
+        return pageCount;
+    }
+
+    private WindowEntry<T> getEntry(int pageNum) {
+        if (pageNum < 0 || (pageCount != PageSource.UNKNOWN_PAGE_COUNT && pageNum >= pageCount)) {
+            return null;
+        }
+
+        WindowEntry<T> entry = pages.get(pageNum);
+        if (entry != null) {
+            return entry;
+        }
+
+        //continuing from the page before is usually much cheaper for the source than jumping to a page number
+        WindowEntry<T> previous = pages.get(pageNum - 1);
+        PageSource.Page<T> page = previous != null ? source.fetchNext(previous.page) : source.fetchPage(pageNum);
+
+        if (page == null) {
+            //if the page before this one exists, we have just found the end. After a jump, we only know it is further back
+            if (pageCount == PageSource.UNKNOWN_PAGE_COUNT && (pageNum == 0 || previous != null)) {
+                pageCount = pageNum;
+            }
+            return null;
+        }
+        if (page.isLast()) {
+            pageCount = pageNum + 1;
+        }
+
+        entry = new WindowEntry<>(page);
+        pages.put(pageNum, entry);
+        return entry;
+    }
+
+    private static final class WindowEntry<T> {
+        private final PageSource.Page<T> page;
+        private CompletableFuture<MessageEmbed> embed;
+
+        private WindowEntry(PageSource.Page<T> page) {
+            this.page = page;
+        }
+    }
+}
@@ -28,14 +28,44 @@
 package com.tcn.vera.pagination;
 
 import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.state.ComponentState;
+import com.tcn.vera.state.ComponentStateStore;
+import com.tcn.vera.utils.MessageEditQueue;
+import com.tcn.vera.utils.OutboundScheduler;
+import com.tcn.vera.utils.TimingWheel;
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.events.interaction.ModalInteractionEvent;
 import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.StringSelectInteractionEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.interactions.callbacks.IReplyCallback;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.interactions.components.LayoutComponent;
 import net.dv8tion.jda.api.interactions.components.buttons.Button;
-
+import net.dv8tion.jda.api.interactions.components.selections.SelectMenu;
+import net.dv8tion.jda.api.interactions.components.selections.StringSelectMenu;
+import net.dv8tion.jda.api.interactions.components.text.TextInput;
+import net.dv8tion.jda.api.interactions.components.text.TextInputStyle;
+import net.dv8tion.jda.api.interactions.modals.Modal;
+import net.dv8tion.jda.api.interactions.modals.ModalMapping;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.utils.messages.MessageEditBuilder;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 //This paginator has support for both messages and interaction events
 
@@ -44,13 +74,26 @@ import java.util.List;
  */
 public abstract class PaginatorBase {
 
-    protected final Message message;
-    protected Message sentMessage = null;
+    private static final Logger logger = LoggerFactory.getLogger("Vera: Paginator");
+
+    private static final String FIRST_PAGE_BUTTON = "first";
+    private static final String LAST_PAGE_BUTTON = "last";
+    private static final String JUMP_BUTTON = "jump";
+    private static final String JUMP_MODAL = "jump-modal";
+    private static final String JUMP_INPUT = "page";
+    private static final String PAGE_SELECT_MENU = "page-select";
+
+    //only the handles needed to edit the menu are kept, not the message or event that created it. Those would keep
+    //their whole guild, member and channel graph alive for as long as the menu is open
+    protected volatile MessageChannel channel;
+    protected final InteractionHook hook;
+    //0 until the menu has been sent
+    protected volatile long sentMessageID = 0;
 
-    protected final SlashCommandInteractionEvent commandEvent;
     protected final long userID;
 
-    protected final int numberOfPages;
+    //may be PageSource.UNKNOWN_PAGE_COUNT until a paginator that loads its pages lazily has found its last page
+    protected volatile int numberOfPages;
 
     protected final boolean shouldWrap;
 
@@ -59,10 +102,35 @@ public abstract class PaginatorBase {
     protected int currentPage;
     protected List<Button> buttonList = new ArrayList<>();
 
+    //only set for paginators that load their pages from a PageSource
+    private PageWindow<?> pageWindow = null;
+
+    private final String buttonID;
+    private final long paginatorID;
+    private volatile boolean isPersisted = false;
+
+    private Duration idleTimeout = Duration.ZERO;
+    private Duration absoluteTimeout = Duration.ZERO;
+    private long createdAt;
+    //the same moment on the wall clock, since that is the only clock that is still valid after a restart
+    private long createdAtMillis;
+    private volatile long lastActivity;
+    private volatile TimingWheel.Timeout timeout = null;
+    private volatile boolean isDestroyed = false;
+
+    //every interaction is handled under this lock, one at a time, so clicks never change the page at the same time.
+    //only one edit is sent at once, and clicks that come in while it is in flight are caught up on once it is done
+    private final Object stateLock = new Object();
+    private boolean isEditing = false;
+    private int shownPage = -1;
+    private int shownPageCount = -1;
+
+    private boolean hasFirstLastButtons = false;
+    private boolean hasJumpButton = false;
+    private boolean hasPageSelectMenu = false;
+
 
     protected PaginatorBase(Message message, SlashCommandInteractionEvent commandEvent, int numberOfPages, boolean shouldWrap, long userID, ButtonHandler buttonHandler) {
-        this.message = message;
-        this.commandEvent = commandEvent;
         this.numberOfPages = numberOfPages;
         this.shouldWrap = shouldWrap;
         this.userID = userID;
@@ -76,7 +144,252 @@ public abstract class PaginatorBase {
             throw new IllegalArgumentException("This paginator cannot be in response to both a message and a command at the same time!");
         }
 
-        buttonHandler.registerButtonSet(getButtonID(), this::onButtonClick);
+        //both IDs are known without asking discord, so building a paginator never has to wait on a request
+        this.paginatorID = isCommand ? commandEvent.getIdLong() : message.getIdLong();
+        this.channel = isCommand ? commandEvent.getMessageChannel() : message.getChannel();
+        this.hook = isCommand ? commandEvent.getHook() : null;
+        this.buttonID = paginatorID + ":" + userID;
+
+        registerButtons();
+    }
+
+    /**
+     * Rebuilds a paginator from the state that it saved in a {@link ComponentStateStore}. A restored paginator does not
+     * know which message it belongs to until one of its buttons is pressed, after which it behaves like a paginator that
+     * was created in response to a chat command.
+     *
+     * @param state         The saved state of the paginator.
+     * @param numberOfPages The number of pages that are in your paginator.
+     * @param buttonHandler The buttonHandler class that the paginator should use for its buttons.
+     */
+    protected PaginatorBase(ComponentState state, int numberOfPages, ButtonHandler buttonHandler) {
+        this.channel = null;
+        this.hook = null;
+        this.isCommand = false;
+        this.numberOfPages = numberOfPages;
+        this.shouldWrap = state.shouldWrap();
+        this.userID = state.userID();
+        this.buttonHandler = buttonHandler;
+        this.currentPage = Math.max(0, Math.min(state.currentPage(), numberOfPages - 1));
+        this.paginatorID = state.paginatorID();
+        this.buttonID = paginatorID + ":" + userID;
+        this.isPersisted = true;
+        this.hasFirstLastButtons = state.hasComponent(ComponentState.FIRST_LAST_BUTTONS);
+        this.hasJumpButton = state.hasComponent(ComponentState.JUMP_BUTTON);
+        this.hasPageSelectMenu = state.hasComponent(ComponentState.PAGE_SELECT_MENU);
+
+        //paginators are only restored when one of their buttons is pressed, so that counts as activity
+        this.idleTimeout = Duration.ofMillis(state.idleTimeout());
+        this.absoluteTimeout = Duration.ofMillis(state.absoluteTimeout());
+        this.createdAtMillis = state.createdAt();
+        this.lastActivity = System.nanoTime();
+        this.createdAt = lastActivity - TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis() - createdAtMillis);
+
+        registerButtons();
+        scheduleTimeout();
+    }
+
+    private void registerButtons() {
+        //if the button handler ever drops this paginator, its buttons should not be left behind on the message.
+        //saved paginators are the exception, since they will be rebuilt from the store the next time they are used. The
+        //rebuilt paginator schedules its own timeout, so the timeout of this one must not be left to tear it down
+        buttonHandler.registerButtonSet(getButtonID(), this::handleButtonClick, this::handlePageSelect, this::handleJumpModal, () -> {
+            if (isPersisted) {
+                isDestroyed = true;
+                cancelTimeout();
+            } else {
+                destroyMenu(false);
+            }
+        });
+    }
+
+    private void handleButtonClick(ButtonInteractionEvent event) {
+        synchronized (stateLock) {
+            if (!beginInteraction(event, event.getMessage())) {
+                return;
+            }
+
+            String pressedButton = event.getComponentId();
+            if (getFullButtonID(FIRST_PAGE_BUTTON).equals(pressedButton)) {
+                if (isOwner(event)) {
+                    queue(event.deferEdit());
+                    jumpToPage(0);
+                }
+            } else if (getFullButtonID(LAST_PAGE_BUTTON).equals(pressedButton)) {
+                if (isOwner(event)) {
+                    queue(event.deferEdit());
+                    jumpToPage(numberOfPages - 1);
+                }
+            } else if (getFullButtonID(JUMP_BUTTON).equals(pressedButton)) {
+                if (isOwner(event)) {
+                    queue(event.replyModal(buildJumpModal()));
+                }
+            } else {
+                onButtonClick(event);
+            }
+        }
+    }
+
+    private void handlePageSelect(StringSelectInteractionEvent event) {
+        synchronized (stateLock) {
+            if (!beginInteraction(event, event.getMessage()) || !isOwner(event)) {
+                return;
+            }
+            queue(event.deferEdit());
+            jumpToPage(Integer.parseInt(event.getValues().get(0)));
+        }
+    }
+
+    private void handleJumpModal(ModalInteractionEvent event) {
+        synchronized (stateLock) {
+            handleJumpInput(event);
+        }
+    }
+
+    private void handleJumpInput(ModalInteractionEvent event) {
+        if (!beginInteraction(event, event.getMessage()) || !isOwner(event)) {
+            return;
+        }
+
+        ModalMapping input = event.getValue(JUMP_INPUT);
+        int pageNum;
+        try {
+            pageNum = Integer.parseInt(input == null ? "" : input.getAsString().trim());
+        } catch (NumberFormatException e) {
+            queue(event.reply("That is not a page number!").setEphemeral(true));
+            return;
+        }
+        if (pageNum < 1 || (numberOfPages != PageSource.UNKNOWN_PAGE_COUNT && pageNum > numberOfPages)) {
+            queue(event.reply("There is no page " + pageNum + "!").setEphemeral(true));
+            return;
+        }
+
+        queue(event.deferEdit());
+        jumpToPage(pageNum - 1);
+    }
+
+    //returns false if the menu no longer exists, in which case the user has already been told
+    private boolean beginInteraction(IReplyCallback event, Message eventMessage) {
+        //restored paginators only learn which message they belong to once one of their buttons is pressed.
+        //command paginators keep it too, so they can still be edited once their interaction has expired
+        if (sentMessageID == 0 && eventMessage != null) {
+            channel = eventMessage.getChannel();
+            sentMessageID = eventMessage.getIdLong();
+        }
+
+        //the timing wheel only fires once per tick, and a restored paginator may have expired while nobody was using it
+        long now = System.nanoTime();
+        if (hasTimeout() && getTimeUntilExpiry(now).compareTo(Duration.ZERO) <= 0) {
+            queue(event.reply("This menu has expired").setEphemeral(true));
+            destroyMenu(false);
+            return false;
+        }
+        //clicks from anyone else are turned away, so they must not keep the menu alive past its idle timeout either
+        if (event.getUser().getIdLong() == userID) {
+            lastActivity = now;
+        }
+
+        //another process sharing the store may have moved or closed this menu since we last saw it
+        ComponentStateStore store = buttonHandler.getStateStore();
+        if (store != null && isPersisted) {
+            int storedPage = store.getCursor(paginatorID);
+            if (storedPage == -1) {
+                isPersisted = false;
+                buttonHandler.unregisterButtonSet(getButtonID());
+                queue(event.reply("This button is not valid").setEphemeral(true));
+                return false;
+            }
+            currentPage = Math.max(0, Math.min(storedPage, numberOfPages - 1));
+        }
+        return true;
+    }
+
+    private boolean isOwner(IReplyCallback event) {
+        if (event.getUser().getIdLong() != userID) {
+            queue(event.reply("You are not the user who created this menu!").setEphemeral(true));
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Moves straight to a page and shows it. This is used by the first and last page buttons, the go to page modal, and
+     * the page select menu, so that reaching any page only ever takes a single edit. The interaction must already have
+     * been acknowledged.
+     *
+     * @param pageNum The zero based number of the page to show.
+     */
+    protected void jumpToPage(int pageNum) {
+        if (pageWindow != null) {
+            pageNum = pageWindow.resolveJump(currentPage, pageNum);
+            numberOfPages = pageWindow.getPageCount();
+        }
+        if (numberOfPages != PageSource.UNKNOWN_PAGE_COUNT) {
+            pageNum = Math.min(pageNum, numberOfPages - 1);
+        }
+        currentPage = Math.max(0, pageNum);
+        persistCurrentPage();
+        updatePage();
+    }
+
+    /**
+     * Gets every row of components that should be shown below the page. Child classes should send these with
+     * {@code setComponents(getComponentRows())} whenever they show a page.
+     * <p>
+     * The first row holds the buttons added with {@link #addButton(Button)}. The rows after it hold the first page, go to
+     * page, and last page buttons, and the page select menu, if they were enabled in the builder.
+     *
+     * @return The component rows.
+     */
+    protected List<LayoutComponent> getComponentRows() {
+        List<LayoutComponent> rows = new ArrayList<>();
+        if (!buttonList.isEmpty()) {
+            rows.add(ActionRow.of(buttonList));
+        }
+        if (numberOfPages <= 1 && numberOfPages != PageSource.UNKNOWN_PAGE_COUNT) {
+            return rows;
+        }
+
+        List<Button> jumpButtons = new ArrayList<>();
+        if (hasFirstLastButtons) {
+            jumpButtons.add(Button.secondary(getFullButtonID(FIRST_PAGE_BUTTON), Emoji.fromUnicode("\u23EE")));
+        }
+        if (hasJumpButton) {
+            jumpButtons.add(Button.secondary(getFullButtonID(JUMP_BUTTON), "Go to page"));
+        }
+        //there is no last page to go to until we know how many pages there are
+        if (hasFirstLastButtons && numberOfPages != PageSource.UNKNOWN_PAGE_COUNT) {
+            jumpButtons.add(Button.secondary(getFullButtonID(LAST_PAGE_BUTTON), Emoji.fromUnicode("\u23ED")));
+        }
+        if (!jumpButtons.isEmpty()) {
+            rows.add(ActionRow.of(jumpButtons));
+        }
+
+        if (hasPageSelectMenu && numberOfPages != PageSource.UNKNOWN_PAGE_COUNT) {
+            rows.add(ActionRow.of(buildPageSelectMenu()));
+        }
+        return rows;
+    }
+
+    private StringSelectMenu buildPageSelectMenu() {
+        //a select menu holds at most 25 options, so larger paginators offer ranges of pages instead
+        int pagesPerOption = (numberOfPages + SelectMenu.OPTIONS_MAX_AMOUNT - 1) / SelectMenu.OPTIONS_MAX_AMOUNT;
+        StringSelectMenu.Builder menu = StringSelectMenu.create(getFullButtonID(PAGE_SELECT_MENU)).setPlaceholder("Jump to a page");
+        for (int first = 0; first < numberOfPages; first += pagesPerOption) {
+            int last = Math.min(first + pagesPerOption, numberOfPages) - 1;
+            String label = first == last ? "Page " + (first + 1) : "Pages " + (first + 1) + " - " + (last + 1);
+            menu.addOption(label, String.valueOf(first));
+        }
+        return menu.build();
+    }
+
+    private Modal buildJumpModal() {
+        String label = numberOfPages == PageSource.UNKNOWN_PAGE_COUNT ? "Page number" : "Page number (1 - " + numberOfPages + ")";
+        TextInput input = TextInput.create(JUMP_INPUT, label, TextInputStyle.SHORT)
+                .setPlaceholder(String.valueOf(currentPage + 1))
+                .setMaxLength(10)
+                .build();
+        return Modal.create(getFullButtonID(JUMP_MODAL), "Go to page").addActionRow(input).build();
     }
 
     /**
@@ -87,34 +400,217 @@ public abstract class PaginatorBase {
     protected abstract void onButtonClick(ButtonInteractionEvent event);
 
     /**
-     * The method called when a page is shown. This method should be overridden by the child class.
+     * The method called when a page is shown. This method should be overridden by the child class. It must not block,
+     * so send or edit the message with {@code submit()} rather than {@code complete()}. Paginators that show a single
+     * embed per page can simply pass it to {@link #showEmbed(MessageEmbed)}.
+     * <p>
+     * If the paginator has not been sent yet, {@link #sentMessageID} is 0 and the page should be sent as a new message.
+     *
+     * @return A future that completes with the message showing the page.
+     */
+    protected abstract CompletableFuture<Message> showPage();
+
+    /**
+     * Shows an embed as the current page, along with the rows from {@link #getComponentRows()}. The menu is sent if it
+     * has not been sent yet, and edited through the button handler's {@link MessageEditQueue} otherwise.
+     *
+     * @param page The embed to show.
+     * @return A future that completes with the message showing the page, or with null if the message already showed it.
+     */
+    protected CompletableFuture<Message> showEmbed(MessageEmbed page) {
+        if (!isCommand && sentMessageID == 0) {
+            return buttonHandler.getOutboundScheduler().submit(channel.sendMessageEmbeds(page).setComponents(getComponentRows()));
+        }
+        return editMenu(new MessageEditBuilder().setEmbeds(page).setComponents(getComponentRows()).build());
+    }
+
+    /**
+     * Sends a request through the button handler's {@link OutboundScheduler}, so that urgent requests such as
+     * acknowledgements go out before cosmetic ones. Failures are logged.
+     *
+     * @param action The request to send.
+     */
+    protected void queue(RestAction<?> action) {
+        buttonHandler.getOutboundScheduler().queue(action);
+    }
+
+    /**
+     * Edits the message that the menu is on through the button handler's {@link MessageEditQueue}, so that it is queued
+     * behind any other edit to the same message. The first time a slash command's menu is shown, it replaces the
+     * deferred reply, so that edit is sent with {@link OutboundScheduler.Priority#MESSAGE} and is never dropped. Every
+     * later edit is a page change and is sent as a regular edit.
+     *
+     * @param content The new content of the message.
+     * @return A future that completes with the edited message, or with null if the edit was skipped.
      */
-    protected abstract void showPage();
+    protected CompletableFuture<Message> editMenu(MessageEditData content) {
+        boolean isFirstShow = isCommand && sentMessageID == 0;
+        return editMenu(content, isFirstShow ? OutboundScheduler.Priority.MESSAGE : OutboundScheduler.Priority.EDIT);
+    }
+
+    /**
+     * Edits the message that the menu is on like {@link #editMenu(MessageEditData)}, with a specific priority.
+     *
+     * @param content  The new content of the message.
+     * @param priority The priority of the edit. Use {@link OutboundScheduler.Priority#MESSAGE} for edits that must not be
+     *                 dropped, such as the one that removes the components of a closed menu.
+     * @return A future that completes with the edited message, or with null if the edit was skipped.
+     */
+    protected CompletableFuture<Message> editMenu(MessageEditData content, OutboundScheduler.Priority priority) {
+        MessageEditQueue editQueue = buttonHandler.getEditQueue();
+        if (isCommand && (sentMessageID == 0 || !hook.isExpired())) {
+            return editQueue.editOriginal(hook, content, priority);
+        }
+        return editQueue.edit(channel, sentMessageID, content, priority);
+    }
+
+    /**
+     * Shows the current page after it has been changed by a button press. Unlike {@link #showPage()}, failures are
+     * logged rather than handed back to the caller.
+     * <p>
+     * Nothing is sent if the page that discord shows is already the current one. If an edit is still in flight, this
+     * does not send another one right away. Instead, once that edit is done, a single edit is sent for whichever page
+     * is current by then, so a burst of clicks only ever costs two edits.
+     */
+    protected void updatePage() {
+        synchronized (stateLock) {
+            if (isDestroyed || isEditing || sentMessageID == 0 && !isCommand) {
+                //an edit in flight catches up once it is done, and a menu that is still being sent has nothing to edit
+                return;
+            }
+            if (currentPage == shownPage && numberOfPages == shownPageCount) {
+                return;
+            }
+            startEdit().whenComplete((shownMessage, error) -> {
+                if (error != null) {
+                    logger.error("Unable to update paginator {}", getButtonID(), error);
+                }
+            });
+        }
+    }
+
+    //must be called while holding the state lock
+    private CompletableFuture<Message> startEdit() {
+        CompletableFuture<Message> edit;
+        try {
+            edit = showPage();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        isEditing = true;
+        //showing the page may have told us how many pages there are, so this is read after it
+        int editedPage = currentPage;
+        int editedPageCount = numberOfPages;
+
+        return edit.whenComplete((shownMessage, error) -> {
+            synchronized (stateLock) {
+                isEditing = false;
+                if (error == null) {
+                    shownPage = editedPage;
+                    shownPageCount = editedPageCount;
+                    if (sentMessageID == 0 && shownMessage != null) {
+                        sentMessageID = shownMessage.getIdLong();
+                    }
+                }
+            }
+            //show the page that any clicks during the edit moved to. A failed edit waits for the next click instead
+            if (error == null) {
+                updatePage();
+            }
+        });
+    }
 
     /**
-     * Shows the paginator at a specific page number.
+     * Shows the paginator at a specific page number. This method does not block.
      *
-     * @param pageNum The page number that should be first presented to the user.
+     * @param pageNum The one based page number that should be first presented to the user. Numbers past the last
+     *                page show the last page, if the number of pages is known.
+     * @return A stage that completes with the message showing the paginator once discord has accepted it.
      */
-    public void paginate(int pageNum) {
-        if (pageNum < 1) {
-            currentPage = 1;
-        } else if (pageNum > numberOfPages) {
-            currentPage = numberOfPages;
+    public CompletionStage<Message> paginate(int pageNum) {
+        CompletionStage<Message> shown;
+        synchronized (stateLock) {
+            int page = Math.max(0, pageNum - 1);
+            //paginators that load their pages lazily may not know how many they have yet
+            if (numberOfPages != PageSource.UNKNOWN_PAGE_COUNT) {
+                page = Math.min(page, numberOfPages - 1);
+            }
+            currentPage = page;
+            if (createdAtMillis == 0) {
+                createdAt = System.nanoTime();
+                createdAtMillis = System.currentTimeMillis();
+                lastActivity = createdAt;
+            }
+            shown = startEdit().whenComplete((shownMessage, error) -> {
+                if (error != null) {
+                    logger.error("Unable to show paginator {}", getButtonID(), error);
+                }
+            });
         }
-        showPage();
+        persistState();
+        scheduleTimeout();
+        return shown;
     }
 
     /**
-     * Shows the paginator on the first page.
+     * Shows the paginator on the first page. This method does not block.
+     *
+     * @return A stage that completes with the message showing the paginator once discord has accepted it.
      */
-    public void paginate() {
-        paginate(1);
+    public CompletionStage<Message> paginate() {
+        return paginate(1);
+    }
+
+    private boolean hasTimeout() {
+        return !idleTimeout.isZero() || !absoluteTimeout.isZero();
+    }
+
+    private void scheduleTimeout() {
+        if (timeout != null || isDestroyed || !hasTimeout()) {
+            return;
+        }
+        timeout = buttonHandler.scheduleTimeout(getTimeUntilExpiry(System.nanoTime()), this::onTimeout);
+    }
+
+    private void cancelTimeout() {
+        TimingWheel.Timeout currentTimeout = timeout;
+        if (currentTimeout != null) {
+            currentTimeout.cancel();
+        }
+    }
+
+    //clicks do not move the timeout. Instead, it is checked once it fires and pushed back if the menu was used since
+    private void onTimeout() {
+        if (isDestroyed) {
+            return;
+        }
+        Duration remaining = getTimeUntilExpiry(System.nanoTime());
+        if (remaining.isZero() || remaining.isNegative()) {
+            //many menus tend to expire at once, so the handler strips them a batch at a time
+            release();
+            if (isCommand || sentMessageID != 0) {
+                buttonHandler.stripExpiredMenu(this::stripComponents);
+            }
+        } else {
+            timeout = buttonHandler.scheduleTimeout(remaining, this::onTimeout);
+        }
+    }
+
+    private Duration getTimeUntilExpiry(long now) {
+        long remaining = Long.MAX_VALUE;
+        if (!idleTimeout.isZero()) {
+            remaining = lastActivity + idleTimeout.toNanos() - now;
+        }
+        if (!absoluteTimeout.isZero()) {
+            remaining = Math.min(remaining, createdAt + absoluteTimeout.toNanos() - now);
+        }
+        return Duration.ofNanos(remaining);
     }
 
     /**
-     * Used to generate the ID of a button via the message ID, discord user ID, and the name of the button. While Vera
-     * would be capable of matching buttons without all of these factors, we can ensure unique buttons with all of this information.
+     * Used to generate the ID of a button via the ID of the interaction or message that created the paginator, the discord
+     * user ID, and the name of the button. While Vera would be capable of matching buttons without all of these factors,
+     * we can ensure unique buttons with all of this information.
      *
      * @param buttonName The name of the button
      * @return A String representing the ID of the button. This should be used as the first parameter when creating a button.
@@ -124,23 +620,104 @@ public abstract class PaginatorBase {
     }
 
     /**
-     * Used to generate the base ID of a button via the message ID and the discord user ID.
+     * Used to generate the base ID of a button via the ID of the interaction or message that created the paginator and
+     * the discord user ID.
      *
      * @return A string representing the base ID of the button.
      */
     public String getButtonID() {
-        if (isCommand) {
-            return commandEvent.getHook().retrieveOriginal().complete().getId() + ":" + userID;
+        return buttonID;
+    }
+
+    /**
+     * Gets the ID that identifies the paginator to use when saving it in a {@link ComponentStateStore}. Paginators that
+     * can be saved must override this method and {@link #savePages()}, and a {@link PaginatorRestorer} with the same ID
+     * must be registered with the {@link ButtonHandler}.
+     *
+     * @return The ID of the restorer that is able to rebuild this paginator, or null if this paginator cannot be saved.
+     */
+    protected String getRestorerID() {
+        return null;
+    }
+
+    /**
+     * Serializes the pages of this paginator so that a {@link PaginatorRestorer} can rebuild it later.
+     *
+     * @return The serialized pages, or null if this paginator cannot be saved.
+     */
+    protected byte[] savePages() {
+        return null;
+    }
+
+    /**
+     * Saves this paginator in the button handler's {@link ComponentStateStore}, if there is one and the paginator can
+     * be saved. Paginators only need to be saved once, every later page change only updates the current page.
+     */
+    protected void persistState() {
+        ComponentStateStore store = buttonHandler.getStateStore();
+        if (store == null || isPersisted || getRestorerID() == null) {
+            return;
+        }
+
+        byte[] payload = savePages();
+        if (payload != null) {
+            store.put(new ComponentState(paginatorID, getRestorerID(), userID, currentPage, shouldWrap, getComponentFlags(),
+                    createdAtMillis, idleTimeout.toMillis(), absoluteTimeout.toMillis(), payload));
+            isPersisted = true;
         }
-        return message.getId() + ":" + userID;
+    }
+
+    //the optional components are part of the saved state, so a restored paginator shows the same rows as the original
+    private byte getComponentFlags() {
+        int flags = 0;
+        if (hasFirstLastButtons) {
+            flags |= ComponentState.FIRST_LAST_BUTTONS;
+        }
+        if (hasJumpButton) {
+            flags |= ComponentState.JUMP_BUTTON;
+        }
+        if (hasPageSelectMenu) {
+            flags |= ComponentState.PAGE_SELECT_MENU;
+        }
+        return (byte) flags;
+    }
+
+    /**
+     * Lets the page buttons and jumps find the end of a page source as they reach it. Paginators that load their pages
+     * from a {@link PageSource} must call this from their constructor.
+     */
+    void setPageWindow(PageWindow<?> pageWindow) {
+        this.pageWindow = pageWindow;
     }
 
     /**
-     * Calculates the next page number. Returns -1 if there is no next page.
+     * Gets the embed of a page from the page window, and picks up the number of pages if the source has just told us
+     * where it ends.
+     *
+     * @return The embed, or null if the source has no such page.
+     */
+    <T> CompletableFuture<MessageEmbed> getWindowEmbed(PageWindow<T> window, int pageNum, Function<PageSource.Page<T>, CompletableFuture<MessageEmbed>> embedBuilder) {
+        CompletableFuture<MessageEmbed> embed = window.getEmbed(pageNum, embedBuilder);
+        numberOfPages = window.getPageCount();
+        return embed;
+    }
+
+    private void persistCurrentPage() {
+        ComponentStateStore store = buttonHandler.getStateStore();
+        if (store != null && isPersisted) {
+            store.updateCursor(paginatorID, currentPage);
+        }
+    }
+
+    /**
+     * Calculates the next page number. Returns -1 if there is no next page. If the number of pages is not known yet,
+     * there is always assumed to be a next page.
      * @return The next page number
      */
     protected int getNextPageNum(){
-        if (currentPage == numberOfPages - 1 && shouldWrap) {
+        if (numberOfPages == PageSource.UNKNOWN_PAGE_COUNT) {
+            return currentPage + 1;
+        } else if (currentPage == numberOfPages - 1 && shouldWrap) {
             return 0;
         } else if (currentPage < numberOfPages - 1) {
             return currentPage + 1;
@@ -151,7 +728,11 @@ public abstract class PaginatorBase {
 
     protected void incPageNum() {
         if(getNextPageNum() != -1){
-            currentPage = getNextPageNum();
+            currentPage = pageWindow == null ? getNextPageNum() : pageWindow.resolveMove(currentPage, getNextPageNum(), shouldWrap);
+            if (pageWindow != null) {
+                numberOfPages = pageWindow.getPageCount();
+            }
+            persistCurrentPage();
         }
     }
 
@@ -160,7 +741,7 @@ public abstract class PaginatorBase {
      * @return The previous page number.
      */
     protected int getPreviousPageNum(){
-        if (currentPage == 0 && shouldWrap) {
+        if (currentPage == 0 && shouldWrap && numberOfPages != PageSource.UNKNOWN_PAGE_COUNT) {
             return numberOfPages - 1;
         } else if (currentPage > 0) {
             return currentPage - 1;
@@ -172,6 +753,7 @@ public abstract class PaginatorBase {
     protected void decPageNum() {
         if(getPreviousPageNum() != -1){
             currentPage = getPreviousPageNum();
+            persistCurrentPage();
         }
     }
 
@@ -195,18 +777,36 @@ public abstract class PaginatorBase {
      * @param deleteMessage Whether or not the message should be deleted.
      */
     protected void destroyMenu(boolean deleteMessage) {
+        release();
+
         if (deleteMessage && isCommand) {
-            commandEvent.getHook().deleteOriginal().queue();
-        } else if (deleteMessage && sentMessage != null) {
-            sentMessage.delete().queue();
-        } else if (isCommand) {
-            commandEvent.getHook().editOriginalComponents().setComponents().queue();
-        } else if (sentMessage != null) {
-            sentMessage.editMessageComponents().setComponents().queue();
+            queue(hook.deleteOriginal());
+        } else if (deleteMessage && sentMessageID != 0) {
+            queue(channel.deleteMessageById(sentMessageID));
+        } else if (isCommand || sentMessageID != 0) {
+            stripComponents();
         }
         //if there is no sent message there is no message to delete
     }
 
+    //forgets the paginator everywhere, without touching its message
+    private void release() {
+        isDestroyed = true;
+        cancelTimeout();
+        buttonHandler.unregisterButtonSet(getButtonID());
+        ComponentStateStore store = buttonHandler.getStateStore();
+        if (store != null && isPersisted) {
+            store.remove(paginatorID);
+            isPersisted = false;
+        }
+    }
+
+    private CompletableFuture<Message> stripComponents() {
+        //queued behind any page edit that is still in flight, so that edit cannot bring the buttons back. If it were
+        //dropped, the menu would keep buttons that no longer do anything
+        return editMenu(new MessageEditBuilder().setComponents().build(), OutboundScheduler.Priority.MESSAGE);
+    }
+
     @SuppressWarnings("unchecked")
     protected abstract static class Builder<T extends Builder<T, V>, V extends PaginatorBase> {
         protected boolean shouldWrap = true;
@@ -217,6 +817,13 @@ public abstract class PaginatorBase {
 
         protected ButtonHandler buttonHandler;
 
+        protected Duration idleTimeout = Duration.ZERO;
+        protected Duration absoluteTimeout = Duration.ZERO;
+
+        protected boolean hasFirstLastButtons = false;
+        protected boolean hasJumpButton = false;
+        protected boolean hasPageSelectMenu = false;
+
         /**
          * builds the paginator object. This method should be overridden by the child class.
          *
@@ -294,5 +901,87 @@ public abstract class PaginatorBase {
             return (T) this;
         }
 
+        /**
+         * Sets how long the paginator may go without any of its buttons being pressed. Once this time has passed, its
+         * buttons are removed from the message and it stops responding. By default, paginators never time out.
+         *
+         * @param idleTimeout The time that the paginator may be idle for, or {@link Duration#ZERO} to never time out.
+         * @return The builder.
+         */
+        public final T setIdleTimeout(Duration idleTimeout) {
+            if (idleTimeout.isNegative()) {
+                throw new IllegalArgumentException("The idle timeout cannot be negative!");
+            }
+            this.idleTimeout = idleTimeout;
+            return (T) this;
+        }
+
+        /**
+         * Sets how long the paginator is shown for, no matter how often it is used. Once this time has passed, its
+         * buttons are removed from the message and it stops responding. By default, paginators never time out.
+         *
+         * @param absoluteTimeout The time that the paginator is shown for, or {@link Duration#ZERO} to never time out.
+         * @return The builder.
+         */
+        public final T setAbsoluteTimeout(Duration absoluteTimeout) {
+            if (absoluteTimeout.isNegative()) {
+                throw new IllegalArgumentException("The absolute timeout cannot be negative!");
+            }
+            this.absoluteTimeout = absoluteTimeout;
+            return (T) this;
+        }
+
+        /**
+         * Adds buttons that go straight to the first and last page. They are shown in a second row below the other buttons.
+         * By default, these buttons are not shown.
+         *
+         * @param hasFirstLastButtons Whether the first and last page buttons should be shown.
+         * @return The builder.
+         */
+        public final T enableFirstLastButtons(boolean hasFirstLastButtons) {
+            this.hasFirstLastButtons = hasFirstLastButtons;
+            return (T) this;
+        }
+
+        /**
+         * Adds a button that asks the user which page they would like to go to. It is shown in a second row below the
+         * other buttons. By default, this button is not shown.
+         *
+         * @param hasJumpButton Whether the go to page button should be shown.
+         * @return The builder.
+         */
+        public final T enableJumpToPage(boolean hasJumpButton) {
+            this.hasJumpButton = hasJumpButton;
+            return (T) this;
+        }
+
+        /**
+         * Adds a select menu below the buttons that lists every page. Paginators with more than 25 pages list ranges of
+         * pages instead, and selecting a range goes to its first page. By default, this menu is not shown.
+         *
+         * @param hasPageSelectMenu Whether the page select menu should be shown.
+         * @return The builder.
+         */
+        public final T enablePageSelectMenu(boolean hasPageSelectMenu) {
+            this.hasPageSelectMenu = hasPageSelectMenu;
+            return (T) this;
+        }
+
+        /**
+         * Applies the options that every paginator shares to a paginator that was just built. Child classes should
+         * pass the paginator they create in {@link #build()} through this method.
+         *
+         * @param paginator The paginator that was just built.
+         * @return The same paginator.
+         */
+        protected V applyCommonOptions(V paginator) {
+            ((PaginatorBase) paginator).idleTimeout = idleTimeout;
+            ((PaginatorBase) paginator).absoluteTimeout = absoluteTimeout;
+            ((PaginatorBase) paginator).hasFirstLastButtons = hasFirstLastButtons;
+            ((PaginatorBase) paginator).hasJumpButton = hasJumpButton;
+            ((PaginatorBase) paginator).hasPageSelectMenu = hasPageSelectMenu;
+            return paginator;
+        }
+
     }
 }
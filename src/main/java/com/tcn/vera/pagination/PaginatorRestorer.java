@@ -0,0 +1,50 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.state.ComponentState;
+
+/**
+ * Rebuilds a paginator from the state that it saved in a {@link com.tcn.vera.state.ComponentStateStore}. Restorers are
+ * registered with {@link ButtonHandler#registerRestorer(String, PaginatorRestorer)} under the same ID that the paginator
+ * writes into {@link ComponentState#restorerID()}.
+ */
+@FunctionalInterface
+public interface PaginatorRestorer {
+
+    /**
+     * Rebuilds a paginator. The paginator must register itself with the given button handler, which every paginator
+     * built on {@link PaginatorBase} does automatically.
+     *
+     * @param state         The state that was saved by the paginator.
+     * @param buttonHandler The button handler that the paginator should register itself with.
+     * @return The rebuilt paginator.
+     */
+    PaginatorBase restore(ComponentState state, ButtonHandler buttonHandler);
+}
@@ -0,0 +1,124 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The output of a {@link ProgressReporter}, split into pages as it grows. Only the last page can still change, every
+ * page before it is finished.
+ */
+final class ProgressOutput {
+
+    private final int maxPageLength;
+    private final List<String> finishedPages = new ArrayList<>();
+    //lines that were appended since the pages were last split
+    private final List<String> pendingLines = new ArrayList<>();
+    private int pendingLength = 0;
+    private String lastPage = null;
+
+    ProgressOutput(int maxPageLength) {
+        if (maxPageLength < 1) {
+            throw new IllegalArgumentException("A page must be able to hold at least one character!");
+        }
+        this.maxPageLength = maxPageLength;
+    }
+
+    /**
+     * Adds text to the end of the output. Each line of the text is added as its own line.
+     *
+     * @param text The text to add.
+     */
+    void append(CharSequence text) {
+        text.toString().lines().forEach(line -> {
+            pendingLines.add(line);
+            pendingLength += line.length() + 1;
+        });
+        //split as we go, so that text appended between two flushes is never kept around more than a page at a time
+        if (pendingLength > maxPageLength) {
+            split();
+        }
+    }
+
+    /**
+     * @return The last page of the output, or null if nothing has been appended yet.
+     */
+    String getLastPage() {
+        split();
+        return lastPage;
+    }
+
+    /**
+     * @return The number of pages in the output.
+     */
+    int getPageCount() {
+        split();
+        return finishedPages.size() + (lastPage == null ? 0 : 1);
+    }
+
+    /**
+     * @return Every page of the output, in order.
+     */
+    List<String> getPages() {
+        split();
+        List<String> pages = new ArrayList<>(finishedPages);
+        if (lastPage != null) {
+            pages.add(lastPage);
+        }
+        return pages;
+    }
+
+    private void split() {
+        if (pendingLines.isEmpty()) {
+            return;
+        }
+
+        //the last page is passed in as a single line. It always fits on a page by itself, so it is either kept whole
+        //or grown with the new lines, and is never split again
+        List<String> lines = new ArrayList<>(pendingLines.size() + 1);
+        if (lastPage != null) {
+            lines.add(lastPage);
+        }
+        lines.addAll(pendingLines);
+        pendingLines.clear();
+        pendingLength = 0;
+
+        TextPageSplitter splitter = new TextPageSplitter(lines.iterator(), maxPageLength);
+        String page = splitter.nextPage();
+        while (page != null) {
+            String next = splitter.nextPage();
+            if (next == null) {
+                lastPage = page;
+            } else {
+                finishedPages.add(page);
+            }
+            page = next;
+        }
+    }
+}
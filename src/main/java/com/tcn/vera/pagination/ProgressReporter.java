@@ -0,0 +1,420 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.utils.EmbedValidator;
+import com.tcn.vera.utils.OutboundScheduler;
+import com.tcn.vera.utils.TimingWheel;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.Color;
+import java.time.Duration;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * Shows the progress of a long running command in a single message that is edited as the command goes. Updates can be
+ * sent as often as the command likes, but the message is only edited once per interval, with whatever the latest state
+ * is at that time. Every update in between is dropped, so a command that reports progress in a tight loop costs no more
+ * requests than one that reports it once a second.
+ * <p>
+ * A reporter has a status line, which is replaced by each {@link #update(String)}, and an output that grows with each
+ * {@link #append(CharSequence)}. While the command runs, the message shows the last page of the output. Once the
+ * reporter is closed, output that is longer than a single page is turned into a {@link TextPaginator}, so the user can
+ * page back through all of it.
+ * <blockquote><pre>
+ *     try (ProgressReporter progress = new ProgressReporter.Builder()
+ *             .setEvent(event)
+ *             .setTitle("Importing")
+ *             .setButtonHandler(buttonHandler)
+ *             .build()) {
+ *         for (int i = 0; i &lt; files.size(); i++) {
+ *             progress.update("Imported " + i + " of " + files.size() + " files");
+ *             progress.append(importFile(files.get(i)));
+ *         }
+ *         progress.update("Done!");
+ *     }
+ * </pre></blockquote>
+ * A reporter is meant to live only as long as the command that uses it, and keeps the event it was built with until it
+ * is closed. Interaction tokens run out after 15 minutes, so slash commands that run for longer than that should report
+ * their progress in a message of their own.
+ */
+public class ProgressReporter implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger("Vera: Progress");
+
+    //the status is shown in the footer, together with the page number
+    private static final int MAX_STATUS_LENGTH = 256;
+    private static final int FOOTER_RESERVE = 32;
+
+    private final ButtonHandler buttonHandler;
+    private final SlashCommandInteractionEvent commandEvent;
+    private final MessageReceivedEvent messageEvent;
+    private final long intervalNanos;
+    private final String title;
+    private final Color color;
+    private final int maxPageLength;
+    private final ProgressOutput output;
+
+    private String status = null;
+    private boolean isClosed = false;
+    //true if something has changed since the message was last edited
+    private boolean isDirty = false;
+    private long lastFlush;
+    private TimingWheel.Timeout scheduledFlush = null;
+
+    //only used by chat commands, which show their progress in a reply. 0 until the reply has been sent
+    private MessageChannel channel;
+    private long progressMessageID = 0;
+    private boolean isReplySent = false;
+    //set once the paginator that replaces a chat command's reply has been sent
+    private boolean isPaginatorShown = false;
+
+    protected ProgressReporter(SlashCommandInteractionEvent commandEvent, MessageReceivedEvent messageEvent, ButtonHandler buttonHandler, Duration interval, String title, Color color, int maxPageLength) {
+        this.commandEvent = commandEvent;
+        this.messageEvent = messageEvent;
+        this.buttonHandler = buttonHandler;
+        this.intervalNanos = interval.toNanos();
+        this.title = title;
+        this.color = color;
+
+        int allowedLength = MessageEmbed.EMBED_MAX_LENGTH_BOT - MAX_STATUS_LENGTH - FOOTER_RESERVE - (title == null ? 0 : title.length());
+        this.maxPageLength = Math.min(maxPageLength, Math.min(allowedLength, MessageEmbed.DESCRIPTION_MAX_LENGTH));
+        this.output = new ProgressOutput(this.maxPageLength);
+        //the first update is shown straight away
+        this.lastFlush = System.nanoTime() - intervalNanos;
+
+        if (commandEvent != null) {
+            if (!commandEvent.isAcknowledged()) {
+                buttonHandler.getOutboundScheduler().queue(commandEvent.deferReply());
+            }
+        } else {
+            channel = messageEvent.getChannel();
+        }
+    }
+
+    /**
+     * Replaces the status line of the message. This can be called as often as needed.
+     *
+     * @param status The new status, or null to show no status. Statuses longer than 256 characters are cut short.
+     */
+    public synchronized void update(String status) {
+        if (isClosed) {
+            throw new IllegalStateException("This progress reporter has already been closed!");
+        }
+        if (status != null && status.length() > MAX_STATUS_LENGTH) {
+            status = status.substring(0, MAX_STATUS_LENGTH - 1) + "\u2026";
+        }
+        this.status = status;
+        requestFlush();
+    }
+
+    /**
+     * Adds text to the end of the output. Each line of the text is added as its own line. This can be called as often
+     * as needed.
+     *
+     * @param text The text to add.
+     */
+    public synchronized void append(CharSequence text) {
+        if (isClosed) {
+            throw new IllegalStateException("This progress reporter has already been closed!");
+        }
+        output.append(text);
+        requestFlush();
+    }
+
+    /**
+     * Shows the latest state one last time and stops editing the message. If the output is longer than a page, the
+     * message is replaced with a {@link TextPaginator} that holds all of it. Closing a reporter more than once does nothing.
+     */
+    @Override
+    public synchronized void close() {
+        if (isClosed) {
+            return;
+        }
+        isClosed = true;
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel();
+            scheduledFlush = null;
+        }
+
+        if (output.getPageCount() <= 1) {
+            flush(OutboundScheduler.Priority.MESSAGE);
+            return;
+        }
+
+        TextPaginator.Builder builder = new TextPaginator.Builder()
+                .setLines(output.getPages().stream())
+                .setTitle(title)
+                .setColor(color)
+                .setMaxPageLength(maxPageLength)
+                .setButtonHandler(buttonHandler);
+        CompletionStage<Message> shown;
+        if (commandEvent != null) {
+            //the paginator edits the same message through the same edit queue, so it is shown after every earlier edit
+            shown = builder.setEvent(commandEvent).setUserID(commandEvent.getUser().getIdLong()).build().paginate();
+        } else {
+            shown = builder.setEvent(messageEvent).setUserID(messageEvent.getAuthor().getIdLong()).build().paginate();
+        }
+        shown.whenComplete((message, error) -> onPaginatorShown(error));
+    }
+
+    private synchronized void onPaginatorShown(Throwable error) {
+        if (error != null) {
+            //the progress message is all the user has, so it should at least show how far the command got
+            logger.warn("Unable to show the output of a command as a paginator", error);
+            flush(OutboundScheduler.Priority.MESSAGE);
+            return;
+        }
+        isPaginatorShown = true;
+        if (commandEvent == null) {
+            //the paginator is a message of its own, so the reply is no longer needed
+            deleteReply();
+        }
+    }
+
+    private void requestFlush() {
+        isDirty = true;
+        if (scheduledFlush != null) {
+            //the latest state is picked up when the scheduled flush runs
+            return;
+        }
+
+        long wait = lastFlush + intervalNanos - System.nanoTime();
+        if (wait <= 0) {
+            flush(OutboundScheduler.Priority.EDIT);
+        } else {
+            scheduledFlush = buttonHandler.scheduleTimeout(Duration.ofNanos(wait), this::runScheduledFlush);
+        }
+    }
+
+    private synchronized void runScheduledFlush() {
+        scheduledFlush = null;
+        if (!isClosed && isDirty) {
+            flush(OutboundScheduler.Priority.EDIT);
+        }
+    }
+
+    private void flush(OutboundScheduler.Priority priority) {
+        if (commandEvent == null && isReplySent && progressMessageID == 0) {
+            //the reply is still being sent. It is edited with the latest state once it has been
+            return;
+        }
+        isDirty = false;
+        lastFlush = System.nanoTime();
+
+        MessageEmbed embed = buildEmbed();
+        if (commandEvent != null) {
+            buttonHandler.getEditQueue().editOriginal(commandEvent.getHook(), MessageEditData.fromEmbeds(embed), priority);
+        } else if (isReplySent) {
+            buttonHandler.getEditQueue().edit(channel, progressMessageID, MessageEditData.fromEmbeds(embed), priority);
+        } else {
+            isReplySent = true;
+            long commandMessageID = messageEvent.getMessageIdLong();
+            buttonHandler.getOutboundScheduler().submit(channel.sendMessageEmbeds(embed).setMessageReference(commandMessageID))
+                    .whenComplete((message, error) -> onReplySent(message, error));
+        }
+    }
+
+    private synchronized void onReplySent(Message message, Throwable error) {
+        if (error != null) {
+            logger.warn("Unable to send the progress message", error);
+            return;
+        }
+        progressMessageID = message.getIdLong();
+        if (isClosed) {
+            //the reporter was closed while the reply was being sent. Until the paginator is out, the reply shows the
+            //final state, in case the paginator cannot be sent
+            if (isPaginatorShown) {
+                deleteReply();
+            } else {
+                flush(OutboundScheduler.Priority.MESSAGE);
+            }
+        } else if (isDirty) {
+            requestFlush();
+        }
+    }
+
+    private void deleteReply() {
+        if (progressMessageID == 0) {
+            //it is deleted once it has been sent
+            return;
+        }
+        buttonHandler.getEditQueue().forget(progressMessageID);
+        buttonHandler.getOutboundScheduler().queue(channel.deleteMessageById(progressMessageID));
+    }
+
+    private MessageEmbed buildEmbed() {
+        String page = output.getLastPage();
+        int pageCount = output.getPageCount();
+
+        StringBuilder footer = new StringBuilder();
+        if (status != null) {
+            footer.append(status);
+        }
+        if (pageCount > 1) {
+            footer.append(footer.length() == 0 ? "" : " \u2022 ").append("Page ").append(pageCount);
+        }
+
+        EmbedBuilder embedBuilder = new EmbedBuilder()
+                .setTitle(title)
+                .setColor(color)
+                .setDescription(page == null && status == null ? "Working on it..." : page)
+                .setFooter(footer.length() == 0 ? null : footer.toString());
+        return EmbedValidator.validate(embedBuilder.build());
+    }
+
+    public static class Builder {
+        private SlashCommandInteractionEvent commandEvent = null;
+        private MessageReceivedEvent messageEvent = null;
+        private ButtonHandler buttonHandler = null;
+        private Duration interval = Duration.ofSeconds(2);
+        private String title = null;
+        private Color color = null;
+        private int maxPageLength = MessageEmbed.DESCRIPTION_MAX_LENGTH;
+
+        /**
+         * Builds the progress reporter. If the command has not been acknowledged yet, its reply is deferred.
+         *
+         * @return A new ProgressReporter object.
+         */
+        public ProgressReporter build() {
+            if (buttonHandler == null) {
+                throw new IllegalStateException("A progress reporter MUST have a button handler!");
+            }
+            if ((commandEvent == null) == (messageEvent == null)) {
+                throw new IllegalArgumentException("A progress reporter must be for either a message or a command!");
+            }
+            if (title != null && title.length() > MessageEmbed.TITLE_MAX_LENGTH) {
+                throw new IllegalArgumentException("The title of a progress reporter cannot be longer than " + MessageEmbed.TITLE_MAX_LENGTH + " characters!");
+            }
+            return new ProgressReporter(commandEvent, messageEvent, buttonHandler, interval, title, color, maxPageLength);
+        }
+
+        /**
+         * Sets the command whose progress is shown. The progress is shown in the command's reply.
+         *
+         * @param event The event of the command.
+         * @return This Builder.
+         */
+        public ProgressReporter.Builder setEvent(SlashCommandInteractionEvent event) {
+            this.commandEvent = event;
+            return this;
+        }
+
+        /**
+         * Sets the command whose progress is shown. The progress is shown in a reply to the command's message.
+         *
+         * @param event The event of the command.
+         * @return This Builder.
+         */
+        public ProgressReporter.Builder setEvent(MessageReceivedEvent event) {
+            this.messageEvent = event;
+            return this;
+        }
+
+        /**
+         * Sets the button handler whose timer, edit queue and outbound scheduler the reporter uses. It is also used by
+         * the paginator that output longer than a page is shown in.
+         *
+         * @param buttonHandler The button handler.
+         * @return This Builder.
+         */
+        public ProgressReporter.Builder setButtonHandler(ButtonHandler buttonHandler) {
+            this.buttonHandler = buttonHandler;
+            return this;
+        }
+
+        /**
+         * Sets how often the message may be edited.
+         * <p>
+         * Default value: 2 seconds
+         *
+         * @param interval The shortest time between two edits. Must be at least a second.
+         * @return This Builder.
+         */
+        public ProgressReporter.Builder setInterval(Duration interval) {
+            if (interval.compareTo(Duration.ofSeconds(1)) < 0) {
+                throw new IllegalArgumentException("A progress message cannot be edited more than once a second!");
+            }
+            this.interval = interval;
+            return this;
+        }
+
+        /**
+         * Sets the title of the message.
+         * <p>
+         * Default value: none
+         *
+         * @param title The title.
+         * @return This Builder.
+         */
+        public ProgressReporter.Builder setTitle(String title) {
+            this.title = title;
+            return this;
+        }
+
+        /**
+         * Sets the color of the message.
+         * <p>
+         * Default value: none
+         *
+         * @param color The color.
+         * @return This Builder.
+         */
+        public ProgressReporter.Builder setColor(Color color) {
+            this.color = color;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of characters on a page of output. Pages are never longer than Discord allows, no
+         * matter what this is set to.
+         * <p>
+         * Default value: 4096
+         *
+         * @param maxPageLength The maximum number of characters on a page.
+         * @return This Builder.
+         */
+        public ProgressReporter.Builder setMaxPageLength(int maxPageLength) {
+            if (maxPageLength < 1) {
+                throw new IllegalArgumentException("A page must be able to hold at least one character!");
+            }
+            this.maxPageLength = maxPageLength;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.utils.VeraUtils;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decides when an {@link AdvancedEmbedPaginator} renders its pages.
+ * <ul>
+ * <li>{@link #lazy()}: pages are only rendered when they are shown, on the thread that handles the button press.
+ * <li>{@link #prefetch(int)}: after a page is shown, the pages up to the given distance on either side of it are rendered
+ * in the background, so the next button press can usually be answered right away. This is the default, with a depth of 1.
+ * <li>{@link #eager()}: every page is rendered in parallel as soon as the paginator is shown. This is best for a small
+ * number of pages that are expensive to render.
+ * </ul>
+ * A page is only ever rendered once. If a button is pressed while the page it leads to is still rendering in the
+ * background, the press waits for that render to finish instead of starting another.
+ *
+ * @param mode          When pages are rendered.
+ * @param prefetchDepth How many pages on either side of the current page are rendered ahead of time. Only used by {@link Mode#PREFETCH}.
+ * @param executor      The executor that renders pages in the background. Null for {@link Mode#LAZY}.
+ */
+public record RenderPolicy(Mode mode, int prefetchDepth, Executor executor) {
+
+    private static final ExecutorService DEFAULT_PREFETCH_EXECUTOR = createDefaultPrefetchExecutor();
+
+    public RenderPolicy {
+        if (mode == Mode.PREFETCH && prefetchDepth < 1) {
+            throw new IllegalArgumentException("The prefetch depth must be at least 1!");
+        }
+        if (mode != Mode.LAZY && executor == null) {
+            throw new IllegalArgumentException("Only lazy rendering can be done without an executor!");
+        }
+    }
+
+    /**
+     * @return A policy that only renders pages when they are shown.
+     */
+    public static RenderPolicy lazy() {
+        return new RenderPolicy(Mode.LAZY, 0, null);
+    }
+
+    /**
+     * Creates a policy that renders the neighbours of the current page on Vera's shared page rendering threads. There is
+     * one of these threads for each processor, and pages that are waiting for a free thread are rendered in order.
+     *
+     * @param depth How many pages on either side of the current page to render ahead of time.
+     * @return The policy.
+     */
+    public static RenderPolicy prefetch(int depth) {
+        return prefetch(depth, DEFAULT_PREFETCH_EXECUTOR);
+    }
+
+    /**
+     * Creates a policy that renders the neighbours of the current page on the given executor.
+     *
+     * @param depth    How many pages on either side of the current page to render ahead of time.
+     * @param executor The executor to render pages on.
+     * @return The policy.
+     */
+    public static RenderPolicy prefetch(int depth, Executor executor) {
+        return new RenderPolicy(Mode.PREFETCH, depth, executor);
+    }
+
+    /**
+     * Creates a policy that renders every page in parallel on the common {@link ForkJoinPool} once the paginator is shown.
+     * Every rendered page is kept for as long as the paginator is open, no matter what page cache size it was built with,
+     * so this should only be used for paginators with a small number of pages. Pages can still be dropped by a
+     * {@link PageCacheBudget}, and are then rendered again when they are shown.
+     *
+     * @return The policy.
+     */
+    public static RenderPolicy eager() {
+        return eager(ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a policy that renders every page in parallel on the given pool once the paginator is shown. The same
+     * limits as {@link #eager()} apply.
+     *
+     * @param pool The pool to render pages on.
+     * @return The policy.
+     */
+    public static RenderPolicy eager(ForkJoinPool pool) {
+        return new RenderPolicy(Mode.EAGER, 0, pool);
+    }
+
+    //rendering is cpu bound, so more threads than cores would only make the renders fight each other. Prefetches are
+    //queued instead, and the threads stop once nobody has been paging for a while
+    private static ExecutorService createDefaultPrefetchExecutor() {
+        int threads = Math.max(2, Runtime.getRuntime().availableProcessors());
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                VeraUtils.createThreadFactory("VeraPageRenderer"));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * When the pages of a paginator are rendered.
+     */
+    public enum Mode {
+        LAZY,
+        PREFETCH,
+        EAGER
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A cache of rendered pages that is shared by every {@link AdvancedEmbedPaginator} it is given to. Paginators that show
+ * the same content, such as a leaderboard that many users open at once, are given the same content key, and each of
+ * their pages is then only rendered once no matter how many users are looking at it.
+ * <p>
+ * Pages are only weakly held by the cache, so a page stays cached as long as at least one paginator still keeps it and is
+ * dropped once none do. Pages also expire after a set time, and can be invalidated once the content they show changes.
+ * <blockquote><pre>
+ *     SharedPageCache leaderboardCache = new SharedPageCache(Duration.ofMinutes(5));
+ *     new AdvancedEmbedPaginator.Builder()
+ *          .setSharedPageCache(leaderboardCache, "leaderboard:" + guild.getId())
+ *          ...
+ *     //once the scores change
+ *     leaderboardCache.invalidate("leaderboard:" + guild.getId());
+ * </pre></blockquote>
+ * The content key must cover everything that a page depends on. Two paginators with the same key will be shown the same
+ * pages, even if they were built with different page data.
+ */
+public class SharedPageCache {
+
+    private final ConcurrentHashMap<PageKey, Entry> pages = new ConcurrentHashMap<>();
+    private final ReferenceQueue<MessageEmbed> collected = new ReferenceQueue<>();
+    private final long timeToLive;
+
+    private record PageKey(Object contentKey, int pageNum) {
+    }
+
+    private static class Entry {
+        private final long createdAt = System.nanoTime();
+        //only set while the page is being rendered, so that everyone else can share it
+        private volatile CompletableFuture<MessageEmbed> render = new CompletableFuture<>();
+        private volatile PageReference page = null;
+    }
+
+    //remembers its key, so that the entry can be removed once the page has been collected
+    private static class PageReference extends WeakReference<MessageEmbed> {
+        private final PageKey key;
+        private final Entry entry;
+
+        private PageReference(MessageEmbed page, PageKey key, Entry entry, ReferenceQueue<MessageEmbed> queue) {
+            super(page, queue);
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * Creates a new cache.
+     *
+     * @param timeToLive How long a page may be shared for after it was rendered. {@link Duration#ZERO} to keep pages
+     *                   until they are invalidated or no longer used.
+     */
+    public SharedPageCache(Duration timeToLive) {
+        if (timeToLive.isNegative()) {
+            throw new IllegalArgumentException("The time to live of a shared page cannot be negative!");
+        }
+        this.timeToLive = timeToLive.toNanos();
+    }
+
+    /**
+     * Gets a page from the cache, or renders it on the current thread if no paginator with the same content key has it.
+     * If another paginator is rendering the page right now, the future of that render is returned instead of starting
+     * another one, so the caller never has to wait for someone else's render. Should that render fail, the page is
+     * rendered again once it has.
+     *
+     * @param contentKey The key of the content that the page belongs to.
+     * @param pageNum The zero based number of the page.
+     * @param renderer Renders the page if it is not cached.
+     * @return A future that completes with the page.
+     * @throws RuntimeException Anything that the renderer throws, if the page was rendered on the current thread.
+     */
+    public CompletableFuture<MessageEmbed> get(Object contentKey, int pageNum, Supplier<MessageEmbed> renderer) {
+        expungeCollected();
+        PageKey key = new PageKey(contentKey, pageNum);
+
+        while (true) {
+            Entry entry = pages.get(key);
+            if (entry != null) {
+                CompletableFuture<MessageEmbed> render = entry.render;
+                if (render != null && !isExpired(entry)) {
+                    //if the render that we are sharing fails, try it ourselves
+                    return render.exceptionallyCompose(error -> get(contentKey, pageNum, renderer));
+                }
+                MessageEmbed page = getPage(entry);
+                if (page != null) {
+                    return CompletableFuture.completedFuture(page);
+                }
+                //the page expired, was collected or failed to render
+                pages.remove(key, entry);
+                continue;
+            }
+
+            Entry created = new Entry();
+            if (pages.putIfAbsent(key, created) != null) {
+                continue;
+            }
+            return CompletableFuture.completedFuture(render(key, created, renderer));
+        }
+    }
+
+    private boolean isExpired(Entry entry) {
+        return timeToLive > 0 && System.nanoTime() - entry.createdAt > timeToLive;
+    }
+
+    private MessageEmbed getPage(Entry entry) {
+        if (isExpired(entry)) {
+            return null;
+        }
+        PageReference page = entry.page;
+        return page == null ? null : page.get();
+    }
+
+    private MessageEmbed render(PageKey key, Entry entry, Supplier<MessageEmbed> renderer) {
+        CompletableFuture<MessageEmbed> render = entry.render;
+        MessageEmbed page;
+        try {
+            page = renderer.get();
+        } catch (RuntimeException | Error e) {
+            pages.remove(key, entry);
+            render.completeExceptionally(e);
+            throw e;
+        }
+
+        //from here on the cache only holds the page for as long as someone else does
+        entry.page = new PageReference(page, key, entry, collected);
+        entry.render = null;
+        render.complete(page);
+        return page;
+    }
+
+    /**
+     * Drops every page of some content, so that it is rendered again the next time a paginator needs it. Paginators
+     * that already have a page keep showing it until they render it again themselves.
+     *
+     * @param contentKey The key of the content that changed.
+     */
+    public void invalidate(Object contentKey) {
+        pages.keySet().removeIf(key -> key.contentKey().equals(contentKey));
+    }
+
+    /**
+     * Drops every page in the cache.
+     */
+    public void invalidateAll() {
+        pages.clear();
+    }
+
+    /**
+     * @return The number of pages that are cached or being rendered. Pages that have expired or have been collected may
+     * still be counted until they are next looked up.
+     */
+    public int size() {
+        expungeCollected();
+        return pages.size();
+    }
+
+    private void expungeCollected() {
+        PageReference reference;
+        while ((reference = (PageReference) collected.poll()) != null) {
+            pages.remove(reference.key, reference.entry);
+        }
+    }
+}
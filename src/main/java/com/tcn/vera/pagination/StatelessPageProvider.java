@@ -0,0 +1,58 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+/**
+ * Renders the pages of a {@link StatelessPaginator}. A stateless paginator does not keep anything in memory, so every
+ * time one of its buttons is pressed, the page is rendered again from the data key that is stored in the button.
+ * <p>
+ * Because any instance of your bot may be asked to render a page, the result of both methods should only depend on the
+ * data key and page number. Register your provider with {@link StatelessPaginator#registerProvider(com.tcn.vera.eventHandlers.ButtonHandler, String, StatelessPageProvider)}
+ * when your bot starts.
+ */
+public interface StatelessPageProvider {
+
+    /**
+     * Gets the number of pages that exist for the given data key.
+     *
+     * @param dataKey The data key that the paginator was created with.
+     * @return The number of pages. Must be at least 1.
+     */
+    int getPageCount(String dataKey);
+
+    /**
+     * Renders a page.
+     *
+     * @param dataKey The data key that the paginator was created with.
+     * @param pageNum The zero based number of the page to render.
+     * @return The embed that represents this page.
+     */
+    MessageEmbed getPage(String dataKey, int pageNum);
+}
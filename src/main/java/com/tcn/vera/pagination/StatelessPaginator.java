@@ -0,0 +1,331 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.utils.ComponentIdCodec;
+import com.tcn.vera.utils.ComponentIdCodec.StatelessComponentId;
+import com.tcn.vera.utils.OutboundScheduler;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import net.dv8tion.jda.api.interactions.components.LayoutComponent;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * A paginator that does not keep any state in memory. The page number, the ID of the user who owns the menu, and a short
+ * data key are stored in the custom ID of every button and signed, so the buttons keep working for as long as the message
+ * exists, even after the bot restarts or if the click is received by a different instance of the bot.
+ * <p>
+ * Pages are rendered on demand by a {@link StatelessPageProvider}. Providers must be registered once when your bot starts:
+ * <blockquote><pre>
+ *     ButtonHandler buttonHandler = new ButtonHandler();
+ *     buttonHandler.setSigningKey(Secrets.buttonSigningKey);
+ *     StatelessPaginator.registerProvider(buttonHandler, "lb", new LeaderboardPageProvider());
+ * </pre></blockquote>
+ * and can then be used from any command:
+ * <blockquote><pre>
+ *     new StatelessPaginator.Builder()
+ *                 .setProvider("lb", leaderboardPageProvider)
+ *                 .setDataKey(event.getGuild().getId())
+ *                 .setEvent(event)
+ *                 .setUserID(event.getUser().getIdLong())
+ *                 .setButtonHandler(buttonHandler)
+ *                 .build()
+ *                 .paginate();
+ * </pre></blockquote>
+ * Discord limits custom IDs to 100 characters, so the provider ID and data key should be kept as short as possible.
+ */
+public class StatelessPaginator {
+
+    private static final int WRAP_FLAG = 1;
+
+    private final Message message;
+    private final SlashCommandInteractionEvent commandEvent;
+    private final boolean isCommand;
+
+    private final ButtonHandler buttonHandler;
+    private final String providerID;
+    private final StatelessPageProvider provider;
+    private final String dataKey;
+    private final long userID;
+    private final boolean shouldWrap;
+
+    protected StatelessPaginator(Message message, SlashCommandInteractionEvent commandEvent, ButtonHandler buttonHandler, String providerID, StatelessPageProvider provider, String dataKey, long userID, boolean shouldWrap) {
+        this.message = message;
+        this.commandEvent = commandEvent;
+        this.buttonHandler = buttonHandler;
+        this.providerID = providerID;
+        this.provider = provider;
+        this.dataKey = dataKey;
+        this.userID = userID;
+        this.shouldWrap = shouldWrap;
+
+        if (message == null && commandEvent != null) {
+            isCommand = true;
+        } else if (message != null && commandEvent == null) {
+            isCommand = false;
+        } else {
+            throw new IllegalArgumentException("This paginator cannot be in response to both a message and a command at the same time!");
+        }
+    }
+
+    /**
+     * Registers a page provider with a button handler. This must be done once, before any paginator using this provider
+     * is shown, on every instance of your bot that might receive the button presses.
+     *
+     * @param buttonHandler The button handler that will receive the button presses.
+     * @param providerID    A short ID that is unique amongst your providers. It cannot contain a colon.
+     * @param provider      The provider that renders the pages.
+     */
+    public static void registerProvider(ButtonHandler buttonHandler, String providerID, StatelessPageProvider provider) {
+        if (providerID == null || providerID.isEmpty() || providerID.contains(":")) {
+            throw new IllegalArgumentException("A provider ID cannot be empty or contain a colon!");
+        }
+        buttonHandler.registerPermanentButtonSet(ComponentIdCodec.PREFIX + providerID + ":", event -> onButtonClick(buttonHandler, provider, event));
+    }
+
+    /**
+     * Shows the paginator at a specific page number. This method does not block.
+     *
+     * @param pageNum The page number that should be first presented to the user.
+     * @return A stage that completes with the message showing the paginator once discord has accepted it.
+     */
+    public CompletionStage<Message> paginate(int pageNum) {
+        int pageCount = provider.getPageCount(dataKey);
+        int page = Math.max(0, Math.min(pageNum - 1, pageCount - 1));
+
+        MessageEmbed embed = provider.getPage(dataKey, page);
+        List<LayoutComponent> components = buildComponents(buttonHandler.getComponentIdCodec(),
+                new StatelessComponentId(providerID, dataKey, page, userID, shouldWrap ? WRAP_FLAG : 0, "none"), pageCount);
+
+        if (isCommand) {
+            return buttonHandler.getOutboundScheduler().submit(commandEvent.getHook().editOriginalEmbeds(embed).setComponents(components), OutboundScheduler.Priority.MESSAGE);
+        } else {
+            return buttonHandler.getOutboundScheduler().submit(message.getChannel().sendMessageEmbeds(embed).setComponents(components));
+        }
+    }
+
+    /**
+     * Shows the paginator on the first page. This method does not block.
+     *
+     * @return A stage that completes with the message showing the paginator once discord has accepted it.
+     */
+    public CompletionStage<Message> paginate() {
+        return paginate(1);
+    }
+
+    private static void onButtonClick(ButtonHandler buttonHandler, StatelessPageProvider provider, ButtonInteractionEvent event) {
+        StatelessComponentId id = buttonHandler.getComponentIdCodec().decode(event.getComponentId());
+        if (id == null) {
+            buttonHandler.getOutboundScheduler().queue(event.reply("This button is not valid").setEphemeral(true));
+            return;
+        }
+
+        if (event.getUser().getIdLong() != id.ownerID()) {
+            buttonHandler.getOutboundScheduler().queue(event.reply("You are not the user who created this menu!").setEphemeral(true));
+            return;
+        }
+
+        int pageCount = provider.getPageCount(id.dataKey());
+        boolean shouldWrap = (id.flags() & WRAP_FLAG) != 0;
+        int targetPage;
+        switch (id.action()) {
+            case "previous" -> targetPage = getPreviousPageNum(id.page(), pageCount, shouldWrap);
+            case "next" -> targetPage = getNextPageNum(id.page(), pageCount, shouldWrap);
+            case "stop" -> {
+                buttonHandler.getOutboundScheduler().queue(event.editComponents());
+                return;
+            }
+            default -> targetPage = -1;
+        }
+
+        if (targetPage == -1) {
+            buttonHandler.getOutboundScheduler().queue(event.deferEdit());
+            return;
+        }
+
+        //replying with the edit acknowledges the click and changes the page in a single request
+        StatelessComponentId newState = new StatelessComponentId(id.providerID(), id.dataKey(), targetPage, id.ownerID(), id.flags(), id.action());
+        buttonHandler.getOutboundScheduler().queue(event.editMessageEmbeds(provider.getPage(id.dataKey(), targetPage))
+                .setComponents(buildComponents(buttonHandler.getComponentIdCodec(), newState, pageCount)));
+    }
+
+    private static List<LayoutComponent> buildComponents(ComponentIdCodec codec, StatelessComponentId state, int pageCount) {
+        if (pageCount <= 1) {
+            return List.of();
+        }
+
+        boolean shouldWrap = (state.flags() & WRAP_FLAG) != 0;
+        Button previous = Button.primary(codec.encode(withAction(state, "previous")), Emoji.fromUnicode("\u2B05"))
+                .withDisabled(getPreviousPageNum(state.page(), pageCount, shouldWrap) == -1);
+        Button stop = Button.danger(codec.encode(withAction(state, "stop")), Emoji.fromUnicode("\uD83D\uDDD1"));
+        Button next = Button.primary(codec.encode(withAction(state, "next")), Emoji.fromUnicode("\u27A1"))
+                .withDisabled(getNextPageNum(state.page(), pageCount, shouldWrap) == -1);
+
+        return List.of(ActionRow.of(previous, stop, next));
+    }
+
+    private static StatelessComponentId withAction(StatelessComponentId state, String action) {
+        return new StatelessComponentId(state.providerID(), state.dataKey(), state.page(), state.ownerID(), state.flags(), action);
+    }
+
+    private static int getNextPageNum(int currentPage, int pageCount, boolean shouldWrap) {
+        if (currentPage >= pageCount - 1) {
+            return shouldWrap ? 0 : -1;
+        }
+        return currentPage + 1;
+    }
+
+    private static int getPreviousPageNum(int currentPage, int pageCount, boolean shouldWrap) {
+        if (currentPage <= 0) {
+            return shouldWrap ? pageCount - 1 : -1;
+        }
+        return Math.min(currentPage, pageCount) - 1;
+    }
+
+    /**
+     * The builder for the {@link StatelessPaginator}. A provider, data key, event, and button handler are required.
+     */
+    public static class Builder {
+        private boolean shouldWrap = true;
+        private Message message;
+        private SlashCommandInteractionEvent commandEvent;
+        private long userID = -1;
+        private ButtonHandler buttonHandler;
+        private String providerID;
+        private StatelessPageProvider provider;
+        private String dataKey;
+
+        /**
+         * Builds the paginator. This method will throw an IllegalArgumentException if the paginator is not valid.
+         *
+         * @return A new StatelessPaginator object.
+         */
+        public StatelessPaginator build() {
+            if (null == buttonHandler) {
+                throw new IllegalStateException("A paginator MUST have a button handler!");
+            }
+            if (null == provider || null == providerID) {
+                throw new IllegalArgumentException("A stateless paginator must have a page provider!");
+            }
+            if (null == dataKey || dataKey.isEmpty() || dataKey.contains(":")) {
+                throw new IllegalArgumentException("A stateless paginator must have a data key that does not contain a colon!");
+            }
+
+            return new StatelessPaginator(message, commandEvent, buttonHandler, providerID, provider, dataKey, userID, shouldWrap);
+        }
+
+        /**
+         * Sets the provider that renders the pages of this paginator. The same provider must have been registered with
+         * {@link StatelessPaginator#registerProvider(ButtonHandler, String, StatelessPageProvider)} using the same ID.
+         *
+         * @param providerID The ID that the provider was registered with.
+         * @param provider   The provider that renders the pages.
+         * @return The builder.
+         */
+        public Builder setProvider(String providerID, StatelessPageProvider provider) {
+            this.providerID = providerID;
+            this.provider = provider;
+            return this;
+        }
+
+        /**
+         * Sets the data key that is passed to the provider. This is stored in every button, so it should be as short as possible.
+         *
+         * @param dataKey The data key. It cannot contain a colon.
+         * @return The builder.
+         */
+        public Builder setDataKey(String dataKey) {
+            this.dataKey = dataKey;
+            return this;
+        }
+
+        /**
+         * Sets whether or not the paginator should wrap around when it reaches the end of the pages.
+         *
+         * @param shouldWrap Whether or not the paginator should wrap around.
+         * @return The builder.
+         */
+        public Builder wrapPages(boolean shouldWrap) {
+            this.shouldWrap = shouldWrap;
+            return this;
+        }
+
+        /**
+         * Sets the user ID of the user who should be able to interact with the paginator.
+         *
+         * @param userID The user ID of the user who should be able to interact with the paginator.
+         * @return The builder.
+         */
+        public Builder setUserID(long userID) {
+            this.userID = userID;
+            return this;
+        }
+
+        /**
+         * Sets the event that triggered the paginator.
+         *
+         * @param event The event that triggered the paginator.
+         * @return The builder.
+         */
+        public Builder setEvent(SlashCommandInteractionEvent event) {
+            this.commandEvent = event;
+            return this;
+        }
+
+        /**
+         * Sets the event that triggered the paginator.
+         *
+         * @param event The event that triggered the paginator.
+         * @return The builder.
+         */
+        public Builder setEvent(MessageReceivedEvent event) {
+            this.message = event.getMessage();
+            return this;
+        }
+
+        /**
+         * Sets the button handler that should be used by the paginator. If this is not set, the paginator will not work.
+         *
+         * @param buttonHandler The button handler that should be used by the paginator.
+         * @return The builder.
+         */
+        public Builder setButtonHandler(ButtonHandler buttonHandler) {
+            this.buttonHandler = buttonHandler;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import java.util.Iterator;
+
+/**
+ * Splits lines of text into pages of a maximum length, one page at a time. Lines are kept whole where possible, and
+ * lines that do not fit on a page by themselves are split at the last space that fits.
+ */
+final class TextPageSplitter {
+
+    private final Iterator<String> lines;
+    private final int maxPageLength;
+    //the part of a line that did not fit on the last page
+    private String carry = null;
+
+    TextPageSplitter(Iterator<String> lines, int maxPageLength) {
+        if (maxPageLength < 1) {
+            throw new IllegalArgumentException("A page must be able to hold at least one character!");
+        }
+        this.lines = lines;
+        this.maxPageLength = maxPageLength;
+    }
+
+    /**
+     * @return The next page, or null if there is no text left. Pages that would only hold whitespace are skipped.
+     */
+    String nextPage() {
+        while (carry != null || lines.hasNext()) {
+            String page = buildPage();
+            if (!page.isBlank()) {
+                return page;
+            }
+        }
+        return null;
+    }
+
+    private String buildPage() {
+        StringBuilder page = new StringBuilder();
+        boolean isEmpty = true;
+
+        while (carry != null || lines.hasNext()) {
+            String line = carry != null ? carry : lines.next();
+            carry = null;
+
+            int length = isEmpty ? line.length() : page.length() + 1 + line.length();
+            if (length <= maxPageLength) {
+                if (!isEmpty) {
+                    page.append('\n');
+                }
+                page.append(line);
+                isEmpty = false;
+                continue;
+            }
+
+            if (!isEmpty) {
+                //start the next page with this line rather than splitting it
+                carry = line;
+                break;
+            }
+
+            int cut = findCut(line);
+            page.append(line, 0, cut);
+            //the space that the line was split at is not needed on either page
+            carry = Character.isWhitespace(line.charAt(cut)) ? line.substring(cut + 1) : line.substring(cut);
+            if (carry.isEmpty()) {
+                carry = null;
+            }
+            break;
+        }
+        return page.toString();
+    }
+
+    private int findCut(String line) {
+        for (int i = maxPageLength; i > 0; i--) {
+            if (Character.isWhitespace(line.charAt(i))) {
+                return i;
+            }
+        }
+        //there is no space to split at, so split in the middle of the word, but never in the middle of a character
+        return Character.isHighSurrogate(line.charAt(maxPageLength - 1)) && maxPageLength > 1 ? maxPageLength - 1 : maxPageLength;
+    }
+}
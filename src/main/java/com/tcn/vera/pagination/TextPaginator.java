@@ -0,0 +1,308 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.utils.EmbedValidator;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.interactions.components.buttons.Button;
+
+import java.awt.Color;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * A paginator that shows long text, such as a log or a list, across as many embeds as it needs. The text is split into
+ * pages at line breaks, or at spaces for lines that are too long, so that no page goes over Discord's limits.
+ * <p>
+ * The text is only read as far as the user has paged, so a {@link Reader} or {@link Stream} is never read in full
+ * unless the user reaches the end. Until then, the paginator does not know how many pages it has.
+ * <blockquote><pre>
+ *     new TextPaginator.Builder()
+ *          .setText(Files.newBufferedReader(logFile))
+ *          .setTitle("Latest log")
+ *          .setEvent(event)
+ *          .setUserID(event.getUser().getIdLong())
+ *          .setButtonHandler(buttonHandler)
+ *          .build()
+ *          .paginate();
+ * </pre></blockquote>
+ */
+public class TextPaginator extends PaginatorBase {
+
+    //the page counter in the footer is never longer than this
+    private static final int FOOTER_RESERVE = 64;
+
+    private final Stream<String> lines;
+    private final TextPageSplitter splitter;
+    private final List<String> pages = new ArrayList<>();
+    private final String title;
+    private final Color color;
+
+    protected TextPaginator(Message message, SlashCommandInteractionEvent commandEvent, boolean shouldWrap, long userID, ButtonHandler buttonHandler, Stream<String> lines, int maxPageLength, String title, Color color) {
+        super(message, commandEvent, PageSource.UNKNOWN_PAGE_COUNT, shouldWrap, userID, buttonHandler);
+        this.lines = lines;
+        this.title = title;
+        this.color = color;
+
+        int allowedLength = MessageEmbed.EMBED_MAX_LENGTH_BOT - FOOTER_RESERVE - (title == null ? 0 : title.length());
+        Iterator<String> lineIterator = lines.iterator();
+        this.splitter = new TextPageSplitter(lineIterator, Math.min(maxPageLength, Math.min(allowedLength, MessageEmbed.DESCRIPTION_MAX_LENGTH)));
+
+        //look one page ahead, so that text that fits on a single page is shown without any buttons
+        getPage(1);
+        if (numberOfPages != 1) {
+            addButton(Button.primary(getFullButtonID("previous"), Emoji.fromUnicode("\u2B05")));
+            addButton(Button.danger(getFullButtonID("stop"), Emoji.fromUnicode("\uD83D\uDDD1")));
+            addButton(Button.primary(getFullButtonID("next"), Emoji.fromUnicode("\u27A1")));
+        }
+    }
+
+    /**
+     * Gets a page, reading as much of the text as is needed to reach it.
+     *
+     * @param pageNum The zero based number of the page.
+     * @return The text of the page, or null if the text ends before it.
+     */
+    private synchronized String getPage(int pageNum) {
+        while (pages.size() <= pageNum && numberOfPages == PageSource.UNKNOWN_PAGE_COUNT) {
+            String page;
+            try {
+                page = splitter.nextPage();
+            } catch (UncheckedIOException e) {
+                //show what we have rather than nothing at all
+                page = null;
+            }
+
+            if (page == null) {
+                //there must always be at least one page to show
+                if (pages.isEmpty()) {
+                    pages.add("There is nothing to show here.");
+                }
+                numberOfPages = pages.size();
+                lines.close();
+            } else {
+                pages.add(page);
+            }
+        }
+        return pageNum < pages.size() ? pages.get(pageNum) : null;
+    }
+
+    private MessageEmbed buildPage(int pageNum) {
+        EmbedBuilder embedBuilder = new EmbedBuilder()
+                .setTitle(title)
+                .setColor(color)
+                .setDescription(getPage(pageNum));
+
+        //reading ahead lets the footer show the page count as soon as the end is in sight
+        getPage(pageNum + 1);
+        if (numberOfPages == PageSource.UNKNOWN_PAGE_COUNT) {
+            embedBuilder.setFooter("Page " + (pageNum + 1));
+        } else if (numberOfPages > 1) {
+            embedBuilder.setFooter("Page " + (pageNum + 1) + " of " + numberOfPages);
+        }
+        return EmbedValidator.validate(embedBuilder.build());
+    }
+
+    @Override
+    protected void onButtonClick(ButtonInteractionEvent event) {
+        if (event.getUser().getIdLong() != userID) {
+            queue(event.reply("You are not the user who created this menu!").setEphemeral(true));
+            return;
+        }
+
+        String pressedButton = event.getComponentId();
+
+        if (getFullButtonID("previous").equals(pressedButton)) {
+            decPageNum();
+        } else if (getFullButtonID("next").equals(pressedButton)) {
+            incPageNum();
+            if (getPage(currentPage) == null) {
+                //we went past the end of the text, which we only just found out about
+                currentPage = shouldWrap ? 0 : numberOfPages - 1;
+            }
+        } else if (getFullButtonID("stop").equals(pressedButton)) {
+            destroyMenu(false);
+            return;
+        } else {
+            return;
+        }
+        queue(event.deferEdit());
+        updatePage();
+    }
+
+    @Override
+    protected void jumpToPage(int pageNum) {
+        //reading up to the page tells us whether the text is long enough to reach it
+        if (getPage(pageNum) == null) {
+            pageNum = numberOfPages - 1;
+        }
+        super.jumpToPage(pageNum);
+    }
+
+    @Override
+    protected CompletableFuture<Message> showPage() {
+        return showEmbed(buildPage(currentPage));
+    }
+
+    @Override
+    protected void destroyMenu(boolean deleteMessage) {
+        super.destroyMenu(deleteMessage);
+        //give back the reader or file behind the text, if we have not read all of it
+        lines.close();
+    }
+
+    public static class Builder extends PaginatorBase.Builder<TextPaginator.Builder, TextPaginator> {
+        private Stream<String> lines = null;
+        private int maxPageLength = MessageEmbed.DESCRIPTION_MAX_LENGTH;
+        private String title = null;
+        private Color color = null;
+
+        /**
+         * Builds the paginator. This method will throw an IllegalArgumentException if the paginator is not valid.
+         *
+         * @return A new TextPaginator object.
+         */
+        @Override
+        public TextPaginator build() {
+            if (!runChecks()) {
+                throw new IllegalArgumentException("Cannot build, invalid arguments!");
+            }
+
+            return applyCommonOptions(new TextPaginator(message, commandEvent, shouldWrap, userID, buttonHandler, lines, maxPageLength, title, color));
+        }
+
+        @Override
+        protected boolean runAdditionalChecks() {
+            if (lines == null) {
+                throw new IllegalArgumentException("A text paginator must have some text to show!");
+            }
+            if (title != null && title.length() > MessageEmbed.TITLE_MAX_LENGTH) {
+                throw new IllegalArgumentException("The title of a text paginator cannot be longer than " + MessageEmbed.TITLE_MAX_LENGTH + " characters!");
+            }
+            return true;
+        }
+
+        /**
+         * Sets the text to show.
+         *
+         * @param text The text to show.
+         * @return This Builder.
+         */
+        public TextPaginator.Builder setText(CharSequence text) {
+            this.lines = text.toString().lines();
+            return this;
+        }
+
+        /**
+         * Sets the text to show. The reader is only read as far as the user pages, and is closed once it has been read
+         * to the end or the paginator is destroyed.
+         *
+         * @param reader The reader to read the text from.
+         * @return This Builder.
+         */
+        public TextPaginator.Builder setText(Reader reader) {
+            BufferedReader bufferedReader = reader instanceof BufferedReader buffered ? buffered : new BufferedReader(reader);
+            this.lines = bufferedReader.lines().onClose(() -> {
+                try {
+                    bufferedReader.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return this;
+        }
+
+        /**
+         * Sets the lines of text to show. The stream is only read as far as the user pages, and is closed once it has
+         * been read to the end or the paginator is destroyed.
+         *
+         * @param lines The lines to show. None of them should contain a line break.
+         * @return This Builder.
+         */
+        public TextPaginator.Builder setLines(Stream<String> lines) {
+            this.lines = lines;
+            return this;
+        }
+
+        /**
+         * Sets the title that is shown above every page.
+         * <p>
+         * Default value: none
+         *
+         * @param title The title.
+         * @return This Builder.
+         */
+        public TextPaginator.Builder setTitle(String title) {
+            this.title = title;
+            return this;
+        }
+
+        /**
+         * Sets the color of every page.
+         * <p>
+         * Default value: none
+         *
+         * @param color The color.
+         * @return This Builder.
+         */
+        public TextPaginator.Builder setColor(Color color) {
+            this.color = color;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of characters on a page. Pages are never longer than Discord allows, no matter what
+         * this is set to.
+         * <p>
+         * Default value: 4096
+         *
+         * @param maxPageLength The maximum number of characters on a page.
+         * @return This Builder.
+         */
+        public TextPaginator.Builder setMaxPageLength(int maxPageLength) {
+            if (maxPageLength < 1) {
+                throw new IllegalArgumentException("A page must be able to hold at least one character!");
+            }
+            this.maxPageLength = maxPageLength;
+            return this;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.state;
+
+import java.io.Closeable;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * A place to keep which commands have been disabled in which guilds, so that they stay disabled after a restart. Set a
+ * store with {@link com.tcn.vera.eventHandlers.CommandHandlerBuilder#setCommandToggleStore(CommandToggleStore)}.
+ * <p>
+ * Commands are identified by the key from {@link com.tcn.vera.eventHandlers.CommandToggles#getCommandKey(com.tcn.vera.commands.templates.CommandTemplateBase)},
+ * which is made of their type and name. Keys of commands that no longer exist are ignored when they are loaded.
+ * <p>
+ * Implementations must be thread safe.
+ */
+public interface CommandToggleStore extends Closeable {
+
+    /**
+     * Loads every guild that has at least one disabled command. This is called once, when the command handler is built.
+     *
+     * @param consumer Called with the ID of each guild and the keys of the commands that are disabled in it.
+     */
+    void loadAll(BiConsumer<Long, Set<String>> consumer);
+
+    /**
+     * Stores the commands that are disabled in a guild, replacing whatever was stored for it before. This is called
+     * every time a command is enabled or disabled.
+     *
+     * @param guildID          The ID of the guild.
+     * @param disabledCommands The keys of the commands that are disabled in the guild. Empty if every command is enabled.
+     */
+    void save(long guildID, Set<String> disabledCommands);
+
+    /**
+     * Releases any resources held by the store. The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+    }
+}
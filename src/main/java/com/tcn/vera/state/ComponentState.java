@@ -0,0 +1,97 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.state;
+
+/**
+ * The persistent state of a paginator. This contains everything that is needed to rebuild a paginator after the bot
+ * has restarted or after the paginator has been evicted from the {@link com.tcn.vera.eventHandlers.ButtonHandler}.
+ *
+ * @param paginatorID The ID that the buttons of the paginator are keyed on. This is the ID of the message that the
+ *                    paginator was created for.
+ * @param restorerID  The ID of the {@link com.tcn.vera.pagination.PaginatorRestorer} that is able to rebuild the paginator.
+ * @param userID      The ID of the discord user who is allowed to use the paginator.
+ * @param currentPage The zero based page that the paginator is currently showing.
+ * @param shouldWrap  Whether the paginator wraps from the last page to the first.
+ * @param componentFlags The optional components that the paginator shows below its pages, as a combination of
+ *                    {@link #FIRST_LAST_BUTTONS}, {@link #JUMP_BUTTON} and {@link #PAGE_SELECT_MENU}.
+ * @param createdAt   The time that the paginator was first shown, in milliseconds since the epoch. This is what its
+ *                    absolute timeout is measured from.
+ * @param idleTimeout The idle timeout of the paginator in milliseconds, or 0 if it has none.
+ * @param absoluteTimeout The absolute timeout of the paginator in milliseconds, or 0 if it has none.
+ * @param payload     The serialized pages of the paginator. The format is decided by the paginator that created the state.
+ */
+public record ComponentState(long paginatorID, String restorerID, long userID, int currentPage, boolean shouldWrap,
+                             byte componentFlags, long createdAt, long idleTimeout, long absoluteTimeout, byte[] payload) {
+
+    /**
+     * Set in {@link #componentFlags()} if the paginator shows the first and last page buttons.
+     */
+    public static final byte FIRST_LAST_BUTTONS = 1;
+
+    /**
+     * Set in {@link #componentFlags()} if the paginator shows the go to page button.
+     */
+    public static final byte JUMP_BUTTON = 1 << 1;
+
+    /**
+     * Set in {@link #componentFlags()} if the paginator shows the page select menu.
+     */
+    public static final byte PAGE_SELECT_MENU = 1 << 2;
+
+    /**
+     * Creates the state of a paginator that never times out and has no optional components.
+     *
+     * @param paginatorID The ID that the buttons of the paginator are keyed on.
+     * @param restorerID  The ID of the {@link com.tcn.vera.pagination.PaginatorRestorer} that is able to rebuild the paginator.
+     * @param userID      The ID of the discord user who is allowed to use the paginator.
+     * @param currentPage The zero based page that the paginator is currently showing.
+     * @param shouldWrap  Whether the paginator wraps from the last page to the first.
+     * @param payload     The serialized pages of the paginator.
+     */
+    public ComponentState(long paginatorID, String restorerID, long userID, int currentPage, boolean shouldWrap, byte[] payload) {
+        this(paginatorID, restorerID, userID, currentPage, shouldWrap, (byte) 0, 0, 0, 0, payload);
+    }
+
+    /**
+     * @param flag One of the component flags of this class.
+     * @return Whether the given flag is set in {@link #componentFlags()}.
+     */
+    public boolean hasComponent(byte flag) {
+        return (componentFlags & flag) != 0;
+    }
+
+    /**
+     * Creates a copy of this state that points at a different page.
+     *
+     * @param page The new current page.
+     * @return A new ComponentState.
+     */
+    public ComponentState withCurrentPage(int page) {
+        return new ComponentState(paginatorID, restorerID, userID, page, shouldWrap, componentFlags, createdAt, idleTimeout, absoluteTimeout, payload);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.state;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The binary format that Vera's file based stores use for a {@link ComponentState}. The paginator ID is not part of
+ * the format, since every store already keys its records on it.
+ */
+final class ComponentStateCodec {
+
+    private ComponentStateCodec() {
+        throw new IllegalStateException("This is a utility class! Don't try to make a object out of it!");
+    }
+
+    static byte[] encode(ComponentState state) {
+        byte[] restorerID = state.restorerID().getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(2 + restorerID.length + 8 + 4 + 2 + 24 + 4 + state.payload().length)
+                .putShort((short) restorerID.length)
+                .put(restorerID)
+                .putLong(state.userID())
+                .putInt(state.currentPage())
+                .put((byte) (state.shouldWrap() ? 1 : 0))
+                .put(state.componentFlags())
+                .putLong(state.createdAt())
+                .putLong(state.idleTimeout())
+                .putLong(state.absoluteTimeout())
+                .putInt(state.payload().length)
+                .put(state.payload())
+                .array();
+    }
+
+    /**
+     * Reads a state from the current position of the buffer.
+     */
+    static ComponentState decode(long paginatorID, ByteBuffer body) {
+        byte[] restorerID = new byte[body.getShort()];
+        body.get(restorerID);
+        long userID = body.getLong();
+        int currentPage = body.getInt();
+        boolean shouldWrap = body.get() == 1;
+        byte componentFlags = body.get();
+        long createdAt = body.getLong();
+        long idleTimeout = body.getLong();
+        long absoluteTimeout = body.getLong();
+        byte[] payload = new byte[body.getInt()];
+        body.get(payload);
+
+        return new ComponentState(paginatorID, new String(restorerID, StandardCharsets.UTF_8), userID, currentPage, shouldWrap, componentFlags, createdAt, idleTimeout, absoluteTimeout, payload);
+    }
+
+    /**
+     * @return The position of the current page within an encoded state whose restorer ID starts at the given index.
+     */
+    static int currentPageOffset(ByteBuffer body, int index) {
+        return index + 2 + body.getShort(index) + 8;
+    }
+}
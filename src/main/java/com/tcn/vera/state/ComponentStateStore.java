@@ -0,0 +1,128 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.state;
+
+import java.io.Closeable;
+import java.util.function.LongConsumer;
+
+/**
+ * A place to keep the state of paginators outside the {@link com.tcn.vera.eventHandlers.ButtonHandler}'s in-memory cache.
+ * When a button is pressed and the ButtonHandler does not know about its paginator, it looks the paginator up in its
+ * state store and rebuilds it.
+ * <p>
+ * Set a store with {@link com.tcn.vera.eventHandlers.ButtonHandler#setStateStore(ComponentStateStore)}. Vera ships with
+ * the following stores:
+ * <ul>
+ * <li>{@link InMemoryStateStore}: keeps the state on the heap of a single process.
+ * <li>{@link MappedFileStateStore}: keeps the state in a local file so that paginators survive a restart.
+ * <li>{@link DirectoryStateStore}: keeps the state in a directory that several processes can share.
+ * <li>{@link NearCachedStateStore}: keeps recently used state of another store in memory.
+ * </ul>
+ * If you run several instances of your bot, such as one per group of shards, a store that every instance can reach
+ * allows any instance to handle any button press. Stores like this should be wrapped in a {@link NearCachedStateStore}
+ * so that repeated presses do not each require a round-trip.
+ * <p>
+ * Implementations must be thread safe.
+ */
+public interface ComponentStateStore extends Closeable {
+
+    /**
+     * Stores the full state of a paginator, replacing anything that was stored under the same paginator ID.
+     *
+     * @param state The state to store.
+     */
+    void put(ComponentState state);
+
+    /**
+     * Updates the page that a stored paginator is showing. Paginators call this on every page change, so it should be
+     * cheaper than storing the full state again. Does nothing if no state is stored under the ID.
+     *
+     * @param paginatorID The ID that the state was stored under.
+     * @param currentPage The new current page.
+     */
+    void updateCursor(long paginatorID, int currentPage);
+
+    /**
+     * Gets the state of a paginator.
+     *
+     * @param paginatorID The ID that the state was stored under.
+     * @return The state with the latest cursor position, or null if nothing is stored under the ID.
+     */
+    ComponentState get(long paginatorID);
+
+    /**
+     * Gets only the page that a stored paginator is showing. Paginators call this on every button press to catch up with
+     * changes made by other processes, so stores should answer it without decoding the full state if they can. The
+     * default implementation reads the full state.
+     *
+     * @param paginatorID The ID that the state was stored under.
+     * @return The current page, or -1 if nothing is stored under the ID.
+     */
+    default int getCursor(long paginatorID) {
+        ComponentState state = get(paginatorID);
+        return state == null ? -1 : state.currentPage();
+    }
+
+    /**
+     * Removes the state of a paginator. This is called once the paginator is destroyed.
+     *
+     * @param paginatorID The ID that the state was stored under.
+     */
+    void remove(long paginatorID);
+
+    /**
+     * Adds a listener that is called with the paginator ID whenever state is changed by someone other than this store
+     * instance, such as another process. This is used by {@link NearCachedStateStore} to drop outdated copies.
+     * <p>
+     * Stores that can only be changed through a single instance never need to call the listener, so the default
+     * implementation does nothing.
+     *
+     * @param listener The listener to call with the ID of the changed state.
+     */
+    default void addInvalidationListener(LongConsumer listener) {
+    }
+
+    /**
+     * Adds a listener that is called whenever the store may have missed changes made by someone other than this store
+     * instance, so that any state may be outdated. This is used by {@link NearCachedStateStore} to drop every copy it holds.
+     * <p>
+     * Stores that can only be changed through a single instance never need to call the listener, so the default
+     * implementation does nothing.
+     *
+     * @param listener The listener to call.
+     */
+    default void addInvalidateAllListener(Runnable listener) {
+    }
+
+    /**
+     * Releases any resources held by the store. The default implementation does nothing.
+     */
+    @Override
+    default void close() {
+    }
+}
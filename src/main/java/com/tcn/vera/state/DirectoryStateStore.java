@@ -0,0 +1,252 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.state;
+
+import com.tcn.vera.utils.VeraUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link ComponentStateStore} that keeps the state of every paginator in its own file within a directory. Several
+ * processes can point a store at the same directory, such as a shared volume, to let any of them handle a button press.
+ * Files are replaced atomically, so a reader never sees a partly written state.
+ * <p>
+ * Page changes are written to a small cursor file next to the state file rather than rewriting the state, so moving a
+ * paginator never has to read the state first. Two processes that move the same paginator at the same moment each
+ * replace the cursor file as a whole, so the last write wins and neither can undo a change to the rest of the state.
+ * <p>
+ * The directory is watched for changes, and every change is reported to the invalidation listeners. This includes
+ * changes made through this instance, which only causes a {@link NearCachedStateStore} to read the file once more.
+ * If the watcher falls behind and misses changes, the invalidate all listeners are called instead.
+ */
+public class DirectoryStateStore implements ComponentStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger("Vera: State Store");
+    private static final String FILE_EXTENSION = ".state";
+    private static final String CURSOR_EXTENSION = ".cursor";
+
+    private final Path directory;
+    private final WatchService watchService;
+    private final List<LongConsumer> invalidationListeners = new CopyOnWriteArrayList<>();
+    private final List<Runnable> invalidateAllListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Opens a store in the given directory, creating the directory if it does not exist.
+     *
+     * @param directory The directory to keep the state files in.
+     * @throws IOException If the directory cannot be created or watched.
+     */
+    public DirectoryStateStore(Path directory) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.watchService = directory.getFileSystem().newWatchService();
+        directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY,
+                StandardWatchEventKinds.ENTRY_DELETE);
+
+        VeraUtils.createThreadFactory("VeraStateWatcher", logger).newThread(this::watch).start();
+    }
+
+    @Override
+    public void put(ComponentState state) {
+        write(state.paginatorID(), fileOf(state.paginatorID()), ComponentStateCodec.encode(state));
+        try {
+            //the new state carries its own page, so an older cursor must not override it
+            Files.deleteIfExists(cursorFileOf(state.paginatorID()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the state of paginator " + state.paginatorID(), e);
+        }
+    }
+
+    @Override
+    public void updateCursor(long paginatorID, int currentPage) {
+        if (Files.exists(fileOf(paginatorID))) {
+            write(paginatorID, cursorFileOf(paginatorID), ByteBuffer.allocate(4).putInt(currentPage).array());
+        }
+    }
+
+    @Override
+    public ComponentState get(long paginatorID) {
+        try {
+            byte[] body = Files.readAllBytes(fileOf(paginatorID));
+            ComponentState state = ComponentStateCodec.decode(paginatorID, ByteBuffer.wrap(body));
+            int cursor = readCursorFile(paginatorID);
+            return cursor == -1 ? state : state.withCurrentPage(cursor);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the state of paginator " + paginatorID, e);
+        }
+    }
+
+    @Override
+    public int getCursor(long paginatorID) {
+        try {
+            int cursor = readCursorFile(paginatorID);
+            if (cursor != -1) {
+                return cursor;
+            }
+
+            //only the header up to the page is needed, so the payload is never read
+            try (SeekableByteChannel channel = Files.newByteChannel(fileOf(paginatorID))) {
+                ByteBuffer length = readFully(channel, 2);
+                channel.position(ComponentStateCodec.currentPageOffset(length, 0));
+                return readFully(channel, 4).getInt();
+            }
+        } catch (NoSuchFileException e) {
+            return -1;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to read the state of paginator " + paginatorID, e);
+        }
+    }
+
+    @Override
+    public void remove(long paginatorID) {
+        try {
+            Files.deleteIfExists(fileOf(paginatorID));
+            Files.deleteIfExists(cursorFileOf(paginatorID));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to remove the state of paginator " + paginatorID, e);
+        }
+    }
+
+    @Override
+    public void addInvalidationListener(LongConsumer listener) {
+        invalidationListeners.add(listener);
+    }
+
+    @Override
+    public void addInvalidateAllListener(Runnable listener) {
+        invalidateAllListeners.add(listener);
+    }
+
+    @Override
+    public void close() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            logger.error("Unable to stop watching the state store at {}", directory, e);
+        }
+    }
+
+    private void write(long paginatorID, Path target, byte[] body) {
+        try {
+            //write next to the target first, so that other processes only ever see a complete file
+            Path temp = Files.createTempFile(directory, paginatorID + ".", ".tmp");
+            try {
+                Files.write(temp, body);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the state of paginator " + paginatorID, e);
+        }
+    }
+
+    //returns -1 if no page change has been written since the state was
+    private int readCursorFile(long paginatorID) throws IOException {
+        try {
+            return ByteBuffer.wrap(Files.readAllBytes(cursorFileOf(paginatorID))).getInt();
+        } catch (NoSuchFileException e) {
+            return -1;
+        }
+    }
+
+    private ByteBuffer readFully(SeekableByteChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) == -1) {
+                throw new EOFException("The state file ended early");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private Path fileOf(long paginatorID) {
+        return directory.resolve(paginatorID + FILE_EXTENSION);
+    }
+
+    private Path cursorFileOf(long paginatorID) {
+        return directory.resolve(paginatorID + CURSOR_EXTENSION);
+    }
+
+    //returns the ID of the paginator that a state or cursor file belongs to, or -1 for any other file
+    private long paginatorOf(String fileName) {
+        String extension = fileName.endsWith(FILE_EXTENSION) ? FILE_EXTENSION : fileName.endsWith(CURSOR_EXTENSION) ? CURSOR_EXTENSION : null;
+        if (extension == null) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(fileName.substring(0, fileName.length() - extension.length()));
+        } catch (NumberFormatException e) {
+            //not one of ours
+            return -1;
+        }
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        //we no longer know which files changed, so every copy has to go
+                        logger.warn("Missed changes to the state store at {}", directory);
+                        invalidateAllListeners.forEach(Runnable::run);
+                        continue;
+                    }
+
+                    long paginatorID = paginatorOf(event.context().toString());
+                    if (paginatorID != -1) {
+                        invalidationListeners.forEach(listener -> listener.accept(paginatorID));
+                    }
+                }
+                key.reset();
+            }
+        } catch (ClosedWatchServiceException | InterruptedException ignored) {
+            //the store was closed
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.state;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A {@link ComponentStateStore} that keeps every state on the heap of the current process. This is the simplest store,
+ * but any state it holds is lost when the bot restarts, and other processes cannot see it.
+ */
+public class InMemoryStateStore implements ComponentStateStore {
+
+    private final Map<Long, ComponentState> states = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(ComponentState state) {
+        states.put(state.paginatorID(), state);
+    }
+
+    @Override
+    public void updateCursor(long paginatorID, int currentPage) {
+        states.computeIfPresent(paginatorID, (id, state) -> state.withCurrentPage(currentPage));
+    }
+
+    @Override
+    public ComponentState get(long paginatorID) {
+        return states.get(paginatorID);
+    }
+
+    @Override
+    public void remove(long paginatorID) {
+        states.remove(paginatorID);
+    }
+
+    /**
+     * @return The number of paginator states that are currently stored.
+     */
+    public int size() {
+        return states.size();
+    }
+}
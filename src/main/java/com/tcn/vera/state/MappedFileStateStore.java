@@ -0,0 +1,450 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.state;
+
+import com.tcn.vera.utils.VeraUtils;
+import gnu.trove.impl.Constants;
+import gnu.trove.map.hash.TLongIntHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+/**
+ * A {@link ComponentStateStore} that appends every change to a memory mapped file. Only the location of each state is
+ * kept on the heap, so cold paginators cost a few bytes of memory each, and the state survives a restart of the bot.
+ * <p>
+ * Every record is checksummed. If the bot is killed while a record is being written, the partial record is discarded
+ * the next time the file is opened. Once more than half of the file is taken up by outdated records, the file is
+ * compacted on a background thread.
+ * <p>
+ * Changes are written to the operating system's page cache and are not forced to the disk after each write. This is
+ * enough to survive the bot being restarted or killed, but not a power loss. Only one process may use a file at a time.
+ */
+public class MappedFileStateStore implements ComponentStateStore {
+
+    private static final Logger logger = LoggerFactory.getLogger("Vera: State Store");
+
+    private static final int MAGIC = 0x56455241; //"VERA"
+    private static final int VERSION = 3;
+    private static final int HEADER_SIZE = 8;
+
+    private static final byte PUT = 1;
+    private static final byte CURSOR = 2;
+    private static final byte REMOVE = 3;
+
+    //int body length, byte type, long key, body, int crc
+    private static final int RECORD_OVERHEAD = 4 + 1 + 8 + 4;
+    private static final int INITIAL_CAPACITY = 1 << 20;
+    private static final int MIN_COMPACTION_GARBAGE = 1 << 20;
+
+    private final Path path;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(VeraUtils.createThreadFactory("VeraStateCompactor", logger));
+
+    //everything below is guarded by the lock
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private TLongIntHashMap offsets;
+    private TLongIntHashMap cursors;
+    private long liveBytes;
+    private long garbageBytes;
+    private boolean compactionQueued = false;
+    private boolean closed = false;
+
+    /**
+     * Opens the store at the given path. If the file already exists, every state that was stored in it is available again.
+     *
+     * @param path The file to keep the state in. It will be created if it does not exist.
+     * @throws IOException If the file cannot be opened or is not a Vera state file.
+     */
+    public MappedFileStateStore(Path path) throws IOException {
+        this.path = path;
+        open();
+        logger.info("Loaded {} paginator state(s) from {}", offsets.size(), path);
+    }
+
+    @Override
+    public void put(ComponentState state) {
+        byte[] body = ComponentStateCodec.encode(state);
+
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            int previous = offsets.get(state.paginatorID());
+            if (previous != -1) {
+                retire(recordSize(previous));
+            }
+            cursors.remove(state.paginatorID());
+            int offset = append(PUT, state.paginatorID(), body);
+            offsets.put(state.paginatorID(), offset);
+            liveBytes += recordSize(offset);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void updateCursor(long paginatorID, int currentPage) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            if (!offsets.containsKey(paginatorID)) {
+                return;
+            }
+            int offset = append(CURSOR, paginatorID, ByteBuffer.allocate(4).putInt(currentPage).array());
+            //only the latest cursor matters, so every cursor record is garbage as soon as compaction merges it
+            garbageBytes += recordSize(offset);
+            cursors.put(paginatorID, currentPage);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public ComponentState get(long paginatorID) {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            int offset = offsets.get(paginatorID);
+            if (offset == -1) {
+                return null;
+            }
+            ComponentState state = readState(buffer, offset);
+            int cursor = cursors.get(paginatorID);
+            return cursor == -1 ? state : state.withCurrentPage(cursor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int getCursor(long paginatorID) {
+        lock.readLock().lock();
+        try {
+            ensureOpen();
+            int offset = offsets.get(paginatorID);
+            if (offset == -1) {
+                return -1;
+            }
+            int cursor = cursors.get(paginatorID);
+            //the page is stored in front of the payload, so it can be read without decoding the rest
+            return cursor != -1 ? cursor : buffer.getInt(ComponentStateCodec.currentPageOffset(buffer, offset + 13));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(long paginatorID) {
+        lock.writeLock().lock();
+        try {
+            ensureOpen();
+            int offset = offsets.remove(paginatorID);
+            if (offset == -1) {
+                return;
+            }
+            cursors.remove(paginatorID);
+            int removeOffset = append(REMOVE, paginatorID, new byte[0]);
+            retire(recordSize(offset));
+            garbageBytes += recordSize(removeOffset);
+            maybeCompact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return The number of paginator states that are currently stored.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return offsets.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes every change to the disk and closes the file. The store cannot be used after it has been closed.
+     */
+    @Override
+    public void close() {
+        compactor.shutdown();
+        try {
+            if (!compactor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("The state store was closed while it was still compacting {}", path);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            buffer.force();
+            channel.truncate(writePosition);
+            channel.close();
+        } catch (IOException e) {
+            logger.error("Unable to close the state store at {}", path, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    //must hold the write lock
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int fileSize = (int) Math.min(channel.size(), Integer.MAX_VALUE);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(INITIAL_CAPACITY, fileSize));
+        offsets = new TLongIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1L, -1);
+        cursors = new TLongIntHashMap(Constants.DEFAULT_CAPACITY, Constants.DEFAULT_LOAD_FACTOR, -1L, -1);
+        liveBytes = 0;
+        garbageBytes = 0;
+
+        if (fileSize < HEADER_SIZE) {
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            writePosition = HEADER_SIZE;
+            return;
+        }
+
+        if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+            channel.close();
+            throw new IOException(path + " is not a Vera state file!");
+        }
+
+        //replay the log. Anything after the first broken record is the remains of an unfinished write and is discarded
+        int position = HEADER_SIZE;
+        while (position + RECORD_OVERHEAD <= fileSize) {
+            int bodyLength = buffer.getInt(position);
+            byte type = buffer.get(position + 4);
+            if (bodyLength < 0 || type < PUT || type > REMOVE || (long) position + RECORD_OVERHEAD + bodyLength > fileSize
+                    || checksum(buffer, position, bodyLength) != buffer.getInt(position + RECORD_OVERHEAD - 4 + bodyLength)) {
+                break;
+            }
+            apply(type, buffer.getLong(position + 5), position);
+            position += RECORD_OVERHEAD + bodyLength;
+        }
+
+        if (position < fileSize && buffer.getInt(position) != 0) {
+            logger.warn("Discarding {} bytes of unreadable state at the end of {}", fileSize - position, path);
+        }
+        writePosition = position;
+    }
+
+    private void apply(byte type, long key, int offset) {
+        switch (type) {
+            case PUT -> {
+                int previous = offsets.put(key, offset);
+                if (previous != -1) {
+                    retire(recordSize(previous));
+                }
+                cursors.remove(key);
+                liveBytes += recordSize(offset);
+            }
+            case CURSOR -> {
+                if (offsets.containsKey(key)) {
+                    cursors.put(key, buffer.getInt(offset + 13));
+                }
+                garbageBytes += recordSize(offset);
+            }
+            case REMOVE -> {
+                int previous = offsets.remove(key);
+                if (previous != -1) {
+                    retire(recordSize(previous));
+                }
+                cursors.remove(key);
+                garbageBytes += recordSize(offset);
+            }
+            default -> throw new IllegalStateException("Unknown record type " + type);
+        }
+    }
+
+    //must hold the write lock
+    private int append(byte type, long key, byte[] body) {
+        int size = RECORD_OVERHEAD + body.length;
+        ensureCapacity(writePosition + size);
+
+        int offset = writePosition;
+        buffer.putInt(offset, body.length);
+        buffer.put(offset + 4, type);
+        buffer.putLong(offset + 5, key);
+        buffer.put(offset + 13, body);
+        buffer.putInt(offset + 13 + body.length, checksum(buffer, offset, body.length));
+        writePosition += size;
+        return offset;
+    }
+
+    private void ensureCapacity(long required) {
+        if (required <= buffer.capacity()) {
+            return;
+        }
+        if (required > Integer.MAX_VALUE) {
+            throw new IllegalStateException("The state store at " + path + " is full!");
+        }
+
+        long newCapacity = Math.min(Integer.MAX_VALUE, Math.max(required, (long) buffer.capacity() * 2));
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to grow the state store at " + path, e);
+        }
+    }
+
+    private void retire(int recordSize) {
+        liveBytes -= recordSize;
+        garbageBytes += recordSize;
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("The state store at " + path + " has been closed!");
+        }
+    }
+
+    //must hold the write lock
+    private void maybeCompact() {
+        if (!compactionQueued && garbageBytes > MIN_COMPACTION_GARBAGE && garbageBytes > liveBytes) {
+            compactionQueued = true;
+            compactor.execute(this::compact);
+        }
+    }
+
+    private void compact() {
+        Path compactPath = path.resolveSibling(path.getFileName() + ".compact");
+
+        long[] keys;
+        int[] keyOffsets;
+        TLongIntHashMap cursorSnapshot;
+        ByteBuffer snapshot;
+        int snapshotEnd;
+        lock.readLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            keys = offsets.keys();
+            keyOffsets = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                keyOffsets[i] = offsets.get(keys[i]);
+            }
+            cursorSnapshot = new TLongIntHashMap(cursors);
+            snapshot = buffer.duplicate();
+            snapshotEnd = writePosition;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try (FileChannel compacted = FileChannel.open(compactPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            //the log is append only, so everything before the snapshot can be copied without holding the lock
+            compacted.write(ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).flip());
+            for (int i = 0; i < keys.length; i++) {
+                int size = recordSize(snapshot, keyOffsets[i]);
+                ByteBuffer record = ByteBuffer.allocate(size).put(snapshot.slice(keyOffsets[i], size)).flip();
+                int cursor = cursorSnapshot.get(keys[i]);
+                if (cursor != -1) {
+                    record.putInt(ComponentStateCodec.currentPageOffset(record, 13), cursor);
+                    record.putInt(size - 4, checksum(record, 0, size - RECORD_OVERHEAD));
+                }
+                compacted.write(record);
+            }
+
+            lock.writeLock().lock();
+            try {
+                if (closed) {
+                    return;
+                }
+                //anything written while we were copying is appended as is, and then the files are swapped
+                compacted.write(buffer.slice(snapshotEnd, writePosition - snapshotEnd));
+                compacted.force(false);
+                long before = writePosition;
+                buffer.force();
+                channel.close();
+                Files.move(compactPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                open();
+                logger.debug("Compacted the state store at {} from {} to {} bytes", path, before, writePosition);
+            } finally {
+                compactionQueued = false;
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            logger.error("Unable to compact the state store at {}", path, e);
+            lock.writeLock().lock();
+            try {
+                compactionQueued = false;
+                if (!channel.isOpen() && !closed) {
+                    open();
+                }
+            } catch (IOException reopenError) {
+                logger.error("Unable to reopen the state store at {}", path, reopenError);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private int recordSize(int offset) {
+        return recordSize(buffer, offset);
+    }
+
+    private static int recordSize(ByteBuffer source, int offset) {
+        return RECORD_OVERHEAD + source.getInt(offset);
+    }
+
+    private static int checksum(ByteBuffer source, int offset, int bodyLength) {
+        CRC32 crc = new CRC32();
+        crc.update(source.slice(offset + 4, 1 + 8 + bodyLength));
+        return (int) crc.getValue();
+    }
+
+    private static ComponentState readState(ByteBuffer source, int offset) {
+        ByteBuffer record = source.slice(offset, recordSize(source, offset));
+        return ComponentStateCodec.decode(record.getLong(5), record.position(13));
+    }
+}
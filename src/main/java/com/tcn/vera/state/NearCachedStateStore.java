@@ -0,0 +1,154 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.state;
+
+import com.tcn.vera.utils.CommandCache;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+
+/**
+ * A {@link ComponentStateStore} that keeps the most recently used states of another store in memory. Writes go straight
+ * through to the other store, and any state that another process changes is dropped from memory as soon as the other
+ * store reports it through its invalidation listener.
+ * <p>
+ * Entries also expire after they have not been used for a while, which limits how long an outdated copy can be served
+ * if the other store is unable to report a change.
+ * <blockquote><pre>
+ *     buttonHandler.setStateStore(new NearCachedStateStore(sharedStore, 10_000, Duration.ofMinutes(5)));
+ * </pre></blockquote>
+ */
+public class NearCachedStateStore implements ComponentStateStore {
+
+    private final ComponentStateStore delegate;
+    private final CommandCache<Long, ComponentState> nearCache;
+
+    //bumped on every invalidation, so a lookup that raced with one does not put an outdated copy back into memory
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    /**
+     * Creates a new near-cache in front of another store.
+     *
+     * @param delegate          The store that holds the state.
+     * @param maximumSize       The maximum number of states to keep in memory.
+     * @param expireAfterAccess How long a state may stay in memory without being used.
+     */
+    public NearCachedStateStore(ComponentStateStore delegate, int maximumSize, Duration expireAfterAccess) {
+        this.delegate = delegate;
+        this.nearCache = new CommandCache.Builder<Long, ComponentState>()
+                .setMaximumSize(maximumSize)
+                .setExpireAfterAccess(expireAfterAccess)
+                .build();
+
+        delegate.addInvalidationListener(this::invalidate);
+        delegate.addInvalidateAllListener(this::invalidateAll);
+    }
+
+    @Override
+    public void put(ComponentState state) {
+        delegate.put(state);
+        nearCache.add(state.paginatorID(), state);
+    }
+
+    @Override
+    public void updateCursor(long paginatorID, int currentPage) {
+        delegate.updateCursor(paginatorID, currentPage);
+        ComponentState cached = nearCache.get(paginatorID);
+        if (cached != null) {
+            nearCache.add(paginatorID, cached.withCurrentPage(currentPage));
+        }
+    }
+
+    @Override
+    public ComponentState get(long paginatorID) {
+        ComponentState cached = nearCache.get(paginatorID);
+        if (cached != null) {
+            return cached;
+        }
+
+        long invalidationsBefore = invalidationCount.get();
+        ComponentState state = delegate.get(paginatorID);
+        if (state != null && invalidationCount.get() == invalidationsBefore) {
+            nearCache.add(paginatorID, state);
+        }
+        return state;
+    }
+
+    @Override
+    public int getCursor(long paginatorID) {
+        ComponentState cached = nearCache.get(paginatorID);
+        return cached != null ? cached.currentPage() : delegate.getCursor(paginatorID);
+    }
+
+    @Override
+    public void remove(long paginatorID) {
+        delegate.remove(paginatorID);
+        nearCache.remove(paginatorID);
+    }
+
+    @Override
+    public void addInvalidationListener(LongConsumer listener) {
+        delegate.addInvalidationListener(listener);
+    }
+
+    @Override
+    public void addInvalidateAllListener(Runnable listener) {
+        delegate.addInvalidateAllListener(listener);
+    }
+
+    /**
+     * Drops the in-memory copy of a state, so that the next lookup reads it from the other store again.
+     *
+     * @param paginatorID The ID of the state to drop.
+     */
+    public void invalidate(long paginatorID) {
+        invalidationCount.incrementAndGet();
+        nearCache.remove(paginatorID);
+    }
+
+    /**
+     * Drops every in-memory copy, so that every lookup reads from the other store again until the copies are rebuilt.
+     */
+    public void invalidateAll() {
+        invalidationCount.incrementAndGet();
+        nearCache.clear();
+    }
+
+    /**
+     * @return The hit, miss, and eviction counters of the in-memory copy.
+     */
+    public CommandCache.Stats getStats() {
+        return nearCache.getStats();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A BK-tree that finds the keys within a given edit distance of a query, such as command names that are close to a typo.
+ * <p>
+ * Each child of a node is stored under its distance from that node, and because the edit distance is a metric, a search
+ * only has to visit the children whose distance is within the allowed distance of the query's distance to their parent.
+ * For small distances this skips almost the whole tree, so a lookup touches a handful of keys instead of all of them.
+ * <blockquote><pre>
+ *     BKTree&lt;ChatCommandTemplate&gt; names = new BKTree&lt;&gt;();
+ *     command.getAllCommandNames().forEach(name -&gt; names.add(name, command));
+ *     List&lt;BKTree.Match&lt;ChatCommandTemplate&gt;&gt; matches = names.search("hlep", 2);
+ * </pre></blockquote>
+ * The tree is not thread safe while keys are being added. Once it has been built, any number of threads may search it.
+ *
+ * @param <V> The type of the values stored with each key.
+ */
+public class BKTree<V> {
+
+    private Node<V> root = null;
+    private int size = 0;
+
+    /**
+     * A key that was found by a search, and its distance from the query.
+     *
+     * @param key      The key.
+     * @param value    The value stored with the key.
+     * @param distance The edit distance between the key and the query.
+     * @param <V>      The type of the value.
+     */
+    public record Match<V>(String key, V value, int distance) {
+    }
+
+    private static final class Node<V> {
+        private final String key;
+        private V value;
+        //only created once the node has a child, since most nodes are leaves
+        private Map<Integer, Node<V>> children = null;
+
+        private Node(String key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Adds a key to the tree. If the key is already in the tree, its value is replaced.
+     *
+     * @param key   The key.
+     * @param value The value to store with the key.
+     */
+    public void add(String key, V value) {
+        if (key == null) {
+            throw new IllegalArgumentException("Cannot add a null key to a BK-tree!");
+        }
+        if (root == null) {
+            root = new Node<>(key, value);
+            size++;
+            return;
+        }
+
+        Node<V> node = root;
+        while (true) {
+            int distance = distance(key, node.key);
+            if (distance == 0) {
+                node.value = value;
+                return;
+            }
+            if (node.children == null) {
+                node.children = new HashMap<>();
+            }
+            Node<V> child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new Node<>(key, value));
+                size++;
+                return;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * Finds every key within an edit distance of the query.
+     *
+     * @param query       The string to search for.
+     * @param maxDistance The largest number of single character insertions, deletions or substitutions that a key may
+     *                    be away from the query.
+     * @return The matching keys, closest first. Keys at the same distance are in alphabetical order.
+     */
+    public List<Match<V>> search(String query, int maxDistance) {
+        if (maxDistance < 0) {
+            throw new IllegalArgumentException("The distance to search within cannot be negative!");
+        }
+        List<Match<V>> matches = new ArrayList<>();
+        if (root == null) {
+            return matches;
+        }
+
+        Deque<Node<V>> toVisit = new ArrayDeque<>();
+        toVisit.push(root);
+        while (!toVisit.isEmpty()) {
+            Node<V> node = toVisit.pop();
+            int distance = distance(query, node.key);
+            if (distance <= maxDistance) {
+                matches.add(new Match<>(node.key, node.value, distance));
+            }
+            if (node.children != null) {
+                for (int i = Math.max(1, distance - maxDistance); i <= distance + maxDistance; i++) {
+                    Node<V> child = node.children.get(i);
+                    if (child != null) {
+                        toVisit.push(child);
+                    }
+                }
+            }
+        }
+
+        matches.sort(Comparator.<Match<V>>comparingInt(Match::distance).thenComparing(Match::key));
+        return matches;
+    }
+
+    /**
+     * @return The number of keys in the tree.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Calculates the Levenshtein distance between two strings.
+     *
+     * @param first  The first string.
+     * @param second The second string.
+     * @return The number of single character insertions, deletions or substitutions needed to turn one into the other.
+     */
+    static int distance(String first, String second) {
+        //only two rows of the table are ever needed
+        int[] previous = new int[second.length() + 1];
+        int[] current = new int[second.length() + 1];
+        for (int j = 0; j <= second.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= first.length(); i++) {
+            current[0] = i;
+            for (int j = 1; j <= second.length(); j++) {
+                int substitution = previous[j - 1] + (first.charAt(i - 1) == second.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[second.length()];
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Batches the lookups of many commands into a single call to a backend. Each command asks for the single key that it needs
+ * with {@link #load(Object)}, and the loader collects every key that is asked for within a short window. Once the window
+ * closes, or enough keys have been collected, the batch function is called once with all of them. A key that is asked
+ * for more than once in the same window is only looked up once.
+ * <blockquote><pre>
+ *     BatchLoader&lt;Long, Profile&gt; profileLoader = commandHandler.createBatchLoader(userIDs -&gt; database.getProfiles(userIDs));
+ *
+ *     //in a command
+ *     profileLoader.load(event.getUser().getIdLong()).thenAccept(profile -&gt; ...);
+ * </pre></blockquote>
+ * When commands come in one at a time, each lookup waits for at most the length of the window. When they come in bursts,
+ * hundreds of round trips become a handful of batches.
+ *
+ * @param <K> The type of the keys. Keys must implement equals and hashCode.
+ * @param <V> The type of the values.
+ */
+public class BatchLoader<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger("Vera: Batch Loader");
+
+    //closes the windows of every loader. Batches themselves run on each loader's executor
+    private static final ScheduledExecutorService WINDOW_TIMER = Executors.newSingleThreadScheduledExecutor(VeraUtils.createThreadFactory("VeraBatchTimer", logger));
+
+    private final Function<Set<K>, Map<K, V>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Executor executor;
+
+    //the keys of the window that is open right now, in the order they were first asked for
+    private Map<K, CompletableFuture<V>> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> windowTimer = null;
+
+    /**
+     * Creates a new loader that collects keys for 10 milliseconds, or until 100 keys have been collected.
+     *
+     * @param batchFunction Looks up every key in a batch at once. Keys that are missing from the map it returns are loaded as null.
+     * @param executor      The executor to call the batch function on.
+     */
+    public BatchLoader(Function<Set<K>, Map<K, V>> batchFunction, Executor executor) {
+        this(batchFunction, Duration.ofMillis(10), 100, executor);
+    }
+
+    /**
+     * Creates a new loader.
+     *
+     * @param batchFunction Looks up every key in a batch at once. Keys that are missing from the map it returns are loaded as null.
+     * @param window        How long to collect keys for after the first key of a batch was asked for.
+     * @param maxBatchSize  The most keys to collect in a batch. Once this many keys have been collected, the batch is sent straight away.
+     * @param executor      The executor to call the batch function on.
+     */
+    public BatchLoader(Function<Set<K>, Map<K, V>> batchFunction, Duration window, int maxBatchSize, Executor executor) {
+        if (window.isNegative()) {
+            throw new IllegalArgumentException("The batch window cannot be negative!");
+        }
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("A batch must be able to hold at least one key!");
+        }
+        this.batchFunction = batchFunction;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+    }
+
+    /**
+     * Loads the value of a key as part of the next batch.
+     *
+     * @param key The key to load.
+     * @return A future that completes with the value of the key, or null if the batch function did not return one. If the
+     * batch function throws, every key in its batch completes with that exception.
+     */
+    public CompletableFuture<V> load(K key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Cannot load a null key!");
+        }
+
+        Map<K, CompletableFuture<V>> batch = null;
+        CompletableFuture<V> result;
+
+        synchronized (this) {
+            result = pending.get(key);
+            if (result != null) {
+                return result;
+            }
+
+            result = new CompletableFuture<>();
+            pending.put(key, result);
+            if (pending.size() >= maxBatchSize || windowNanos == 0) {
+                batch = takePending();
+            } else if (windowTimer == null) {
+                windowTimer = WINDOW_TIMER.schedule(this::dispatch, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        if (batch != null) {
+            send(batch);
+        }
+        return result;
+    }
+
+    /**
+     * Sends the keys that have been collected so far without waiting for the window to close.
+     */
+    public void dispatch() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = takePending();
+        }
+        send(batch);
+    }
+
+    /**
+     * @return The number of keys that are waiting for their window to close.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private Map<K, CompletableFuture<V>> takePending() {
+        Map<K, CompletableFuture<V>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (windowTimer != null) {
+            windowTimer.cancel(false);
+            windowTimer = null;
+        }
+        return batch;
+    }
+
+    private void send(Map<K, CompletableFuture<V>> batch) {
+        try {
+            executor.execute(() -> runBatch(batch));
+        } catch (RuntimeException e) {
+            //the executor has been shut down
+            batch.values().forEach(future -> future.completeExceptionally(e));
+        }
+    }
+
+    private void runBatch(Map<K, CompletableFuture<V>> batch) {
+        Map<K, V> values;
+        try {
+            values = batchFunction.apply(Set.copyOf(batch.keySet()));
+        } catch (Throwable t) {
+            logger.debug("A batch of {} key(s) failed to load", batch.size(), t);
+            batch.values().forEach(future -> future.completeExceptionally(t));
+            return;
+        }
+
+        batch.forEach((key, future) -> future.complete(values == null ? null : values.get(key)));
+    }
+}
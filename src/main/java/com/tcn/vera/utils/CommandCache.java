@@ -27,51 +27,583 @@
  */
 package com.tcn.vera.utils;
 
-import java.util.HashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 
-//This class is a modified version of the one in Almighty-Alpaca/JDA-Butler
+/**
+ * A thread safe cache used by Vera to hold short-lived objects such as the callbacks of paginator buttons.
+ * <p>
+ * The cache can be bounded by size, by the time since an entry was last accessed, or both. When the size bound is hit,
+ * the least recently used entry is removed. If frequency admission is enabled, new entries first land in a small window
+ * and only push an older entry out of the cache if they have been used more often than it (a simplified W-TinyLFU policy).
+ * This keeps a burst of one-off entries from flushing out the entries that are actually being used.
+ * <p>
+ * Reads never block. Writes and removals are serialized on a single lock, and every removal caused by the size or time
+ * bound is reported to the {@link EvictionListener} after that lock is released.
+ * <p>
+ * For simple use cases, {@link #CommandCache(int)} creates a size bound LRU cache. For anything else, please use the
+ * {@link CommandCache.Builder}.
+ *
+ * @param <K> The type of the keys held by this cache.
+ * @param <V> The type of the values held by this cache.
+ */
 public class CommandCache<K, V> {
-    private final Map<K, V> map = new HashMap<>();
 
-    private final K[] keys;
+    private static final Logger logger = LoggerFactory.getLogger("Vera: Command Cache");
+
+    private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
 
-    private int currIndex = 0;
+    //both of these maps are access ordered and guarded by the eviction lock. The head of each is the next eviction candidate
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Node<K, V>> main = new LinkedHashMap<>(16, 0.75f, true);
+    private final ReentrantLock evictionLock = new ReentrantLock();
 
-    @SuppressWarnings("unchecked")
+    private final int maximumSize;
+    private final int windowSize;
+    private final long expireAfterAccessNanos;
+    private final FrequencySketch sketch;
+    private final EvictionListener<K, V> evictionListener;
+    private final LongSupplier ticker;
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    /**
+     * Creates a new least recently used cache that holds at most the given number of entries.
+     *
+     * @param size The maximum number of entries that this cache can hold.
+     */
     public CommandCache(int size) {
-        if (size < 1) {
+        this(size, 0, false, null, System::nanoTime);
+    }
+
+    private CommandCache(int maximumSize, long expireAfterAccessNanos, boolean frequencyAdmission, EvictionListener<K, V> evictionListener, LongSupplier ticker) {
+        if (maximumSize < 1) {
             throw new IllegalArgumentException("Cache size must be at least 1 in size!");
+        }
+
+        this.maximumSize = maximumSize;
+        this.expireAfterAccessNanos = expireAfterAccessNanos;
+        this.evictionListener = evictionListener;
+        this.ticker = ticker;
+
+        if (frequencyAdmission) {
+            //one percent of the cache is used as an admission window, the rest is protected by the frequency filter
+            this.windowSize = Math.max(1, maximumSize / 100);
+            this.sketch = new FrequencySketch(maximumSize);
         } else {
-            this.keys = (K[]) new Object[size];
+            this.windowSize = maximumSize;
+            this.sketch = null;
         }
     }
 
+    /**
+     * Searches the cache for the first key that matches the given predicate. This requires a scan over the entire cache,
+     * so please use {@link #get(Object)} whenever the exact key is known.
+     *
+     * @param toFind The predicate that the key must match.
+     * @return The value of the first matching entry, or null if there is none.
+     */
     public V find(Predicate<K> toFind) {
-        return map.entrySet()
-                .stream()
-                .filter(it -> toFind.test(it.getKey()))
-                .map(Map.Entry::getValue)
-                .findFirst()
-                .orElse(null);
+        long now = ticker.getAsLong();
+        for (Node<K, V> node : map.values()) {
+            if (!isExpired(node, now) && toFind.test(node.key)) {
+                return onHit(node, now);
+            }
+        }
+        missCount.increment();
+        return null;
     }
 
+    /**
+     * Adds an entry to the cache. If an entry with the same key already exists, it is replaced. If this causes the cache to
+     * grow past its maximum size, an older entry will be evicted.
+     *
+     * @param key   The key of the entry.
+     * @param value The value of the entry.
+     */
     public void add(K key, V value) {
-        if (keys[currIndex] != null) {
-            map.remove(keys[currIndex]);
+        long now = ticker.getAsLong();
+        Node<K, V> node = new Node<>(key, value, now);
+        List<Node<K, V>> removed = new ArrayList<>();
+
+        evictionLock.lock();
+        try {
+            Node<K, V> old = map.put(key, node);
+            if (old != null) {
+                unlink(old);
+                old.cause = RemovalCause.REPLACED;
+                removed.add(old);
+            }
+
+            window.put(key, node);
+            node.inWindow = true;
+            if (sketch != null) {
+                sketch.increment(key);
+            }
+
+            expireEntries(now, removed, false);
+            evictEntries(removed);
+        } finally {
+            evictionLock.unlock();
         }
-        map.put(key, value);
-        keys[currIndex] = key;
-        currIndex = (currIndex + 1) % keys.length;
+
+        notifyListener(removed);
     }
 
+    /**
+     * Checks if the cache contains a live entry for the given key. This does not count as an access of the entry.
+     *
+     * @param key The key to check.
+     * @return True if there is an entry for the key that has not expired.
+     */
     public boolean contains(K key) {
-        return map.containsKey(key);
+        Node<K, V> node = map.get(key);
+        return node != null && !isExpired(node, ticker.getAsLong());
     }
 
+    /**
+     * Gets the value stored under the given key and marks the entry as recently used.
+     *
+     * @param key The key of the entry.
+     * @return The value of the entry, or null if there is no live entry for the key.
+     */
     public V get(K key) {
-        return map.get(key);
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            missCount.increment();
+            return null;
+        }
+
+        long now = ticker.getAsLong();
+        if (isExpired(node, now)) {
+            missCount.increment();
+            removeNode(node, RemovalCause.EXPIRED);
+            return null;
+        }
+
+        return onHit(node, now);
+    }
+
+    /**
+     * Removes the entry stored under the given key. The eviction listener is informed with {@link RemovalCause#EXPLICIT}.
+     *
+     * @param key The key of the entry to remove.
+     * @return The value that was removed, or null if there was no entry for the key.
+     */
+    public V remove(K key) {
+        Node<K, V> node = map.get(key);
+        if (node == null) {
+            return null;
+        }
+        return removeNode(node, RemovalCause.EXPLICIT) ? node.value : null;
+    }
+
+    /**
+     * Removes every expired entry from the cache. Expired entries are normally removed as the cache is used, so this only
+     * needs to be called if you need eviction listeners to fire while the cache is otherwise idle.
+     */
+    public void cleanUp() {
+        List<Node<K, V>> removed = new ArrayList<>();
+        evictionLock.lock();
+        try {
+            expireEntries(ticker.getAsLong(), removed, true);
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyListener(removed);
+    }
+
+    /**
+     * Removes every entry from the cache. The eviction listener is informed of each entry with {@link RemovalCause#EXPLICIT}.
+     */
+    public void clear() {
+        List<Node<K, V>> removed = new ArrayList<>();
+        evictionLock.lock();
+        try {
+            for (Node<K, V> node : map.values()) {
+                if (map.remove(node.key, node)) {
+                    unlink(node);
+                    node.cause = RemovalCause.EXPLICIT;
+                    removed.add(node);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        notifyListener(removed);
+    }
+
+    /**
+     * @return The number of entries currently held by this cache, including any that have expired but not yet been removed.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * @return A snapshot of the hit, miss, and eviction counters of this cache.
+     */
+    public Stats getStats() {
+        return new Stats(hitCount.sum(), missCount.sum(), evictionCount.sum());
+    }
+
+    private V onHit(Node<K, V> node, long now) {
+        hitCount.increment();
+        node.accessTime = now;
+
+        //reordering is best effort. If someone else is holding the lock, we skip it rather than making a reader wait
+        if (evictionLock.tryLock()) {
+            try {
+                if (map.get(node.key) == node) {
+                    (node.inWindow ? window : main).get(node.key);
+                    if (sketch != null) {
+                        sketch.increment(node.key);
+                    }
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return node.value;
+    }
+
+    private boolean removeNode(Node<K, V> node, RemovalCause cause) {
+        boolean wasRemoved;
+        evictionLock.lock();
+        try {
+            wasRemoved = map.remove(node.key, node);
+            if (wasRemoved) {
+                unlink(node);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+
+        if (wasRemoved) {
+            node.cause = cause;
+            notifyListener(List.of(node));
+        }
+        return wasRemoved;
+    }
+
+    private boolean isExpired(Node<K, V> node, long now) {
+        return expireAfterAccessNanos > 0 && now - node.accessTime >= expireAfterAccessNanos;
+    }
+
+    //must hold the eviction lock
+    private void unlink(Node<K, V> node) {
+        if (node.inWindow) {
+            window.remove(node.key);
+        } else {
+            main.remove(node.key);
+        }
+    }
+
+    //must hold the eviction lock. A full scan is only needed when reads were unable to reorder the entries
+    private void expireEntries(long now, List<Node<K, V>> removed, boolean fullScan) {
+        if (expireAfterAccessNanos <= 0) {
+            return;
+        }
+        expireEntries(window, now, removed, fullScan);
+        expireEntries(main, now, removed, fullScan);
+    }
+
+    private void expireEntries(LinkedHashMap<K, Node<K, V>> queue, long now, List<Node<K, V>> removed, boolean fullScan) {
+        Iterator<Node<K, V>> iterator = queue.values().iterator();
+        while (iterator.hasNext()) {
+            Node<K, V> node = iterator.next();
+            if (!isExpired(node, now)) {
+                if (fullScan) {
+                    continue;
+                }
+                return;
+            }
+            iterator.remove();
+            map.remove(node.key, node);
+            node.cause = RemovalCause.EXPIRED;
+            removed.add(node);
+        }
+    }
+
+    //must hold the eviction lock
+    private void evictEntries(List<Node<K, V>> removed) {
+        while (window.size() > windowSize) {
+            Node<K, V> candidate = pollFirst(window);
+            candidate.inWindow = false;
+
+            if (main.size() < maximumSize - windowSize) {
+                main.put(candidate.key, candidate);
+                continue;
+            }
+
+            Map.Entry<K, Node<K, V>> victimEntry = main.isEmpty() ? null : main.entrySet().iterator().next();
+            if (victimEntry != null && sketch.frequency(candidate.key) > sketch.frequency(victimEntry.getKey())) {
+                Node<K, V> victim = pollFirst(main);
+                evict(victim, removed);
+                main.put(candidate.key, candidate);
+            } else {
+                evict(candidate, removed);
+            }
+        }
+    }
+
+    private void evict(Node<K, V> node, List<Node<K, V>> removed) {
+        map.remove(node.key, node);
+        node.cause = RemovalCause.SIZE;
+        removed.add(node);
+    }
+
+    private Node<K, V> pollFirst(LinkedHashMap<K, Node<K, V>> queue) {
+        Iterator<Node<K, V>> iterator = queue.values().iterator();
+        Node<K, V> first = iterator.next();
+        iterator.remove();
+        return first;
     }
 
+    private void notifyListener(List<Node<K, V>> removed) {
+        for (Node<K, V> node : removed) {
+            if (node.cause.wasEvicted()) {
+                evictionCount.increment();
+            }
+            if (evictionListener == null) {
+                continue;
+            }
+            try {
+                evictionListener.onRemoval(node.key, node.value, node.cause);
+            } catch (Exception e) {
+                logger.error("An eviction listener threw an exception while removing the key {}", node.key, e);
+            }
+        }
+    }
+
+    /**
+     * The reason that an entry was removed from a {@link CommandCache}.
+     */
+    public enum RemovalCause {
+        /**
+         * The entry was removed via {@link CommandCache#remove(Object)}.
+         */
+        EXPLICIT,
+        /**
+         * The entry was replaced by another entry with the same key.
+         */
+        REPLACED,
+        /**
+         * The entry was evicted because the cache grew past its maximum size.
+         */
+        SIZE,
+        /**
+         * The entry was not accessed within the expire-after-access duration.
+         */
+        EXPIRED;
+
+        /**
+         * @return True if the entry was removed automatically by the cache rather than by the user.
+         */
+        public boolean wasEvicted() {
+            return this == SIZE || this == EXPIRED;
+        }
+    }
+
+    /**
+     * A listener that is called whenever an entry leaves a {@link CommandCache}. Listeners are called on the thread that caused
+     * the removal, so they should not perform any long-running work.
+     *
+     * @param <K> The type of the keys held by the cache.
+     * @param <V> The type of the values held by the cache.
+     */
+    @FunctionalInterface
+    public interface EvictionListener<K, V> {
+        void onRemoval(K key, V value, RemovalCause cause);
+    }
+
+    /**
+     * A snapshot of the counters of a {@link CommandCache}.
+     *
+     * @param hitCount      The number of lookups that found a live entry.
+     * @param missCount     The number of lookups that did not find a live entry.
+     * @param evictionCount The number of entries that were removed because of the size or time bounds.
+     */
+    public record Stats(long hitCount, long missCount, long evictionCount) {
+
+        /**
+         * @return The ratio of lookups that were hits, or 1.0 if there have been no lookups yet.
+         */
+        public double hitRate() {
+            long total = hitCount + missCount;
+            return total == 0 ? 1.0 : (double) hitCount / total;
+        }
+    }
+
+    private static final class Node<K, V> {
+        final K key;
+        final V value;
+        volatile long accessTime;
+
+        //guarded by the eviction lock
+        boolean inWindow;
+        RemovalCause cause;
+
+        Node(K key, V value, long accessTime) {
+            this.key = key;
+            this.value = value;
+            this.accessTime = accessTime;
+        }
+    }
+
+    /**
+     * A count-min sketch of how often keys have been used. Every counter is capped at 15 and all counters are halved once
+     * enough increments have been recorded, so old popularity fades away over time. Only accessed under the eviction lock.
+     */
+    private static final class FrequencySketch {
+        private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+        private static final int MAX_COUNT = 15;
+
+        private final int[] table;
+        private final int mask;
+        private final int sampleSize;
+        private int additions = 0;
+
+        FrequencySketch(int maximumSize) {
+            int width = Integer.highestOneBit(Math.max(16, Math.min(maximumSize, 1 << 20)) - 1) << 1;
+            this.table = new int[width];
+            this.mask = width - 1;
+            this.sampleSize = (int) Math.min(10L * maximumSize, Integer.MAX_VALUE);
+        }
+
+        void increment(Object key) {
+            int hash = key.hashCode();
+            boolean added = false;
+            for (int seed : SEEDS) {
+                int index = indexOf(hash, seed);
+                if (table[index] < MAX_COUNT) {
+                    table[index]++;
+                    added = true;
+                }
+            }
+
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] >>>= 1;
+                }
+                additions /= 2;
+            }
+        }
+
+        int frequency(Object key) {
+            int hash = key.hashCode();
+            int frequency = MAX_COUNT;
+            for (int seed : SEEDS) {
+                frequency = Math.min(frequency, table[indexOf(hash, seed)]);
+            }
+            return frequency;
+        }
+
+        private int indexOf(int hash, int seed) {
+            int h = hash * seed;
+            h ^= h >>> 17;
+            return h & mask;
+        }
+    }
+
+    /**
+     * A builder used to create a {@link CommandCache} with more options than {@link CommandCache#CommandCache(int)} offers.
+     * <blockquote><pre>
+     *     CommandCache&lt;String, Object&gt; cache = new CommandCache.Builder&lt;String, Object&gt;()
+     *                 .setMaximumSize(500)
+     *                 .setExpireAfterAccess(Duration.ofMinutes(15))
+     *                 .setEvictionListener((key, value, cause) -&gt; System.out.println(key + " was removed"))
+     *                 .build();
+     * </pre></blockquote>
+     *
+     * @param <K> The type of the keys held by the cache.
+     * @param <V> The type of the values held by the cache.
+     */
+    public static class Builder<K, V> {
+        private int maximumSize = Integer.MAX_VALUE;
+        private long expireAfterAccessNanos = 0;
+        private boolean frequencyAdmission = false;
+        private EvictionListener<K, V> evictionListener = null;
+        private LongSupplier ticker = System::nanoTime;
+
+        public CommandCache<K, V> build() {
+            return new CommandCache<>(maximumSize, expireAfterAccessNanos, frequencyAdmission, evictionListener, ticker);
+        }
+
+        /**
+         * Sets the maximum number of entries that the cache may hold. By default, the cache is not bounded by size.
+         *
+         * @param maximumSize The maximum number of entries. Must be at least 1.
+         * @return This builder.
+         */
+        public Builder<K, V> setMaximumSize(int maximumSize) {
+            if (maximumSize < 1) {
+                throw new IllegalArgumentException("Cache size must be at least 1 in size!");
+            }
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Sets how long an entry may go without being read or written before it is removed from the cache. By default,
+         * entries never expire.
+         *
+         * @param duration The idle time after which an entry expires. A zero duration disables expiry.
+         * @return This builder.
+         */
+        public Builder<K, V> setExpireAfterAccess(Duration duration) {
+            if (duration.isNegative()) {
+                throw new IllegalArgumentException("The expiry duration cannot be negative!");
+            }
+            this.expireAfterAccessNanos = duration.toNanos();
+            return this;
+        }
+
+        /**
+         * Determines if the cache should only let new entries push out older ones if they have been used more often. This
+         * is only useful for size bound caches where some entries are much more popular than others. Leave it disabled when
+         * the newest entry is the one most likely to be used next, such as the buttons of a freshly sent menu, since a new
+         * entry may then be dropped in favour of an older one.
+         * <p>
+         * Default value: false
+         *
+         * @param enable True to enable frequency aware admission.
+         * @return This builder.
+         */
+        public Builder<K, V> enableFrequencyAdmission(boolean enable) {
+            this.frequencyAdmission = enable;
+            return this;
+        }
+
+        /**
+         * Sets the listener that is called whenever an entry leaves the cache, no matter the reason.
+         *
+         * @param evictionListener The listener to call.
+         * @return This builder.
+         */
+        public Builder<K, V> setEvictionListener(EvictionListener<K, V> evictionListener) {
+            this.evictionListener = evictionListener;
+            return this;
+        }
+
+        //only used by tests that need to control time
+        Builder<K, V> setTicker(LongSupplier ticker) {
+            this.ticker = ticker;
+            return this;
+        }
+    }
 }
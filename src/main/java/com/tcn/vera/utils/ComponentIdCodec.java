@@ -0,0 +1,180 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * Encodes the state of a stateless component into its custom ID and signs it, so that the state can be trusted when
+ * the component is used again. Discord limits custom IDs to 100 characters, so every number is written in base 36 and
+ * the signature is a truncated HMAC-SHA256.
+ * <p>
+ * An encoded ID has the following layout:
+ * <pre>v~:providerID:dataKey:page:ownerID:flags:action:signature</pre>
+ * Every process that should be able to handle the same components must use the same key.
+ */
+public class ComponentIdCodec {
+
+    /**
+     * Every ID created by this class starts with this prefix.
+     */
+    public static final String PREFIX = "v~:";
+
+    /**
+     * The maximum length of a component custom ID as set by Discord.
+     */
+    public static final int MAX_ID_LENGTH = 100;
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int SIGNATURE_BYTES = 8;
+    private static final int UNSIGNED_FIELD_COUNT = 6;
+
+    private final ThreadLocal<Mac> mac;
+
+    /**
+     * Creates a codec that signs IDs with the given key.
+     *
+     * @param key The secret used to sign IDs. It should be at least 32 bytes long and must be kept secret.
+     */
+    public ComponentIdCodec(byte[] key) {
+        if (key == null || key.length == 0) {
+            throw new IllegalArgumentException("A component ID signing key cannot be empty!");
+        }
+        SecretKeySpec keySpec = new SecretKeySpec(Arrays.copyOf(key, key.length), ALGORITHM);
+
+        //a Mac is not thread safe, but creating one for every click is wasteful, so each thread gets its own
+        this.mac = ThreadLocal.withInitial(() -> {
+            try {
+                Mac instance = Mac.getInstance(ALGORITHM);
+                instance.init(keySpec);
+                return instance;
+            } catch (GeneralSecurityException e) {
+                //every java runtime is required to support HmacSHA256, so this should never happen
+                throw new IllegalStateException("Unable to create a component ID signer", e);
+            }
+        });
+    }
+
+    /**
+     * Creates a codec with a random key. IDs created by this codec can only be read by the same instance, so they will
+     * stop working if the bot restarts.
+     *
+     * @return A new codec with a random 32 byte key.
+     */
+    public static ComponentIdCodec withRandomKey() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return new ComponentIdCodec(key);
+    }
+
+    /**
+     * Encodes and signs the given component state.
+     *
+     * @param id The state to encode.
+     * @return A custom ID that is at most 100 characters long.
+     * @throws IllegalArgumentException If any field contains a colon, or the encoded ID would be longer than 100 characters.
+     */
+    public String encode(StatelessComponentId id) {
+        checkField(id.providerID(), "provider ID");
+        checkField(id.dataKey(), "data key");
+        checkField(id.action(), "action");
+
+        String unsigned = PREFIX + id.providerID() + ":" + id.dataKey() + ":" + Integer.toString(id.page(), 36) + ":"
+                + Long.toString(id.ownerID(), 36) + ":" + Integer.toString(id.flags(), 36) + ":" + id.action();
+        String encoded = unsigned + ":" + sign(unsigned);
+
+        if (encoded.length() > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException("The encoded component ID is " + encoded.length() + " characters long, but Discord only allows "
+                    + MAX_ID_LENGTH + ". Please use a shorter provider ID or data key.");
+        }
+        return encoded;
+    }
+
+    /**
+     * Checks the signature of a custom ID and decodes it.
+     *
+     * @param customID The custom ID of the component that was used.
+     * @return The decoded state, or null if the ID was not created by a codec with this key or has been tampered with.
+     */
+    public StatelessComponentId decode(String customID) {
+        if (customID == null || !customID.startsWith(PREFIX)) {
+            return null;
+        }
+
+        int signatureStart = customID.lastIndexOf(':');
+        String unsigned = customID.substring(0, signatureStart);
+        byte[] expected = sign(unsigned).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = customID.substring(signatureStart + 1).getBytes(StandardCharsets.US_ASCII);
+        if (!MessageDigest.isEqual(expected, actual)) {
+            return null;
+        }
+
+        String[] fields = unsigned.substring(PREFIX.length()).split(":", -1);
+        if (fields.length != UNSIGNED_FIELD_COUNT) {
+            return null;
+        }
+
+        try {
+            return new StatelessComponentId(fields[0], fields[1], Integer.parseInt(fields[2], 36),
+                    Long.parseLong(fields[3], 36), Integer.parseInt(fields[4], 36), fields[5]);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private String sign(String unsigned) {
+        byte[] digest = mac.get().doFinal(unsigned.getBytes(StandardCharsets.UTF_8));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, SIGNATURE_BYTES));
+    }
+
+    private static void checkField(String field, String name) {
+        if (field == null || field.isEmpty() || field.indexOf(':') != -1) {
+            throw new IllegalArgumentException("The " + name + " of a stateless component cannot be empty or contain a colon!");
+        }
+    }
+
+    /**
+     * The state that is stored inside the custom ID of a stateless component.
+     *
+     * @param providerID The ID of the provider that knows how to render the component's content.
+     * @param dataKey    A short key that the provider uses to find the content, for example a guild ID or a search term.
+     * @param page       The page that was shown when the component was created.
+     * @param ownerID    The ID of the discord user who is allowed to use the component.
+     * @param flags      Any additional options that the component needs to remember.
+     * @param action     The name of the action that the component triggers.
+     */
+    public record StatelessComponentId(String providerID, String dataKey, int page, long ownerID, int flags, String action) {
+    }
+}
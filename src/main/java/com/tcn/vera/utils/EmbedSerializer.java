@@ -0,0 +1,108 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.utils.data.DataArray;
+import net.dv8tion.jda.api.utils.data.DataObject;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts {@link MessageEmbed} objects to and from the JSON format that Discord uses. This is used by Vera to store
+ * the pages of a paginator outside the heap so that they can be restored later.
+ */
+public class EmbedSerializer {
+
+    private EmbedSerializer() {
+        throw new IllegalStateException("This is a utility class! Don't try to make a object out of it!");
+    }
+
+    /**
+     * Serializes a list of embeds into a JSON array.
+     *
+     * @param embeds The embeds to serialize.
+     * @return The UTF-8 encoded JSON array.
+     */
+    public static byte[] toJson(List<MessageEmbed> embeds) {
+        DataArray array = DataArray.empty();
+        embeds.forEach(embed -> array.add(embed.toData()));
+        return array.toJson();
+    }
+
+    /**
+     * Deserializes a JSON array created by {@link #toJson(List)}.
+     *
+     * @param json The UTF-8 encoded JSON array.
+     * @return The embeds in the same order that they were serialized.
+     */
+    public static ArrayList<MessageEmbed> fromJson(byte[] json) {
+        DataArray array = DataArray.fromJson(new String(json, StandardCharsets.UTF_8));
+        ArrayList<MessageEmbed> embeds = new ArrayList<>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            embeds.add(fromData(array.getObject(i)));
+        }
+        return embeds;
+    }
+
+    /**
+     * Rebuilds an embed from the data returned by {@link MessageEmbed#toData()}.
+     *
+     * @param data The serialized embed.
+     * @return A new embed with the same content.
+     */
+    public static MessageEmbed fromData(DataObject data) {
+        EmbedBuilder builder = new EmbedBuilder()
+                .setTitle(data.getString("title", null), data.getString("url", null))
+                .setDescription(data.getString("description", null));
+
+        if (data.hasKey("color")) {
+            builder.setColor(data.getInt("color"));
+        }
+        if (data.hasKey("timestamp")) {
+            builder.setTimestamp(OffsetDateTime.parse(data.getString("timestamp")));
+        }
+        data.optObject("footer").ifPresent(footer -> builder.setFooter(footer.getString("text", null), footer.getString("icon_url", null)));
+        data.optObject("image").ifPresent(image -> builder.setImage(image.getString("url", null)));
+        data.optObject("thumbnail").ifPresent(thumbnail -> builder.setThumbnail(thumbnail.getString("url", null)));
+        data.optObject("author").ifPresent(author -> builder.setAuthor(author.getString("name", null),
+                author.getString("url", null), author.getString("icon_url", null)));
+        data.optArray("fields").ifPresent(fields -> {
+            for (int i = 0; i < fields.length(); i++) {
+                DataObject field = fields.getObject(i);
+                builder.addField(field.getString("name", ""), field.getString("value", ""), field.getBoolean("inline", false));
+            }
+        });
+
+        return builder.build();
+    }
+}
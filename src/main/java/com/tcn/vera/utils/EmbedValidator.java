@@ -0,0 +1,106 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks embeds against the limits that Discord places on them, so that an embed that is too large is caught before
+ * the request to send it is made. {@link net.dv8tion.jda.api.EmbedBuilder} already checks most of these limits, but
+ * embeds can also be created in other ways, such as from saved data, and the total length is easy to exceed by accident.
+ */
+public class EmbedValidator {
+
+    /**
+     * The maximum number of fields that an embed may have.
+     */
+    public static final int MAX_FIELDS = 25;
+
+    private EmbedValidator() {
+        throw new IllegalStateException("This is a utility class! Don't try to make a object out of it!");
+    }
+
+    /**
+     * Finds every reason why Discord would reject an embed.
+     *
+     * @param embed The embed to check.
+     * @return A description of each limit that the embed exceeds. Empty if the embed is valid.
+     */
+    public static List<String> findProblems(MessageEmbed embed) {
+        List<String> problems = new ArrayList<>();
+        if (embed.isEmpty()) {
+            problems.add("the embed is empty");
+        }
+        checkLength(problems, "title", embed.getTitle(), MessageEmbed.TITLE_MAX_LENGTH);
+        checkLength(problems, "description", embed.getDescription(), MessageEmbed.DESCRIPTION_MAX_LENGTH);
+        if (embed.getAuthor() != null) {
+            checkLength(problems, "author name", embed.getAuthor().getName(), MessageEmbed.AUTHOR_MAX_LENGTH);
+        }
+        if (embed.getFooter() != null) {
+            checkLength(problems, "footer", embed.getFooter().getText(), MessageEmbed.TEXT_MAX_LENGTH);
+        }
+
+        List<MessageEmbed.Field> fields = embed.getFields();
+        if (fields.size() > MAX_FIELDS) {
+            problems.add("it has " + fields.size() + " fields, but may only have " + MAX_FIELDS);
+        }
+        for (int i = 0; i < fields.size(); i++) {
+            checkLength(problems, "name of field " + (i + 1), fields.get(i).getName(), MessageEmbed.TITLE_MAX_LENGTH);
+            checkLength(problems, "value of field " + (i + 1), fields.get(i).getValue(), MessageEmbed.VALUE_MAX_LENGTH);
+        }
+
+        if (embed.getLength() > MessageEmbed.EMBED_MAX_LENGTH_BOT) {
+            problems.add("it is " + embed.getLength() + " characters long in total, but may only be " + MessageEmbed.EMBED_MAX_LENGTH_BOT);
+        }
+        return problems;
+    }
+
+    /**
+     * Checks that Discord would accept an embed.
+     *
+     * @param embed The embed to check.
+     * @return The same embed, so that this method can be used inline.
+     * @throws IllegalArgumentException If the embed exceeds any of Discord's limits.
+     */
+    public static MessageEmbed validate(MessageEmbed embed) {
+        List<String> problems = findProblems(embed);
+        if (!problems.isEmpty()) {
+            throw new IllegalArgumentException("Discord would reject this embed because " + String.join(", ", problems) + "!");
+        }
+        return embed;
+    }
+
+    private static void checkLength(List<String> problems, String name, String value, int maxLength) {
+        if (value != null && value.length() > maxLength) {
+            problems.add("the " + name + " is " + value.length() + " characters long, but may only be " + maxLength);
+        }
+    }
+}
@@ -0,0 +1,310 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
+import net.dv8tion.jda.api.interactions.InteractionHook;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Sends edits to messages so that each message only ever has one edit in flight. Every edit costs a request in the same
+ * rate limit bucket, so a menu or progress message that is edited in quick succession can easily run into a 429.
+ * <p>
+ * While an edit to a message is in flight, newer edits to it are queued, and each edit that is queued replaces the one
+ * that was queued before it. Once the edit in flight is done, only the newest content is sent. Edits that would not
+ * change what the message already shows are skipped.
+ * <blockquote><pre>
+ *     MessageEditQueue editQueue = new MessageEditQueue();
+ *     for (Step step : steps) {
+ *         step.run();
+ *         editQueue.editOriginal(event.getHook(), MessageEditData.fromContent("Finished " + step.getName()));
+ *     }
+ * </pre></blockquote>
+ * The queue only knows about edits that it sent itself. If a message may have been edited some other way, call
+ * {@link #forget(long)} so that the next edit to it is not skipped.
+ */
+public class MessageEditQueue {
+
+    private final Map<Object, Slot> slots = new HashMap<>();
+    //what each message showed after its last edit, used to skip edits that would not change it
+    private final CommandCache<Object, String> lastSent;
+    //null if edits are sent straight away
+    private final OutboundScheduler scheduler;
+
+    private static class Slot {
+        private String inFlight;
+        private CompletableFuture<Message> inFlightResult;
+        private Edit queued = null;
+    }
+
+    private static class Edit {
+        private final MessageEditData content;
+        private final String fingerprint;
+        private final Function<MessageEditData, ? extends RestAction<Message>> sender;
+        private final CompletableFuture<Message> result;
+        //raised if this edit replaces a more urgent one, since it is now the one that the user is waiting on
+        private OutboundScheduler.Priority priority;
+
+        private Edit(MessageEditData content, Function<MessageEditData, ? extends RestAction<Message>> sender, OutboundScheduler.Priority priority, CompletableFuture<Message> result) {
+            this.content = content;
+            this.priority = priority;
+            //files are not part of the data, so edits with files are never treated as the same
+            this.fingerprint = content.getFiles().isEmpty() ? content.toData().toString() : null;
+            this.sender = sender;
+            this.result = result;
+        }
+    }
+
+    /**
+     * Creates a new queue that remembers the content of the last 1000 messages it edited.
+     */
+    public MessageEditQueue() {
+        this(1000);
+    }
+
+    /**
+     * Creates a new queue.
+     *
+     * @param rememberedMessages The number of messages whose last content is remembered, so that edits that would not
+     *                           change them can be skipped.
+     */
+    public MessageEditQueue(int rememberedMessages) {
+        this(rememberedMessages, null);
+    }
+
+    /**
+     * Creates a new queue that sends its edits through an {@link OutboundScheduler}. Edits sent this way may be dropped
+     * by the scheduler if it is saturated, in which case their futures fail and the next edit is sent as usual.
+     *
+     * Edits that the user is waiting on can be sent with {@link OutboundScheduler.Priority#MESSAGE}, which the scheduler
+     * never drops.
+     *
+     * @param rememberedMessages The number of messages whose last content is remembered, so that edits that would not
+     *                           change them can be skipped.
+     * @param scheduler The scheduler to send the edits through.
+     */
+    public MessageEditQueue(int rememberedMessages, OutboundScheduler scheduler) {
+        this.lastSent = new CommandCache<>(rememberedMessages);
+        this.scheduler = scheduler;
+    }
+
+    /**
+     * Edits a message in a channel.
+     *
+     * @param channel The channel that the message is in.
+     * @param messageID The ID of the message.
+     * @param content The new content of the message.
+     * @return A future that completes with the edited message once the edit, or a newer edit that replaced it, is done.
+     * It completes with null if the edit was skipped because the message already shows this content.
+     */
+    public CompletableFuture<Message> edit(MessageChannel channel, long messageID, MessageEditData content) {
+        return edit(channel, messageID, content, OutboundScheduler.Priority.EDIT);
+    }
+
+    /**
+     * Edits a message in a channel with a specific priority.
+     *
+     * @param channel The channel that the message is in.
+     * @param messageID The ID of the message.
+     * @param content The new content of the message.
+     * @param priority The priority that the edit is sent with, if this queue sends its edits through an {@link OutboundScheduler}.
+     * @return A future that completes with the edited message once the edit, or a newer edit that replaced it, is done.
+     * It completes with null if the edit was skipped because the message already shows this content.
+     */
+    public CompletableFuture<Message> edit(MessageChannel channel, long messageID, MessageEditData content, OutboundScheduler.Priority priority) {
+        return edit(messageID, content, data -> channel.editMessageById(messageID, data), priority);
+    }
+
+    /**
+     * Edits the original response to an interaction.
+     *
+     * @param hook The hook of the interaction.
+     * @param content The new content of the response.
+     * @return A future that completes with the edited message once the edit, or a newer edit that replaced it, is done.
+     * It completes with null if the edit was skipped because the message already shows this content.
+     */
+    public CompletableFuture<Message> editOriginal(InteractionHook hook, MessageEditData content) {
+        return editOriginal(hook, content, OutboundScheduler.Priority.EDIT);
+    }
+
+    /**
+     * Edits the original response to an interaction with a specific priority.
+     *
+     * @param hook The hook of the interaction.
+     * @param content The new content of the response.
+     * @param priority The priority that the edit is sent with, if this queue sends its edits through an {@link OutboundScheduler}.
+     * @return A future that completes with the edited message once the edit, or a newer edit that replaced it, is done.
+     * It completes with null if the edit was skipped because the message already shows this content.
+     */
+    public CompletableFuture<Message> editOriginal(InteractionHook hook, MessageEditData content, OutboundScheduler.Priority priority) {
+        //the interaction ID stands in for the ID of the response, which we may not know yet
+        return edit(hook.getInteraction().getIdLong(), content, hook::editOriginal, priority);
+    }
+
+    /**
+     * Edits a message in any other way, such as through a webhook.
+     *
+     * @param messageKey A key that identifies the message. Edits with the same key are queued behind each other.
+     * @param content The new content of the message.
+     * @param sender Creates the request that sends the edit.
+     * @return A future that completes with the edited message once the edit, or a newer edit that replaced it, is done.
+     * It completes with null if the edit was skipped because the message already shows this content.
+     */
+    public CompletableFuture<Message> edit(Object messageKey, MessageEditData content, Function<MessageEditData, ? extends RestAction<Message>> sender) {
+        return edit(messageKey, content, sender, OutboundScheduler.Priority.EDIT);
+    }
+
+    /**
+     * Edits a message in any other way, such as through a webhook, with a specific priority.
+     *
+     * @param messageKey A key that identifies the message. Edits with the same key are queued behind each other.
+     * @param content The new content of the message.
+     * @param sender Creates the request that sends the edit.
+     * @param priority The priority that the edit is sent with, if this queue sends its edits through an {@link OutboundScheduler}.
+     * @return A future that completes with the edited message once the edit, or a newer edit that replaced it, is done.
+     * It completes with null if the edit was skipped because the message already shows this content.
+     */
+    public CompletableFuture<Message> edit(Object messageKey, MessageEditData content, Function<MessageEditData, ? extends RestAction<Message>> sender, OutboundScheduler.Priority priority) {
+        Edit edit = new Edit(content, sender, priority, new CompletableFuture<>());
+        synchronized (this) {
+            Slot slot = slots.get(messageKey);
+            if (slot == null) {
+                if (edit.fingerprint != null && edit.fingerprint.equals(lastSent.get(messageKey))) {
+                    return CompletableFuture.completedFuture(null);
+                }
+                slot = new Slot();
+                slot.inFlight = edit.fingerprint;
+                slot.inFlightResult = edit.result;
+                slots.put(messageKey, slot);
+            } else {
+                Edit replaced = slot.queued;
+                if (edit.fingerprint != null && edit.fingerprint.equals(slot.inFlight)) {
+                    //the message is about to show this anyway, so anything queued before it is out of date
+                    slot.queued = null;
+                    if (replaced != null) {
+                        replaced.content.close();
+                        slot.inFlightResult.whenComplete((message, error) -> complete(replaced, message, error));
+                    }
+                    return slot.inFlightResult;
+                }
+
+                slot.queued = edit;
+                if (replaced != null) {
+                    //last write wins. Whoever queued the old content is told about the edit that replaced it
+                    if (replaced.priority.compareTo(edit.priority) < 0) {
+                        edit.priority = replaced.priority;
+                    }
+                    replaced.content.close();
+                    edit.result.whenComplete((message, error) -> complete(replaced, message, error));
+                }
+                return edit.result;
+            }
+        }
+
+        send(messageKey, edit);
+        return edit.result;
+    }
+
+    /**
+     * Forgets what a message was last edited to, so that the next edit to it is sent even if it looks the same.
+     *
+     * @param messageID The ID of the message, or the ID of the interaction for edits made with {@link #editOriginal(InteractionHook, MessageEditData)}.
+     */
+    public void forget(long messageID) {
+        forget((Object) messageID);
+    }
+
+    /**
+     * Forgets what a message was last edited to, so that the next edit to it is sent even if it looks the same.
+     *
+     * @param messageKey The key that the message was edited under.
+     */
+    public synchronized void forget(Object messageKey) {
+        lastSent.remove(messageKey);
+    }
+
+    private void send(Object messageKey, Edit edit) {
+        try {
+            RestAction<Message> action = edit.sender.apply(edit.content);
+            CompletableFuture<Message> request = scheduler == null ? action.submit() : scheduler.submit(action, edit.priority);
+            request.whenComplete((message, error) -> finish(messageKey, edit, message, error));
+        } catch (RuntimeException e) {
+            finish(messageKey, edit, null, e);
+        }
+    }
+
+    private void finish(Object messageKey, Edit edit, Message message, Throwable error) {
+        Edit next;
+        synchronized (this) {
+            if (error == null && edit.fingerprint != null) {
+                lastSent.add(messageKey, edit.fingerprint);
+            } else {
+                //we cannot be sure what the message shows now
+                lastSent.remove(messageKey);
+            }
+
+            Slot slot = slots.get(messageKey);
+            next = slot.queued;
+            slot.queued = null;
+            if (next != null && next.fingerprint != null && next.fingerprint.equals(lastSent.get(messageKey))) {
+                //the edit that was just sent already shows what was queued after it
+                next.content.close();
+                Edit skipped = next;
+                edit.result.whenComplete((sent, sendError) -> complete(skipped, sent, sendError));
+                next = null;
+            }
+
+            if (next == null) {
+                slots.remove(messageKey);
+            } else {
+                slot.inFlight = next.fingerprint;
+                slot.inFlightResult = next.result;
+            }
+        }
+
+        complete(edit, message, error);
+        if (next != null) {
+            send(messageKey, next);
+        }
+    }
+
+    private static void complete(Edit edit, Message message, Throwable error) {
+        if (error != null) {
+            edit.result.completeExceptionally(error);
+        } else {
+            edit.result.complete(message);
+        }
+    }
+}
@@ -0,0 +1,269 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.requests.restaction.MessageEditAction;
+import net.dv8tion.jda.api.requests.restaction.WebhookMessageEditAction;
+import net.dv8tion.jda.api.requests.restaction.interactions.InteractionCallbackAction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Sends the requests that Vera makes to discord in order of how urgent they are, instead of in the order they were made.
+ * <p>
+ * Every request is given a {@link Priority}. Acknowledgements of interactions have to reach discord within three
+ * seconds, so they are always sent right away. Every other request counts against a budget of requests that may be in
+ * flight at once. Once the budget is used up, requests wait in a queue for their priority, and messages are sent before
+ * edits. Edits are cosmetic, so if too many of them are waiting, the oldest ones are dropped.
+ * <blockquote><pre>
+ *     OutboundScheduler scheduler = buttonHandler.getOutboundScheduler();
+ *     scheduler.queue(event.deferReply());
+ *     scheduler.submit(channel.sendMessage("Done!")).thenAccept(message -&gt; ...);
+ * </pre></blockquote>
+ */
+public class OutboundScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger("Vera: Outbound Scheduler");
+
+    /**
+     * How urgent a request is. Requests with a higher priority are sent first.
+     */
+    public enum Priority {
+        /**
+         * A reply to, or acknowledgement of, an interaction. These are never queued.
+         */
+        ACKNOWLEDGEMENT,
+        /**
+         * A new message, or anything else the user is waiting to see.
+         */
+        MESSAGE,
+        /**
+         * An edit of a message that already exists. These are dropped if too many are waiting.
+         */
+        EDIT
+    }
+
+    /**
+     * A snapshot of the state of the scheduler.
+     *
+     * @param inFlight The number of requests that have been sent and not finished yet.
+     * @param queuedMessages The number of messages waiting to be sent.
+     * @param queuedEdits The number of edits waiting to be sent.
+     * @param acknowledgementsSent The number of acknowledgements that have been sent.
+     * @param messagesSent The number of messages that have been sent.
+     * @param editsSent The number of edits that have been sent.
+     * @param editsShed The number of edits that were dropped because too many were waiting.
+     */
+    public record Stats(int inFlight, int queuedMessages, int queuedEdits, long acknowledgementsSent, long messagesSent, long editsSent, long editsShed) {
+    }
+
+    private record Request<T>(RestAction<T> action, Priority priority, CompletableFuture<T> result) {
+    }
+
+    private final int maxInFlight;
+    private final int maxQueuedEdits;
+
+    private final ArrayDeque<Request<?>> queuedMessages = new ArrayDeque<>();
+    private final ArrayDeque<Request<?>> queuedEdits = new ArrayDeque<>();
+    private final Map<Priority, Long> sentCounts = new EnumMap<>(Priority.class);
+    private int inFlight = 0;
+    private long editsShed = 0;
+
+    /**
+     * Creates a new scheduler that allows 40 requests in flight at once, and keeps up to 100 edits waiting.
+     */
+    public OutboundScheduler() {
+        this(40, 100);
+    }
+
+    /**
+     * Creates a new scheduler.
+     *
+     * @param maxInFlight The number of requests that may be in flight at once. Acknowledgements count towards this, but
+     *                    are sent even if it has been reached.
+     * @param maxQueuedEdits The number of edits that may wait to be sent. Once more are waiting, the oldest is dropped.
+     */
+    public OutboundScheduler(int maxInFlight, int maxQueuedEdits) {
+        if (maxInFlight < 1 || maxQueuedEdits < 0) {
+            throw new IllegalArgumentException("At least one request must be allowed in flight, and the edit queue cannot be negative in size!");
+        }
+        this.maxInFlight = maxInFlight;
+        this.maxQueuedEdits = maxQueuedEdits;
+        for (Priority priority : Priority.values()) {
+            sentCounts.put(priority, 0L);
+        }
+    }
+
+    /**
+     * Works out the priority of a request from the kind of request it is.
+     *
+     * @param action The request.
+     * @return {@link Priority#ACKNOWLEDGEMENT} for interaction callbacks, {@link Priority#EDIT} for message and webhook
+     * edits, and {@link Priority#MESSAGE} for everything else.
+     */
+    public static Priority classify(RestAction<?> action) {
+        if (action instanceof InteractionCallbackAction<?>) {
+            return Priority.ACKNOWLEDGEMENT;
+        } else if (action instanceof MessageEditAction || action instanceof WebhookMessageEditAction<?>) {
+            return Priority.EDIT;
+        } else {
+            return Priority.MESSAGE;
+        }
+    }
+
+    /**
+     * Sends a request with the priority given by {@link #classify(RestAction)}.
+     *
+     * @param action The request to send.
+     * @param <T> The type of the result of the request.
+     * @return A future that completes with the result of the request. If the request is dropped, it completes with a
+     * {@link RejectedExecutionException}.
+     */
+    public <T> CompletableFuture<T> submit(RestAction<T> action) {
+        return submit(action, classify(action));
+    }
+
+    /**
+     * Sends a request with a specific priority. This is useful for edits that the user is waiting on, such as an error
+     * message that replaces a deferred reply.
+     *
+     * @param action The request to send.
+     * @param priority The priority of the request.
+     * @param <T> The type of the result of the request.
+     * @return A future that completes with the result of the request. If the request is dropped, it completes with a
+     * {@link RejectedExecutionException}.
+     */
+    public <T> CompletableFuture<T> submit(RestAction<T> action, Priority priority) {
+        Request<T> request = new Request<>(action, priority, new CompletableFuture<>());
+        Request<?> shed = null;
+        boolean sendNow = false;
+        synchronized (this) {
+            if (priority != Priority.ACKNOWLEDGEMENT && inFlight >= maxInFlight) {
+                if (priority == Priority.MESSAGE) {
+                    queuedMessages.add(request);
+                } else {
+                    queuedEdits.add(request);
+                    if (queuedEdits.size() > maxQueuedEdits) {
+                        shed = queuedEdits.poll();
+                        editsShed++;
+                    }
+                }
+            } else {
+                inFlight++;
+                sendNow = true;
+            }
+        }
+
+        if (shed != null) {
+            shed.result().completeExceptionally(new RejectedExecutionException("This edit was dropped because too many edits were waiting to be sent!"));
+        }
+        if (sendNow) {
+            send(request);
+        }
+        return request.result();
+    }
+
+    /**
+     * Sends a request like {@link #submit(RestAction)}, and logs it if the request fails.
+     *
+     * @param action The request to send.
+     */
+    public void queue(RestAction<?> action) {
+        queue(action, classify(action));
+    }
+
+    /**
+     * Sends a request like {@link #submit(RestAction, Priority)}, and logs it if the request fails.
+     *
+     * @param action The request to send.
+     * @param priority The priority of the request.
+     */
+    public void queue(RestAction<?> action, Priority priority) {
+        submit(action, priority).whenComplete((result, error) -> {
+            if (error instanceof RejectedExecutionException) {
+                logger.debug("Dropped a {} request because the outbound queue is full", priority);
+            } else if (error != null) {
+                logger.error("A {} request failed", priority, error);
+            }
+        });
+    }
+
+    /**
+     * @return A snapshot of the state of the scheduler.
+     */
+    public synchronized Stats getStats() {
+        return new Stats(inFlight, queuedMessages.size(), queuedEdits.size(), sentCounts.get(Priority.ACKNOWLEDGEMENT),
+                sentCounts.get(Priority.MESSAGE), sentCounts.get(Priority.EDIT), editsShed);
+    }
+
+    private <T> void send(Request<T> request) {
+        synchronized (this) {
+            sentCounts.merge(request.priority(), 1L, Long::sum);
+        }
+        try {
+            request.action().submit().whenComplete((result, error) -> {
+                onFinished();
+                if (error != null) {
+                    request.result().completeExceptionally(error);
+                } else {
+                    request.result().complete(result);
+                }
+            });
+        } catch (RuntimeException e) {
+            onFinished();
+            request.result().completeExceptionally(e);
+        }
+    }
+
+    private void onFinished() {
+        Request<?> next = null;
+        synchronized (this) {
+            inFlight--;
+            //acknowledgements may have pushed us over the budget, in which case the queue waits a little longer
+            if (inFlight < maxInFlight) {
+                next = queuedMessages.poll();
+                if (next == null) {
+                    next = queuedEdits.poll();
+                }
+                if (next != null) {
+                    inFlight++;
+                }
+            }
+        }
+        if (next != null) {
+            send(next);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Caches the results of computations that only depend on their key, such as the reply of a slash command that is a pure
+ * function of its options. Each result is kept for a set time after it was computed.
+ * <p>
+ * Concurrent requests for the same key are coalesced. The first request starts the computation, and every request that
+ * comes in while it runs waits for it, so a result is only ever computed once at a time no matter how many ask for it.
+ * Computations that fail are not cached, and the next request for their key tries again.
+ * <blockquote><pre>
+ *     ResultCache&lt;Long, String&gt; statsCache = new ResultCache&lt;&gt;(1000);
+ *     statsCache.get(guild.getIdLong(), Duration.ofMinutes(1), () -&gt; computeStats(guild), executor)
+ *          .thenAccept(stats -&gt; ...);
+ * </pre></blockquote>
+ *
+ * @param <K> The type of the keys. Keys must implement equals and hashCode.
+ * @param <V> The type of the results.
+ */
+public class ResultCache<K, V> {
+
+    private final CommandCache<K, Entry<V>> entries;
+
+    private static class Entry<V> {
+        private final CompletableFuture<V> result = new CompletableFuture<>();
+        private final long timeToLive;
+        //set once the result has been computed
+        private volatile long computedAt;
+
+        private Entry(long timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+
+        private boolean isExpired(long now) {
+            return result.isDone() && now - computedAt >= timeToLive;
+        }
+    }
+
+    /**
+     * Creates a new cache. Once it is full, the least recently used results are dropped.
+     *
+     * @param maximumSize The maximum number of results to keep.
+     */
+    public ResultCache(int maximumSize) {
+        this.entries = new CommandCache<>(maximumSize);
+    }
+
+    /**
+     * Gets the result for a key, computing it if it is not cached. If the result is being computed right now, this waits
+     * for that computation instead of starting another one.
+     *
+     * @param key        The key of the result.
+     * @param timeToLive How long the result may be reused for once it has been computed.
+     * @param compute    Computes the result. It must not return null.
+     * @param executor   The executor to compute the result on.
+     * @return A future that completes with the result, or with the exception that the computation threw.
+     */
+    public CompletableFuture<V> get(K key, Duration timeToLive, Supplier<V> compute, Executor executor) {
+        if (timeToLive.isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("The time to live of a cached result must be positive!");
+        }
+
+        Entry<V> entry;
+        synchronized (this) {
+            Entry<V> existing = entries.get(key);
+            if (existing != null && !existing.isExpired(System.nanoTime())) {
+                return existing.result;
+            }
+            entry = new Entry<>(timeToLive.toNanos());
+            entries.add(key, entry);
+        }
+
+        executor.execute(() -> {
+            try {
+                V result = compute.get();
+                if (result == null) {
+                    throw new IllegalStateException("A cached computation must not return null!");
+                }
+                entry.computedAt = System.nanoTime();
+                entry.result.complete(result);
+            } catch (Throwable t) {
+                //failures are not cached, so the next request tries again
+                remove(key, entry);
+                entry.result.completeExceptionally(t);
+            }
+        });
+        return entry.result;
+    }
+
+    /**
+     * Drops the result for a key, so that the next request for it computes it again. A computation that is running
+     * right now is not stopped, but its result is not cached.
+     *
+     * @param key The key of the result.
+     */
+    public synchronized void invalidate(K key) {
+        entries.remove(key);
+    }
+
+    /**
+     * @return The number of results that are cached or being computed, including those that have expired but not been replaced yet.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private synchronized void remove(K key, Entry<V> entry) {
+        if (entries.get(key) == entry) {
+            entries.remove(key);
+        }
+    }
+}
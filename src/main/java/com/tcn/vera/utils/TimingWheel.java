@@ -0,0 +1,301 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A hashed timing wheel that runs a large number of timeouts on a single thread. Scheduling and cancelling a timeout
+ * takes constant time no matter how many other timeouts are pending, which makes it a good fit for expiring thousands
+ * of paginators at once.
+ * <p>
+ * The wheel is divided into buckets that each cover one tick. A timeout is placed in the bucket of the tick it expires
+ * on, and remembers how many full turns of the wheel it has to wait first. Timeouts are therefore only as accurate as
+ * the tick duration, and every timeout that expires during a tick is run together once the tick ends.
+ * <p>
+ * The worker thread is started with the first timeout, and tasks are run on it, so they should not block.
+ */
+public class TimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger("Vera: Timing Wheel");
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean isStarted = new AtomicBoolean(false);
+    private volatile boolean isStopped = false;
+    private volatile long startTime;
+    private Thread worker;
+
+    /**
+     * Creates a new timing wheel.
+     *
+     * @param tickDuration How long a single tick lasts. Timeouts will expire up to one tick late.
+     * @param wheelSize    The number of buckets in the wheel. This is rounded up to the next power of two. Timeouts that
+     *                     are further away than {@code tickDuration * wheelSize} wait for extra turns of the wheel.
+     */
+    public TimingWheel(Duration tickDuration, int wheelSize) {
+        if (tickDuration.toMillis() < 1) {
+            throw new IllegalArgumentException("The tick duration must be at least one millisecond!");
+        }
+        if (wheelSize < 1 || wheelSize > 1 << 20) {
+            throw new IllegalArgumentException("The wheel size must be between 1 and 1048576!");
+        }
+
+        this.tickNanos = tickDuration.toNanos();
+        int size = 1;
+        while (size < wheelSize) {
+            size <<= 1;
+        }
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedules a task to run once the delay has passed.
+     *
+     * @param delay The time to wait before running the task.
+     * @param task  The task to run.
+     * @return A handle that can be used to cancel the task.
+     */
+    public Timeout schedule(Duration delay, Runnable task) {
+        if (isStopped) {
+            throw new IllegalStateException("This timing wheel has been stopped!");
+        }
+        start();
+
+        //deadlines are kept relative to the start of the wheel, so they never overflow
+        long deadline = System.nanoTime() - startTime + Math.max(0, delay.toNanos());
+        Timeout timeout = new Timeout(this, task, deadline);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the worker thread. Timeouts that have not expired yet will never run.
+     */
+    public void stop() {
+        isStopped = true;
+        if (worker != null) {
+            worker.interrupt();
+        }
+    }
+
+    private void start() {
+        if (isStarted.compareAndSet(false, true)) {
+            //zero means that the wheel has not started yet
+            long now = System.nanoTime();
+            startTime = now == 0 ? 1 : now;
+            worker = VeraUtils.createThreadFactory("VeraTimingWheel", logger).newThread(this::run);
+            worker.start();
+        }
+        //another thread may still be starting the wheel
+        while (startTime == 0) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private void run() {
+        long tick = 0;
+        List<Timeout> expired = new ArrayList<>();
+
+        while (!isStopped) {
+            long tickDeadline = tickNanos * (tick + 1);
+            long sleepNanos = tickDeadline - (System.nanoTime() - startTime);
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                continue;
+            }
+
+            removeCancelled();
+            transferPending(tick);
+            wheel[(int) (tick & mask)].expire(tickDeadline, expired);
+            for (Timeout timeout : expired) {
+                timeout.run();
+            }
+            expired.clear();
+            tick++;
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferPending(long currentTick) {
+        Timeout timeout;
+        while ((timeout = pendingTimeouts.poll()) != null) {
+            if (timeout.isCancelled()) {
+                continue;
+            }
+            long expiryTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (expiryTick - currentTick) / wheel.length;
+
+            //anything that should already have expired goes into the current bucket
+            long tick = Math.max(expiryTick, currentTick);
+            wheel[(int) (tick & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * A task that has been scheduled on a {@link TimingWheel}.
+     */
+    public static final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final TimingWheel timingWheel;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        //only touched by the worker thread
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout previous;
+        private Timeout next;
+
+        private Timeout(TimingWheel timingWheel, Runnable task, long deadline) {
+            this.timingWheel = timingWheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return Whether the task was cancelled. This is false if it has already run or was already cancelled.
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            timingWheel.cancelledTimeouts.add(this);
+            return true;
+        }
+
+        /**
+         * @return Whether the task has been cancelled.
+         */
+        public boolean isCancelled() {
+            return state.get() == CANCELLED;
+        }
+
+        /**
+         * @return Whether the task has run.
+         */
+        public boolean isExpired() {
+            return state.get() == EXPIRED;
+        }
+
+        private void run() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) {
+                return;
+            }
+            try {
+                task.run();
+            } catch (Throwable t) {
+                logger.error("A task scheduled on the timing wheel threw an exception!", t);
+            }
+        }
+    }
+
+    //a doubly linked list, so that cancelled timeouts can be removed without searching
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        private void expire(long tickDeadline, List<Timeout> expired) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.isCancelled()) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= tickDeadline) {
+                    remove(timeout);
+                    expired.add(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+
+        private void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.previous = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+}
@@ -36,6 +36,7 @@ import com.tcn.vera.testCommands.paginatorCommands.AdvancedPaginatorCommand;
 import com.tcn.vera.testCommands.paginatorCommands.AdvancedPaginatorMessage;
 import com.tcn.vera.testCommands.paginatorCommands.EmbedPaginatorCommand;
 import com.tcn.vera.testCommands.paginatorCommands.EmbedPaginatorMessage;
+import com.tcn.vera.testCommands.paginatorCommands.StatelessPaginatorCommand;
 import com.tcn.vera.testCommands.slashCommands.*;
 import com.tcn.vera.testCommands.userContext.BasicUserContextCommand;
 import com.tcn.vera.testCommands.userContext.UserContextPing;
@@ -70,6 +71,7 @@ public class DiscordTestBot {
                 .addCommand(new EmbedPaginatorMessage(buttonHandler))
                 .addCommand(new AdvancedPaginatorCommand(buttonHandler))
                 .addCommand(new AdvancedPaginatorMessage(buttonHandler))
+                .addCommand(new StatelessPaginatorCommand(buttonHandler))
                 .changePrefix("!")
                 .addButtonHandler(buttonHandler)
                 .build();
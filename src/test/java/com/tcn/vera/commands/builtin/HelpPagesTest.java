@@ -0,0 +1,139 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.commands.builtin;
+
+import com.tcn.vera.commands.templates.CommandTemplateBase;
+import com.tcn.vera.commands.templates.SlashCommandTemplate;
+import com.tcn.vera.utils.EmbedValidator;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.interactions.DiscordLocale;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HelpPagesTest {
+
+    private static SlashCommandTemplate command(String name, String helpText) {
+        return new SlashCommandTemplate() {
+            {
+                this.commandName = name;
+                this.help = helpText;
+            }
+
+            @Override
+            public void executeSlashCommand(SlashCommandInteractionEvent event) {
+            }
+        };
+    }
+
+    private static Set<SlashCommandTemplate> commands(int count, String help) {
+        Set<SlashCommandTemplate> commands = ConcurrentHashMap.newKeySet();
+        for (int i = 0; i < count; i++) {
+            commands.add(command(String.format("command-%03d", i), help));
+        }
+        return commands;
+    }
+
+    @Test
+    void fitsAFewCommandsOnOnePage() {
+        List<MessageEmbed> pages = new HelpPages("Help:", commands(3, "does things"), CommandTemplateBase::getCommandName).getPages();
+        assertEquals(1, pages.size());
+        assertEquals(3, pages.get(0).getFields().size());
+        assertNull(pages.get(0).getFooter());
+        assertEquals("command-000", pages.get(0).getFields().get(0).getName());
+    }
+
+    @Test
+    void splitsAtTheFieldLimit() {
+        List<MessageEmbed> pages = new HelpPages("Help:", commands(260, "does things"), CommandTemplateBase::getCommandName).getPages();
+        assertEquals(11, pages.size());
+        assertEquals(EmbedValidator.MAX_FIELDS, pages.get(0).getFields().size());
+        assertEquals(10, pages.get(10).getFields().size());
+        assertEquals("Page 11 of 11", pages.get(10).getFooter().getText());
+    }
+
+    @Test
+    void splitsAtTheLengthLimit() {
+        List<MessageEmbed> pages = new HelpPages("Help:", commands(20, "x".repeat(1000)), CommandTemplateBase::getCommandName).getPages();
+        assertTrue(pages.size() > 1);
+        pages.forEach(page -> assertTrue(EmbedValidator.findProblems(page).isEmpty()));
+        assertEquals(20, pages.stream().mapToInt(page -> page.getFields().size()).sum());
+    }
+
+    @Test
+    void cutsHelpThatIsTooLongForAField() {
+        List<MessageEmbed> pages = new HelpPages("Help:", commands(1, "x".repeat(2000)), CommandTemplateBase::getCommandName).getPages();
+        assertEquals(MessageEmbed.VALUE_MAX_LENGTH, pages.get(0).getFields().get(0).getValue().length());
+    }
+
+    @Test
+    void reusesPagesUntilACommandIsRegistered() {
+        Set<SlashCommandTemplate> commands = commands(2, "does things");
+        HelpPages helpPages = new HelpPages("Help:", commands, (command, locale) -> "/" + command.getCommandName(locale));
+        List<MessageEmbed> pages = helpPages.getPages();
+        assertSame(pages, helpPages.getPages());
+
+        commands.add(command("another", "does more things"));
+        List<MessageEmbed> rebuilt = helpPages.getPages();
+        assertNotSame(pages, rebuilt);
+        assertEquals("/another", rebuilt.get(0).getFields().get(0).getName());
+    }
+
+    @Test
+    void rendersPagesForEachLocalizedLanguage() {
+        SlashCommandTemplate localized = new SlashCommandTemplate() {
+            {
+                this.commandName = "help";
+                this.help = "shows help";
+                this.nameLocalizations.put(DiscordLocale.GERMAN, "hilfe");
+                this.helpLocalizations.put(DiscordLocale.GERMAN, "zeigt Hilfe");
+            }
+
+            @Override
+            public void executeSlashCommand(SlashCommandInteractionEvent event) {
+            }
+        };
+        Set<SlashCommandTemplate> commands = ConcurrentHashMap.newKeySet();
+        commands.add(localized);
+        HelpPages helpPages = new HelpPages("Help:", commands, CommandTemplateBase::getCommandName);
+
+        MessageEmbed.Field german = helpPages.getPages(DiscordLocale.GERMAN).get(0).getFields().get(0);
+        assertEquals("hilfe", german.getName());
+        assertEquals("zeigt Hilfe", german.getValue());
+
+        //languages that nothing was localized to share the default pages
+        assertSame(helpPages.getPages(), helpPages.getPages(DiscordLocale.FRENCH));
+        assertEquals("shows help", helpPages.getPages().get(0).getFields().get(0).getValue());
+        assertSame(helpPages.getPages(DiscordLocale.GERMAN), helpPages.getPages(DiscordLocale.GERMAN));
+    }
+}
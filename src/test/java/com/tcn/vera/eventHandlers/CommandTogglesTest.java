@@ -0,0 +1,165 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.eventHandlers;
+
+import com.tcn.vera.commands.templates.ChatCommandTemplate;
+import com.tcn.vera.commands.templates.CommandTemplateBase;
+import com.tcn.vera.commands.templates.CommandType;
+import com.tcn.vera.commands.templates.SlashCommandTemplate;
+import com.tcn.vera.state.CommandToggleStore;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandTogglesTest {
+
+    private static SlashCommandTemplate slash(String name) {
+        return new SlashCommandTemplate() {
+            {
+                this.commandName = name;
+            }
+
+            @Override
+            public void executeSlashCommand(SlashCommandInteractionEvent event) {
+            }
+        };
+    }
+
+    private static ChatCommandTemplate chat(String name) {
+        return new ChatCommandTemplate() {
+            {
+                this.commandName = name;
+            }
+
+            @Override
+            public void executeChatCommand(MessageReceivedEvent event, Message message, String messageContent) {
+            }
+        };
+    }
+
+    private static class MapToggleStore implements CommandToggleStore {
+        private final Map<Long, Set<String>> saved = new HashMap<>();
+
+        @Override
+        public void loadAll(BiConsumer<Long, Set<String>> consumer) {
+            saved.forEach(consumer);
+        }
+
+        @Override
+        public void save(long guildID, Set<String> disabledCommands) {
+            if (disabledCommands.isEmpty()) {
+                saved.remove(guildID);
+            } else {
+                saved.put(guildID, Set.copyOf(disabledCommands));
+            }
+        }
+    }
+
+    @Test
+    void disablesCommandsPerGuild() {
+        SlashCommandTemplate stats = slash("stats");
+        SlashCommandTemplate ping = slash("ping");
+        CommandToggles toggles = new CommandToggles(List.of(stats, ping), null);
+
+        assertTrue(toggles.isEnabled(1, stats));
+        toggles.setEnabled(1, stats, false);
+        assertFalse(toggles.isEnabled(1, stats));
+        assertTrue(toggles.isEnabled(1, ping));
+        assertTrue(toggles.isEnabled(2, stats));
+
+        toggles.setEnabled(1, stats, true);
+        assertTrue(toggles.isEnabled(1, stats));
+        //guilds without disabled commands take up no memory
+        assertEquals(0, toggles.getGuildCount());
+    }
+
+    @Test
+    void commandsOfDifferentTypesCanShareAName() {
+        SlashCommandTemplate slashHelp = slash("help");
+        ChatCommandTemplate chatHelp = chat("help");
+        CommandToggles toggles = new CommandToggles(List.of(slashHelp, chatHelp), null);
+
+        assertTrue(toggles.setEnabled(1, CommandType.CHAT_COMMAND, "help", false));
+        assertFalse(toggles.isEnabled(1, chatHelp));
+        assertTrue(toggles.isEnabled(1, slashHelp));
+        assertFalse(toggles.setEnabled(1, CommandType.SLASH_COMMAND, "missing", false));
+    }
+
+    @Test
+    void worksPastSixtyFourCommands() {
+        List<CommandTemplateBase> commands = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            commands.add(slash("command-" + i));
+        }
+        CommandToggles toggles = new CommandToggles(commands, null);
+
+        toggles.setEnabled(1, commands.get(63), false);
+        toggles.setEnabled(1, commands.get(64), false);
+        toggles.setEnabled(1, commands.get(199), false);
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i != 63 && i != 64 && i != 199, toggles.isEnabled(1, commands.get(i)), "command " + i);
+        }
+        assertEquals(Set.of("SLASH_COMMAND:command-63", "SLASH_COMMAND:command-64", "SLASH_COMMAND:command-199"), toggles.getDisabledCommands(1));
+    }
+
+    @Test
+    void savesAndLoadsThroughTheStore() {
+        MapToggleStore store = new MapToggleStore();
+        SlashCommandTemplate stats = slash("stats");
+        CommandToggles toggles = new CommandToggles(List.of(stats), store);
+        toggles.setEnabled(42, stats, false);
+        assertEquals(Map.of(42L, Set.of("SLASH_COMMAND:stats")), store.saved);
+
+        //commands that were removed since they were disabled are ignored
+        store.saved.put(7L, Set.of("SLASH_COMMAND:removed"));
+        SlashCommandTemplate restartedStats = slash("stats");
+        CommandToggles restarted = new CommandToggles(List.of(slash("ping"), restartedStats), store);
+        assertFalse(restarted.isEnabled(42, restartedStats));
+        assertEquals(1, restarted.getGuildCount());
+
+        restarted.setEnabled(42, restartedStats, true);
+        assertFalse(store.saved.containsKey(42L));
+    }
+
+    @Test
+    void rejectsCommandsThatWereNotRegistered() {
+        CommandToggles toggles = new CommandToggles(List.of(slash("stats")), null);
+        assertThrows(IllegalArgumentException.class, () -> toggles.setEnabled(1, slash("other"), false));
+        assertTrue(toggles.isEnabled(1, slash("other")));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdvancedEmbedPaginatorTest {
+
+    private final FakeChannel channel = new FakeChannel();
+
+    private AdvancedEmbedPaginator.Builder builder() {
+        AdvancedEmbedPaginator.Builder builder = new AdvancedEmbedPaginator.Builder()
+                .addPageDataList(List.of("first", "second", "third"))
+                .setEmbedConsumer((embed, data) -> embed.setDescription((String) data))
+                .setRenderPolicy(RenderPolicy.lazy());
+        return builder.setButtonHandler(new ButtonHandler()).setUserID(3).setEvent(channel.commandEvent(1));
+    }
+
+    @Test
+    void showsThePageOnceItsImageHasBeenUploaded() {
+        CompletableFuture<String> upload = new CompletableFuture<>();
+        PageImageStore imageStore = new PageImageStore((image, fileName) -> upload, 10, Duration.ZERO);
+        AdvancedEmbedPaginator paginator = builder().setPageImages(imageStore, "page.png", data -> new byte[1]).build();
+
+        //paginating must not wait for the upload
+        CompletionStage<Message> shown = paginator.paginate();
+        assertTrue(channel.embeds().isEmpty());
+        assertFalse(shown.toCompletableFuture().isDone());
+
+        upload.complete("https://cdn.example/page.png");
+        assertTrue(shown.toCompletableFuture().isDone());
+        assertEquals(1, channel.embeds().size());
+        assertEquals("first", channel.embeds().get(0).getDescription());
+        assertEquals("https://cdn.example/page.png", channel.embeds().get(0).getImage().getUrl());
+    }
+
+    @Test
+    void showsThePageWithoutItsImageIfTheUploadFails() {
+        PageImageStore imageStore = new PageImageStore((image, fileName) -> CompletableFuture.failedFuture(new IllegalStateException("Missing permissions")), 10, Duration.ZERO);
+        AdvancedEmbedPaginator paginator = builder().setPageImages(imageStore, "page.png", data -> new byte[1]).build();
+
+        paginator.paginate().toCompletableFuture().join();
+        assertEquals("first", channel.embeds().get(0).getDescription());
+        assertNull(channel.embeds().get(0).getImage());
+    }
+
+    @Test
+    void pagesThatArePrefetchingAreSharedInsteadOfRenderedAgain() {
+        List<Runnable> prefetches = new ArrayList<>();
+        Map<Object, Integer> renders = new HashMap<>();
+        AdvancedEmbedPaginator paginator = builder()
+                .setEmbedConsumer((embed, data) -> {
+                    renders.merge(data, 1, Integer::sum);
+                    embed.setDescription((String) data);
+                })
+                .setRenderPolicy(RenderPolicy.prefetch(1, prefetches::add))
+                .build();
+
+        paginator.paginate().toCompletableFuture().join();
+        assertEquals(1, renders.get("first"));
+        assertNull(renders.get("second"));
+
+        //the second page is still waiting for a renderer, so moving to it has to wait for that render
+        paginator.jumpToPage(1);
+        assertEquals(1, channel.embeds().size());
+
+        new ArrayList<>(prefetches).forEach(Runnable::run);
+        assertEquals("second", channel.lastEmbed().getDescription());
+        assertEquals(1, renders.get("second"));
+    }
+
+    @Test
+    void renderedPagesAreReusedWhenShownAgain() {
+        Map<Object, Integer> renders = new HashMap<>();
+        AdvancedEmbedPaginator paginator = builder()
+                .setEmbedConsumer((embed, data) -> {
+                    renders.merge(data, 1, Integer::sum);
+                    embed.setDescription((String) data);
+                })
+                .build();
+
+        paginator.paginate().toCompletableFuture().join();
+        paginator.jumpToPage(1);
+        paginator.jumpToPage(0);
+
+        assertEquals(List.of("first", "second", "first"), channel.embeds().stream().map(MessageEmbed::getDescription).toList());
+        assertEquals(1, renders.get("first"));
+    }
+
+    @Test
+    void eagerPaginatorsRenderEveryPageOnceEvenPastThePageCacheSize() {
+        Map<Object, Integer> renders = new ConcurrentHashMap<>();
+        ForkJoinPool pool = new ForkJoinPool(2);
+        List<String> pages = IntStream.range(0, 15).mapToObj(i -> "page " + i).toList();
+        AdvancedEmbedPaginator paginator = new AdvancedEmbedPaginator.Builder()
+                .addPageDataList(pages)
+                .setEmbedConsumer((embed, data) -> {
+                    renders.merge(data, 1, Integer::sum);
+                    embed.setDescription((String) data);
+                })
+                .setRenderPolicy(RenderPolicy.eager(pool))
+                .setButtonHandler(new ButtonHandler())
+                .setUserID(3)
+                .setEvent(channel.commandEvent(1))
+                .build();
+
+        paginator.paginate().toCompletableFuture().join();
+        assertTrue(pool.awaitQuiescence(10, TimeUnit.SECONDS));
+        for (int i = 1; i < pages.size(); i++) {
+            paginator.jumpToPage(i);
+        }
+        pool.shutdown();
+
+        assertEquals("page 14", channel.lastEmbed().getDescription());
+        assertEquals(pages.size(), renders.size());
+        renders.forEach((page, count) -> assertEquals(1, count, page + " was rendered more than once"));
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.entities.channel.unions.MessageChannelUnion;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A message channel that records what paginators send to it, for tests that need more than a paginator's own state.
+ * JDA's entities are interfaces, so the channel, its messages, and its requests are all proxies that only answer the
+ * methods that paginators use.
+ */
+final class FakeChannel {
+
+    /**
+     * The ID of the author of every message in this channel.
+     */
+    static final long AUTHOR_ID = 2;
+
+    private final boolean holdsRequests;
+    private final List<String> calls = new ArrayList<>();
+    private final List<MessageEmbed> embeds = new ArrayList<>();
+    private final List<CompletableFuture<Message>> requests = new ArrayList<>();
+    private final MessageChannelUnion channel;
+
+    /**
+     * @param holdsRequests If true, every request waits until the test completes it through {@link #requests()}.
+     *                      Otherwise, every request succeeds right away with a message whose ID is 2.
+     */
+    FakeChannel(boolean holdsRequests) {
+        this.holdsRequests = holdsRequests;
+        this.channel = (MessageChannelUnion) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{MessageChannelUnion.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "sendMessageEmbeds" -> request(method.getReturnType(), "send", args[0]);
+                    case "editMessageById" -> request(method.getReturnType(), "edit:" + args[0], args[1]);
+                    case "deleteMessageById" -> request(method.getReturnType(), "delete:" + args[0], null);
+                    default -> null;
+                });
+    }
+
+    FakeChannel() {
+        this(false);
+    }
+
+    /**
+     * @return A message in this channel with the given ID.
+     */
+    Message message(long id) {
+        return (Message) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Message.class}, (proxy, method, args) -> switch (method.getName()) {
+            case "getIdLong" -> id;
+            case "getChannel" -> channel;
+            case "getAuthor" -> Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{User.class},
+                    (user, userMethod, userArgs) -> userMethod.getReturnType() == long.class ? AUTHOR_ID : null);
+            default -> null;
+        });
+    }
+
+    /**
+     * @return An event for a chat command sent in this channel as the message with the given ID.
+     */
+    MessageReceivedEvent commandEvent(long messageID) {
+        return new MessageReceivedEvent(null, 0, message(messageID));
+    }
+
+    /**
+     * @return Every request made to the channel in order, such as "send", "edit:ID", or "delete:ID".
+     */
+    List<String> calls() {
+        return calls;
+    }
+
+    /**
+     * @return Every embed that was sent to the channel or edited into a message, in order.
+     */
+    List<MessageEmbed> embeds() {
+        return embeds;
+    }
+
+    /**
+     * @return The most recent embed that was sent or edited into a message.
+     */
+    MessageEmbed lastEmbed() {
+        return embeds.get(embeds.size() - 1);
+    }
+
+    /**
+     * @return The futures of every request in order. These are only left for the test to complete if the channel holds
+     * its requests.
+     */
+    List<CompletableFuture<Message>> requests() {
+        return requests;
+    }
+
+    private Object request(Class<?> type, String call, Object content) {
+        calls.add(call);
+        if (content instanceof MessageEmbed embed) {
+            embeds.add(embed);
+        } else if (content instanceof MessageEditData edit && !edit.getEmbeds().isEmpty()) {
+            embeds.add(edit.getEmbeds().get(0));
+        }
+
+        CompletableFuture<Message> request = holdsRequests ? new CompletableFuture<>() : CompletableFuture.completedFuture(message(2));
+        requests.add(request);
+        return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getName().equals("submit")) {
+                return request;
+            }
+            //builder methods such as setComponents return the request itself
+            return method.getReturnType().isInstance(proxy) ? proxy : null;
+        });
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ListPaginatorTest {
+
+    private final FakeChannel channel = new FakeChannel();
+
+    @Test
+    void pagesShowTheirSliceOfTheListWithGlobalIndexes() {
+        List<String> items = IntStream.range(0, 25).mapToObj(i -> "item " + i).toList();
+        List<Integer> renderedIndexes = new ArrayList<>();
+        ListPaginator<String> paginator = new ListPaginator.Builder<String>()
+                .setItems(items)
+                .setItemsPerPage(10)
+                .setRowRenderer((index, item) -> {
+                    renderedIndexes.add(index);
+                    return index + ": " + item;
+                })
+                .setButtonHandler(new ButtonHandler())
+                .setUserID(3)
+                .setEvent(channel.commandEvent(1))
+                .build();
+
+        paginator.paginate().toCompletableFuture().join();
+        assertEquals(IntStream.range(0, 10).boxed().toList(), renderedIndexes);
+        assertTrue(channel.embeds().get(0).getDescription().startsWith("0: item 0\n1: item 1\n"));
+        assertEquals("Page 1 of 3", channel.embeds().get(0).getFooter().getText());
+
+        //the last page only holds what is left of the list, and keeps counting from where the page before it stopped
+        renderedIndexes.clear();
+        paginator.jumpToPage(2);
+        assertEquals(List.of(20, 21, 22, 23, 24), renderedIndexes);
+        assertEquals("20: item 20\n21: item 21\n22: item 22\n23: item 23\n24: item 24", channel.lastEmbed().getDescription());
+        assertEquals("Page 3 of 3", channel.lastEmbed().getFooter().getText());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageEmbedCacheTest {
+
+    private static CompletableFuture<MessageEmbed> render(PageEmbedCache cache, int pageNum) {
+        MessageEmbed embed = new EmbedBuilder().setDescription("x".repeat(1000)).build();
+        CompletableFuture<MessageEmbed> render = new CompletableFuture<>();
+        assertNull(cache.putIfAbsent(pageNum, render));
+        render.complete(embed);
+        cache.rendered(pageNum, render, embed);
+        return render;
+    }
+
+    @Test
+    void leastRecentlyUsedPagesAreDropped() {
+        PageEmbedCache cache = new PageEmbedCache(3, null);
+        CompletableFuture<MessageEmbed> first = render(cache, 0);
+        render(cache, 1);
+        render(cache, 2);
+
+        //using page 0 again makes page 1 the oldest
+        assertSame(first, cache.putIfAbsent(0, new CompletableFuture<>()));
+        render(cache, 3);
+
+        assertEquals(3, cache.size());
+        assertNotNull(cache.putIfAbsent(0, new CompletableFuture<>()));
+        assertNull(cache.putIfAbsent(1, new CompletableFuture<>()));
+    }
+
+    @Test
+    void theBudgetIsSharedBetweenPaginators() {
+        //each page is estimated at a little over 2.5kb, so three of them fit
+        PageCacheBudget budget = new PageCacheBudget(8_000);
+        PageEmbedCache first = new PageEmbedCache(10, budget);
+        PageEmbedCache second = new PageEmbedCache(10, budget);
+
+        render(first, 0);
+        render(first, 1);
+        render(second, 0);
+        assertEquals(2, first.size());
+
+        //the oldest page of any paginator goes first
+        render(second, 1);
+        assertEquals(1, first.size());
+        assertEquals(2, second.size());
+        assertTrue(budget.getUsedBytes() <= budget.getMaxBytes());
+
+        second.clear();
+        first.clear();
+        assertEquals(0, budget.getUsedBytes());
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageImageStoreTest {
+
+    @Test
+    void uploadsEachImageOnce() {
+        AtomicInteger uploads = new AtomicInteger();
+        PageImageStore store = new PageImageStore((image, fileName) ->
+                CompletableFuture.completedFuture("https://cdn.example/" + uploads.incrementAndGet() + "/" + fileName), 10, Duration.ZERO);
+        AtomicInteger renders = new AtomicInteger();
+
+        String first = store.getUrl("page 1", "chart.png", () -> new byte[renders.incrementAndGet()]).join();
+        String second = store.getUrl("page 1", "chart.png", () -> new byte[renders.incrementAndGet()]).join();
+        String otherPage = store.getUrl("page 2", "chart.png", () -> new byte[renders.incrementAndGet()]).join();
+
+        assertEquals("https://cdn.example/1/chart.png", first);
+        assertEquals(first, second);
+        assertEquals("https://cdn.example/2/chart.png", otherPage);
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void sharesAnUploadThatIsInProgress() {
+        CompletableFuture<String> upload = new CompletableFuture<>();
+        AtomicInteger uploads = new AtomicInteger();
+        PageImageStore store = new PageImageStore((image, fileName) -> {
+            uploads.incrementAndGet();
+            return upload;
+        }, 10, Duration.ZERO);
+
+        CompletableFuture<String> first = store.getUrl("key", "chart.png", () -> new byte[1]);
+        CompletableFuture<String> second = store.getUrl("key", "chart.png", () -> new byte[1]);
+        upload.complete("https://cdn.example/chart.png");
+
+        assertEquals("https://cdn.example/chart.png", first.join());
+        assertEquals("https://cdn.example/chart.png", second.join());
+        assertEquals(1, uploads.get());
+    }
+
+    @Test
+    void retriesAFailedUpload() {
+        AtomicInteger attempts = new AtomicInteger();
+        PageImageStore store = new PageImageStore((image, fileName) -> attempts.incrementAndGet() == 1
+                ? CompletableFuture.failedFuture(new IllegalStateException("missing permissions"))
+                : CompletableFuture.completedFuture("https://cdn.example/chart.png"), 10, Duration.ZERO);
+
+        assertThrows(CompletionException.class, () -> store.getUrl("key", "chart.png", () -> new byte[1]).join());
+        assertEquals("https://cdn.example/chart.png", store.getUrl("key", "chart.png", () -> new byte[1]).join());
+    }
+
+    @Test
+    void uploadsAgainOnceTheUrlIsTooOld() throws InterruptedException {
+        AtomicInteger uploads = new AtomicInteger();
+        PageImageStore store = new PageImageStore((image, fileName) ->
+                CompletableFuture.completedFuture("https://cdn.example/" + uploads.incrementAndGet()), 10, Duration.ofMillis(1));
+
+        store.getUrl("key", "chart.png", () -> new byte[1]).join();
+        Thread.sleep(10);
+        assertEquals("https://cdn.example/2", store.getUrl("key", "chart.png", () -> new byte[1]).join());
+    }
+}
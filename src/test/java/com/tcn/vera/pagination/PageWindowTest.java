@@ -0,0 +1,116 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageWindowTest {
+
+    //a keyset style source with 7 pages that records how each page was fetched
+    private static class RecordingSource implements PageSource<Integer> {
+        private final List<String> calls = new ArrayList<>();
+
+        @Override
+        public Page<Integer> fetchPage(int pageNum) {
+            calls.add("page " + pageNum);
+            return pageNum < 7 ? new Page<>(pageNum, pageNum * 10, String.valueOf(pageNum * 10), false) : null;
+        }
+
+        @Override
+        public Page<Integer> fetchNext(Page<Integer> previous) {
+            calls.add("next " + previous.nextCursor());
+            int pageNum = previous.pageNum() + 1;
+            return pageNum < 7 ? new Page<>(pageNum, pageNum * 10, String.valueOf(pageNum * 10), pageNum == 6) : null;
+        }
+    }
+
+    @Test
+    void pagesAreFetchedFromTheCursorOfThePreviousPage() {
+        RecordingSource source = new RecordingSource();
+        PageWindow<Integer> window = new PageWindow<>(source, 3);
+
+        assertEquals(PageSource.UNKNOWN_PAGE_COUNT, window.getPageCount());
+        for (int i = 0; i < 7; i++) {
+            assertEquals(i * 10, window.getPage(i).data());
+        }
+        assertEquals(List.of("page 0", "next 0", "next 10", "next 20", "next 30", "next 40", "next 50"), source.calls);
+
+        //the last page said so, so the window knows where the source ends without asking again
+        assertEquals(7, window.getPageCount());
+        assertNull(window.getPage(7));
+        assertEquals(7, source.calls.size());
+    }
+
+    @Test
+    void onlyTheWindowIsKeptInMemory() {
+        RecordingSource source = new RecordingSource();
+        PageWindow<Integer> window = new PageWindow<>(source, 3);
+
+        for (int i = 0; i < 5; i++) {
+            window.getPage(i);
+        }
+        source.calls.clear();
+
+        window.getPage(4);
+        window.getPage(2);
+        assertTrue(source.calls.isEmpty());
+
+        //page 0 has left the window and has no previous page to continue from
+        window.getPage(0);
+        assertEquals(List.of("page 0"), source.calls);
+    }
+
+    @Test
+    void movingPastTheEndOfTheSourceLandsOnARealPage() {
+        PageWindow<Integer> window = new PageWindow<>(new RecordingSource(), 3);
+        for (int i = 0; i < 6; i++) {
+            window.getPage(i);
+        }
+
+        //only fetching page 6 tells the window that it is the last one
+        assertEquals(6, window.resolveMove(5, 6, false));
+        assertEquals(6, window.resolveMove(6, 7, false));
+        assertEquals(0, window.resolveMove(6, 7, true));
+    }
+
+    @Test
+    void jumpingPastTheEndOfAnUnknownSourceStaysPut() {
+        PageWindow<Integer> window = new PageWindow<>(new RecordingSource(), 3);
+        window.getPage(0);
+
+        //a jump cannot continue from the page before it, so it does not learn where the source ends
+        assertEquals(0, window.resolveJump(0, 20));
+        assertEquals(PageSource.UNKNOWN_PAGE_COUNT, window.getPageCount());
+        assertEquals(4, window.resolveJump(0, 4));
+    }
+}
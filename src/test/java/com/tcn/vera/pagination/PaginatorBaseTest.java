@@ -0,0 +1,185 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.state.InMemoryStateStore;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.events.interaction.component.ButtonInteractionEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.interactions.components.ActionComponent;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaginatorBaseTest {
+
+    //a message that only knows its ID, which is all that a paginator needs from it when it does not send anything itself
+    private static Message fakeMessage(long id) {
+        return (Message) Proxy.newProxyInstance(Message.class.getClassLoader(), new Class<?>[]{Message.class},
+                (proxy, method, args) -> method.getReturnType() == long.class ? id : null);
+    }
+
+    //records each page it is asked to show, and lets the test decide when discord has accepted the edit
+    private static class RecordingPaginator extends PaginatorBase {
+        private final List<Integer> shownPages = new ArrayList<>();
+        private final List<CompletableFuture<Message>> edits = new ArrayList<>();
+
+        private RecordingPaginator(int numberOfPages) {
+            super(fakeMessage(1), null, numberOfPages, false, 2, new ButtonHandler());
+        }
+
+        @Override
+        protected void onButtonClick(ButtonInteractionEvent event) {
+        }
+
+        @Override
+        protected CompletableFuture<Message> showPage() {
+            shownPages.add(currentPage);
+            CompletableFuture<Message> edit = new CompletableFuture<>();
+            edits.add(edit);
+            return edit;
+        }
+
+        private void finishEdit() {
+            edits.get(edits.size() - 1).complete(fakeMessage(3));
+        }
+
+        private void clickNext() {
+            incPageNum();
+            updatePage();
+        }
+    }
+
+    @Test
+    void coalescesClicksDuringAnEdit() {
+        RecordingPaginator paginator = new RecordingPaginator(10);
+        paginator.paginate();
+        paginator.finishEdit();
+
+        for (int i = 0; i < 5; i++) {
+            paginator.clickNext();
+        }
+        //the first click is being shown, the other four wait for it
+        assertEquals(List.of(0, 1), paginator.shownPages);
+
+        paginator.finishEdit();
+        //one edit catches up with every click that came in meanwhile
+        assertEquals(List.of(0, 1, 5), paginator.shownPages);
+
+        paginator.finishEdit();
+        assertEquals(List.of(0, 1, 5), paginator.shownPages);
+    }
+
+    @Test
+    void skipsEditsThatWouldNotChangeThePage() {
+        RecordingPaginator paginator = new RecordingPaginator(2);
+        paginator.paginate();
+        paginator.finishEdit();
+
+        paginator.clickNext();
+        paginator.finishEdit();
+        //the paginator does not wrap, so this click does not move it
+        paginator.clickNext();
+
+        assertEquals(List.of(0, 1), paginator.shownPages);
+    }
+
+    @Test
+    void waitsForTheMenuToBeSentBeforeEditingIt() {
+        RecordingPaginator paginator = new RecordingPaginator(10);
+        paginator.paginate();
+        paginator.clickNext();
+        assertEquals(List.of(0), paginator.shownPages);
+
+        paginator.finishEdit();
+        assertEquals(List.of(0, 1), paginator.shownPages);
+    }
+
+    @Test
+    void paginateStartsOnTheFirstPageWhenThePageCountIsUnknown() {
+        RecordingPaginator paginator = new RecordingPaginator(PageSource.UNKNOWN_PAGE_COUNT);
+        paginator.paginate();
+        assertEquals(List.of(0), paginator.shownPages);
+    }
+
+    @Test
+    void paginateClampsThePageNumber() {
+        RecordingPaginator second = new RecordingPaginator(3);
+        second.paginate(2);
+        assertEquals(List.of(1), second.shownPages);
+
+        RecordingPaginator pastTheEnd = new RecordingPaginator(3);
+        pastTheEnd.paginate(10);
+        assertEquals(List.of(2), pastTheEnd.shownPages);
+
+        RecordingPaginator beforeTheStart = new RecordingPaginator(3);
+        beforeTheStart.paginate(0);
+        assertEquals(List.of(0), beforeTheStart.shownPages);
+    }
+
+    @Test
+    void restoredPaginatorsShowTheSameComponentRows() {
+        InMemoryStateStore store = new InMemoryStateStore();
+        ButtonHandler buttonHandler = new ButtonHandler();
+        buttonHandler.setStateStore(store);
+        EmbedPaginator original = new EmbedPaginator.Builder()
+                .setEmbeds(List.of(page("one"), page("two"), page("three")))
+                .enableFirstLastButtons(true)
+                .enableJumpToPage(true)
+                .enablePageSelectMenu(true)
+                .setButtonHandler(buttonHandler)
+                .setUserID(2)
+                .setEvent(new MessageReceivedEvent(null, 0, fakeMessage(1)))
+                .build();
+        original.persistState();
+
+        EmbedPaginator restored = EmbedPaginator.restore(store.get(1), buttonHandler);
+        //the navigation buttons, the first, jump, and last buttons, and the page select menu
+        assertEquals(3, restored.getComponentRows().size());
+        assertEquals(componentIDs(original), componentIDs(restored));
+    }
+
+    private static MessageEmbed page(String description) {
+        return new EmbedBuilder().setDescription(description).build();
+    }
+
+    private static List<String> componentIDs(PaginatorBase paginator) {
+        return paginator.getComponentRows().stream()
+                .flatMap(row -> row.getActionComponents().stream())
+                .map(ActionComponent::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressOutputTest {
+
+    @Test
+    void isEmptyUntilSomethingIsAppended() {
+        ProgressOutput output = new ProgressOutput(10);
+        assertNull(output.getLastPage());
+        assertEquals(0, output.getPageCount());
+        assertTrue(output.getPages().isEmpty());
+    }
+
+    @Test
+    void growsTheLastPageUntilItIsFull() {
+        ProgressOutput output = new ProgressOutput(8);
+        output.append("one");
+        assertEquals("one", output.getLastPage());
+        output.append("two");
+        assertEquals("one\ntwo", output.getLastPage());
+        output.append("three");
+        assertEquals("three", output.getLastPage());
+        assertEquals(List.of("one\ntwo", "three"), output.getPages());
+    }
+
+    @Test
+    void neverChangesAFinishedPage() {
+        ProgressOutput output = new ProgressOutput(8);
+        output.append("one");
+        output.append("two");
+        output.getLastPage();
+        //this would fit on the first page, but that page was already finished by the line before it
+        output.append("a very long line");
+        output.append("x");
+        assertEquals("one\ntwo", output.getPages().get(0));
+        assertTrue(output.getPages().stream().allMatch(page -> page.length() <= 8));
+    }
+
+    @Test
+    void splitsTextWithLineBreaksIntoLines() {
+        ProgressOutput output = new ProgressOutput(5);
+        output.append("ab\ncd\nef");
+        assertEquals(List.of("ab\ncd", "ef"), output.getPages());
+    }
+
+    @Test
+    void keepsUpWithLotsOfSmallAppends() {
+        ProgressOutput output = new ProgressOutput(100);
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            output.append(Integer.toString(i));
+            expected.append(i).append('\n');
+        }
+        List<String> pages = output.getPages();
+        assertTrue(pages.stream().allMatch(page -> page.length() <= 100));
+        assertEquals(expected.toString().strip(), String.join("\n", pages));
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProgressReporterTest {
+
+    private static final long COMMAND_MESSAGE_ID = 1;
+    private static final long REPLY_ID = 100;
+
+    //lets the test decide when discord has accepted each request
+    private final FakeChannel channel = new FakeChannel(true);
+
+    //a reporter for a chat command whose output is already longer than a page
+    private ProgressReporter startLongReport() {
+        ProgressReporter reporter = new ProgressReporter.Builder()
+                .setEvent(channel.commandEvent(COMMAND_MESSAGE_ID))
+                .setButtonHandler(new ButtonHandler())
+                .build();
+        for (int i = 0; i < 1000; i++) {
+            reporter.append("line " + i);
+        }
+        return reporter;
+    }
+
+    @Test
+    void deletesTheReplyOnceThePaginatorHasBeenSent() {
+        ProgressReporter reporter = startLongReport();
+        channel.requests().get(0).complete(channel.message(REPLY_ID));
+
+        reporter.close();
+        assertEquals(List.of("send", "send"), channel.calls());
+
+        channel.requests().get(1).complete(channel.message(200));
+        assertEquals(List.of("send", "send", "delete:" + REPLY_ID), channel.calls());
+    }
+
+    @Test
+    void keepsTheReplyIfThePaginatorCannotBeSent() {
+        ProgressReporter reporter = startLongReport();
+        channel.requests().get(0).complete(channel.message(REPLY_ID));
+
+        reporter.close();
+        channel.requests().get(1).completeExceptionally(new IllegalStateException("Missing permissions"));
+
+        //the reply is edited to show the final state instead
+        assertEquals(List.of("send", "send", "edit:" + REPLY_ID), channel.calls());
+    }
+
+    @Test
+    void deletesAReplyThatIsSentAfterThePaginator() {
+        ProgressReporter reporter = startLongReport();
+        reporter.close();
+        channel.requests().get(1).complete(channel.message(200));
+        assertEquals(List.of("send", "send"), channel.calls());
+
+        channel.requests().get(0).complete(channel.message(REPLY_ID));
+        assertEquals(List.of("send", "send", "delete:" + REPLY_ID), channel.calls());
+    }
+}
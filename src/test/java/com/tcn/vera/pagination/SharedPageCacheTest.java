@@ -0,0 +1,143 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedPageCacheTest {
+
+    private static MessageEmbed page(String text) {
+        return new EmbedBuilder().setDescription(text).build();
+    }
+
+    @Test
+    void rendersEachPageOnceForEveryPaginator() {
+        SharedPageCache cache = new SharedPageCache(Duration.ZERO);
+        AtomicInteger renders = new AtomicInteger();
+
+        MessageEmbed first = cache.get("leaderboard", 0, () -> page("render " + renders.incrementAndGet())).join();
+        MessageEmbed second = cache.get("leaderboard", 0, () -> page("render " + renders.incrementAndGet())).join();
+        MessageEmbed otherPage = cache.get("leaderboard", 1, () -> page("render " + renders.incrementAndGet())).join();
+
+        assertSame(first, second);
+        assertNotSame(first, otherPage);
+        assertEquals(2, renders.get());
+    }
+
+    @Test
+    void sharesARenderThatIsInProgressWithoutWaitingForIt() throws InterruptedException {
+        SharedPageCache cache = new SharedPageCache(Duration.ZERO);
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        MessageEmbed slowPage = page("slow");
+
+        Thread renderer = new Thread(() -> cache.get("key", 0, () -> {
+            rendering.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return slowPage;
+        }));
+        renderer.start();
+        assertTrue(rendering.await(5, TimeUnit.SECONDS));
+
+        //the second paginator gets the render that is in progress straight away, rather than blocking its click
+        CompletableFuture<MessageEmbed> shared = cache.get("key", 0, () -> page("rendered twice"));
+        assertFalse(shared.isDone());
+
+        finish.countDown();
+        renderer.join(5000);
+        assertSame(slowPage, shared.getNow(null));
+    }
+
+    @Test
+    void rendersThePageItselfIfTheSharedRenderFails() throws InterruptedException {
+        SharedPageCache cache = new SharedPageCache(Duration.ZERO);
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+
+        Thread renderer = new Thread(() -> assertThrows(IllegalStateException.class, () -> cache.get("key", 0, () -> {
+            rendering.countDown();
+            try {
+                finish.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw new IllegalStateException("database is down");
+        })));
+        renderer.start();
+        assertTrue(rendering.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<MessageEmbed> shared = cache.get("key", 0, () -> page("recovered"));
+        finish.countDown();
+        renderer.join(5000);
+        assertEquals("recovered", shared.getNow(null).getDescription());
+    }
+
+    @Test
+    void invalidateDropsOnlyThatContent() {
+        SharedPageCache cache = new SharedPageCache(Duration.ZERO);
+        MessageEmbed kept = cache.get("kept", 0, () -> page("kept")).join();
+        MessageEmbed dropped = cache.get("dropped", 0, () -> page("dropped")).join();
+
+        cache.invalidate("dropped");
+
+        assertSame(kept, cache.get("kept", 0, () -> page("again")).join());
+        assertNotSame(dropped, cache.get("dropped", 0, () -> page("again")).join());
+    }
+
+    @Test
+    void pagesExpire() throws InterruptedException {
+        SharedPageCache cache = new SharedPageCache(Duration.ofMillis(1));
+        MessageEmbed first = cache.get("key", 0, () -> page("first")).join();
+        Thread.sleep(10);
+        assertNotSame(first, cache.get("key", 0, () -> page("second")).join());
+    }
+
+    @Test
+    void aFailedRenderIsNotCached() {
+        SharedPageCache cache = new SharedPageCache(Duration.ZERO);
+        assertThrows(IllegalStateException.class, () -> cache.get("key", 0, () -> {
+            throw new IllegalStateException("database is down");
+        }));
+        assertEquals(0, cache.size());
+        assertNotNull(cache.get("key", 0, () -> page("recovered")).join());
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextPageSplitterTest {
+
+    private static List<String> split(int maxPageLength, String... lines) {
+        TextPageSplitter splitter = new TextPageSplitter(List.of(lines).iterator(), maxPageLength);
+        List<String> pages = new ArrayList<>();
+        String page;
+        while ((page = splitter.nextPage()) != null) {
+            pages.add(page);
+        }
+        return pages;
+    }
+
+    @Test
+    void keepsLinesWholeWhenTheyFit() {
+        assertEquals(List.of("one\ntwo", "three"), split(8, "one", "two", "three"));
+    }
+
+    @Test
+    void splitsLongLinesAtSpaces() {
+        assertEquals(List.of("the quick", "brown fox"), split(10, "the quick brown fox"));
+    }
+
+    @Test
+    void splitsWordsThatAreLongerThanAPage() {
+        assertEquals(List.of("abcd", "efgh", "ij"), split(4, "abcdefghij"));
+    }
+
+    @Test
+    void neverSplitsASurrogatePair() {
+        //each of these emoji is two chars long
+        List<String> pages = split(3, "\uD83D\uDE00\uD83D\uDE00");
+        assertEquals(List.of("\uD83D\uDE00", "\uD83D\uDE00"), pages);
+    }
+
+    @Test
+    void skipsBlankPages() {
+        assertEquals(List.of("a", "b"), split(1, "a", "", " ", "b"));
+        assertTrue(split(10).isEmpty());
+    }
+
+    @Test
+    void readsLinesOnlyAsTheyAreNeeded() {
+        List<String> read = new ArrayList<>();
+        TextPageSplitter splitter = new TextPageSplitter(List.of("one", "two", "three", "four").stream().peek(read::add).iterator(), 3);
+        assertEquals("one", splitter.nextPage());
+        assertEquals(List.of("one", "two"), read);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.pagination;
+
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextPaginatorTest {
+
+    private static Message fakeMessage(long id) {
+        return (Message) Proxy.newProxyInstance(Message.class.getClassLoader(), new Class<?>[]{Message.class},
+                (proxy, method, args) -> method.getReturnType() == long.class ? id : null);
+    }
+
+    //keeps the embeds it is asked to show instead of sending them
+    private static class CapturingTextPaginator extends TextPaginator {
+        private final List<MessageEmbed> shown = new ArrayList<>();
+
+        private CapturingTextPaginator(String text) {
+            super(fakeMessage(1), null, false, 2, new ButtonHandler(), text.lines(), MessageEmbed.DESCRIPTION_MAX_LENGTH, "Log", null);
+        }
+
+        @Override
+        protected CompletableFuture<Message> showEmbed(MessageEmbed page) {
+            shown.add(page);
+            return CompletableFuture.completedFuture(fakeMessage(3));
+        }
+    }
+
+    @Test
+    void showsTheFirstPageOfTextThatSpansManyPages() {
+        String text = IntStream.range(0, 5000).mapToObj(i -> "line " + i).collect(Collectors.joining("\n"));
+        CapturingTextPaginator paginator = new CapturingTextPaginator(text);
+
+        assertDoesNotThrow(() -> paginator.paginate().toCompletableFuture().join());
+        assertEquals(1, paginator.shown.size());
+        assertTrue(paginator.shown.get(0).getDescription().startsWith("line 0\nline 1\n"));
+        //the end of the text has not been read yet, so only the page number is known
+        assertEquals("Page 1", paginator.shown.get(0).getFooter().getText());
+    }
+
+    @Test
+    void showsTextThatFitsOnOnePageWithoutAPageCounter() {
+        CapturingTextPaginator paginator = new CapturingTextPaginator("just one line");
+        paginator.paginate().toCompletableFuture().join();
+        assertEquals("just one line", paginator.shown.get(0).getDescription());
+        assertNull(paginator.shown.get(0).getFooter());
+    }
+}
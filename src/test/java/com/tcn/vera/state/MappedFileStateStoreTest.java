@@ -0,0 +1,143 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.state;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileStateStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void stateSurvivesReopening() throws IOException {
+        Path file = tempDir.resolve("state.vera");
+
+        try (MappedFileStateStore store = new MappedFileStateStore(file)) {
+            store.put(new ComponentState(1L, "vera:embed", 42L, 0, true, new byte[]{1, 2, 3}));
+            store.put(new ComponentState(2L, "vera:embed", 43L, 0, false, new byte[]{4}));
+            store.updateCursor(1L, 5);
+            store.remove(2L);
+        }
+
+        try (MappedFileStateStore store = new MappedFileStateStore(file)) {
+            ComponentState state = store.get(1L);
+            assertNotNull(state);
+            assertEquals("vera:embed", state.restorerID());
+            assertEquals(42L, state.userID());
+            assertEquals(5, state.currentPage());
+            assertTrue(state.shouldWrap());
+            assertArrayEquals(new byte[]{1, 2, 3}, state.payload());
+            assertNull(store.get(2L));
+        }
+    }
+
+    @Test
+    void timeoutsAndComponentsSurviveReopening() throws IOException {
+        Path file = tempDir.resolve("state.vera");
+        try (MappedFileStateStore store = new MappedFileStateStore(file)) {
+            store.put(new ComponentState(1L, "vera:embed", 42L, 0, true, ComponentState.JUMP_BUTTON, 1_000L, 60_000L, 600_000L, new byte[]{1}));
+            store.updateCursor(1L, 2);
+        }
+
+        try (MappedFileStateStore store = new MappedFileStateStore(file)) {
+            ComponentState state = store.get(1L);
+            assertEquals(2, state.currentPage());
+            assertEquals(1_000L, state.createdAt());
+            assertEquals(60_000L, state.idleTimeout());
+            assertEquals(600_000L, state.absoluteTimeout());
+            assertTrue(state.hasComponent(ComponentState.JUMP_BUTTON));
+            assertFalse(state.hasComponent(ComponentState.FIRST_LAST_BUTTONS));
+        }
+    }
+
+    @Test
+    void cursorIsReadWithoutTheFullState() throws IOException {
+        try (MappedFileStateStore store = new MappedFileStateStore(tempDir.resolve("state.vera"))) {
+            store.put(new ComponentState(1L, "vera:embed", 42L, 2, true, new byte[]{1, 2, 3}));
+            assertEquals(2, store.getCursor(1L));
+
+            store.updateCursor(1L, 5);
+            assertEquals(5, store.getCursor(1L));
+            assertEquals(-1, store.getCursor(2L));
+        }
+    }
+
+    @Test
+    void partialRecordsAreDiscarded() throws IOException {
+        Path file = tempDir.resolve("state.vera");
+        try (MappedFileStateStore store = new MappedFileStateStore(file)) {
+            store.put(new ComponentState(1L, "test", 1L, 0, true, new byte[16]));
+        }
+
+        //simulate the bot dying halfway through a write
+        Files.write(file, new byte[]{0, 0, 0, 40, 1, 0, 0}, java.nio.file.StandardOpenOption.APPEND);
+
+        try (MappedFileStateStore store = new MappedFileStateStore(file)) {
+            assertEquals(1, store.size());
+            store.put(new ComponentState(2L, "test", 1L, 0, true, new byte[16]));
+        }
+        try (MappedFileStateStore store = new MappedFileStateStore(file)) {
+            assertEquals(2, store.size());
+        }
+    }
+
+    @Test
+    void compactionKeepsLiveState() throws Exception {
+        Path file = tempDir.resolve("state.vera");
+        byte[] payload = new byte[64 * 1024];
+
+        try (MappedFileStateStore store = new MappedFileStateStore(file)) {
+            for (int i = 0; i < 100; i++) {
+                store.put(new ComponentState(i % 3, "test", i, i, true, payload));
+            }
+            store.updateCursor(0L, 7);
+
+            //compaction runs in the background, so wait for the file to shrink. Without it, the file would be over 6MB
+            long uncompactedSize = 100L * payload.length;
+            for (int i = 0; i < 100 && Files.size(file) > uncompactedSize / 2; i++) {
+                Thread.sleep(50);
+            }
+            assertTrue(Files.size(file) <= uncompactedSize / 2);
+            assertEquals(7, store.get(0L).currentPage());
+            assertEquals(98, store.get(2L).currentPage());
+        }
+
+        try (MappedFileStateStore store = new MappedFileStateStore(file)) {
+            assertEquals(3, store.size());
+            assertEquals(7, store.get(0L).currentPage());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.state;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SharedStateStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void changesAreSeenByOtherInstances() throws IOException, InterruptedException {
+        try (NearCachedStateStore first = new NearCachedStateStore(new DirectoryStateStore(tempDir), 100, Duration.ofMinutes(5));
+             NearCachedStateStore second = new NearCachedStateStore(new DirectoryStateStore(tempDir), 100, Duration.ofMinutes(5))) {
+
+            first.put(new ComponentState(1L, "vera:embed", 42L, 0, true, new byte[]{1, 2, 3}));
+            ComponentState state = second.get(1L);
+            assertNotNull(state);
+            assertEquals(0, state.currentPage());
+            assertArrayEquals(new byte[]{1, 2, 3}, state.payload());
+
+            //the second instance now holds a copy, which must be dropped once the first one moves the cursor
+            first.updateCursor(1L, 3);
+            assertTrue(waitFor(() -> second.get(1L).currentPage() == 3));
+
+            first.remove(1L);
+            assertTrue(waitFor(() -> second.get(1L) == null));
+        }
+    }
+
+    @Test
+    void repeatedReadsAreServedFromMemory() throws IOException {
+        try (NearCachedStateStore store = new NearCachedStateStore(new DirectoryStateStore(tempDir), 100, Duration.ofMinutes(5))) {
+            store.put(new ComponentState(1L, "vera:embed", 42L, 0, true, new byte[0]));
+            store.get(1L);
+            store.get(1L);
+            assertTrue(store.getStats().hitCount() > 0);
+        }
+    }
+
+    @Test
+    void cursorChangesKeepTheRestOfTheState() throws IOException {
+        try (DirectoryStateStore first = new DirectoryStateStore(tempDir);
+             DirectoryStateStore second = new DirectoryStateStore(tempDir)) {
+
+            first.put(new ComponentState(1L, "vera:embed", 42L, 0, true, new byte[]{1, 2, 3}));
+            assertEquals(0, second.getCursor(1L));
+
+            second.updateCursor(1L, 4);
+            assertEquals(4, first.getCursor(1L));
+            ComponentState state = first.get(1L);
+            assertEquals(4, state.currentPage());
+            assertArrayEquals(new byte[]{1, 2, 3}, state.payload());
+
+            //a full write carries its own page and replaces any earlier cursor change
+            first.put(new ComponentState(1L, "vera:embed", 42L, 1, true, new byte[]{4}));
+            assertEquals(1, second.getCursor(1L));
+
+            //moving a removed paginator must not bring it back
+            first.remove(1L);
+            second.updateCursor(1L, 2);
+            assertEquals(-1, first.getCursor(1L));
+            assertNull(first.get(1L));
+        }
+    }
+
+    @Test
+    void invalidatingEverythingDropsEveryCopy() throws IOException {
+        try (NearCachedStateStore store = new NearCachedStateStore(new DirectoryStateStore(tempDir), 100, Duration.ofMinutes(5))) {
+            store.put(new ComponentState(1L, "vera:embed", 42L, 0, true, new byte[0]));
+            store.get(1L);
+            long misses = store.getStats().missCount();
+
+            store.invalidateAll();
+            store.get(1L);
+            assertEquals(misses + 1, store.getStats().missCount());
+        }
+    }
+
+    private static boolean waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (condition.getAsBoolean()) {
+                return true;
+            }
+            Thread.sleep(20);
+        }
+        return false;
+    }
+}
@@ -60,6 +60,9 @@ public class EmbedPaginatorCommand extends SlashCommandTemplate {
                 .setEvent(event)
                 .setUserID(event.getUser().getIdLong())
                 .setButtonHandler(buttonHandler)
+                .enableFirstLastButtons(true)
+                .enableJumpToPage(true)
+                .enablePageSelectMenu(true)
                 .build();
 
         paginator.paginate();
@@ -0,0 +1,80 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.testCommands.paginatorCommands;
+
+import com.tcn.vera.commands.templates.SlashCommandTemplate;
+import com.tcn.vera.eventHandlers.ButtonHandler;
+import com.tcn.vera.pagination.StatelessPageProvider;
+import com.tcn.vera.pagination.StatelessPaginator;
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
+
+public class StatelessPaginatorCommand extends SlashCommandTemplate implements StatelessPageProvider {
+
+    private static final String PROVIDER_ID = "sp";
+
+    final ButtonHandler buttonHandler;
+
+    public StatelessPaginatorCommand(ButtonHandler buttonHandler) {
+        this.buttonHandler = buttonHandler;
+        this.commandName = "stateless_paginator_test";
+        this.help = "Tests a paginator that keeps no state in memory";
+
+        //providers only need to be registered once, so the constructor is a good place to do it
+        StatelessPaginator.registerProvider(buttonHandler, PROVIDER_ID, this);
+    }
+
+    @Override
+    public void executeSlashCommand(SlashCommandInteractionEvent event) {
+        event.deferReply().queue();
+
+        new StatelessPaginator.Builder()
+                .setProvider(PROVIDER_ID, this)
+                .setDataKey(event.getUser().getName().replace(":", ""))
+                .setEvent(event)
+                .setUserID(event.getUser().getIdLong())
+                .setButtonHandler(buttonHandler)
+                .build()
+                .paginate();
+    }
+
+    @Override
+    public int getPageCount(String dataKey) {
+        return 25;
+    }
+
+    @Override
+    public MessageEmbed getPage(String dataKey, int pageNum) {
+        //every page is rebuilt from the data key and page number, nothing is kept between button presses
+        return new EmbedBuilder()
+                .setTitle("Hello " + dataKey + "!")
+                .setDescription("This is page " + (pageNum + 1) + ". It was rendered from the button you pressed.")
+                .build();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BKTreeTest {
+
+    private static BKTree<String> tree(String... keys) {
+        BKTree<String> tree = new BKTree<>();
+        for (String key : keys) {
+            tree.add(key, key.toUpperCase());
+        }
+        return tree;
+    }
+
+    @Test
+    void calculatesTheEditDistance() {
+        assertEquals(0, BKTree.distance("help", "help"));
+        assertEquals(1, BKTree.distance("help", "hel"));
+        assertEquals(1, BKTree.distance("help", "yelp"));
+        assertEquals(2, BKTree.distance("help", "hlep"));
+        assertEquals(3, BKTree.distance("kitten", "sitting"));
+        assertEquals(4, BKTree.distance("", "ping"));
+    }
+
+    @Test
+    void findsKeysWithinTheDistanceClosestFirst() {
+        BKTree<String> tree = tree("help", "hello", "ping", "pong", "stats", "status");
+
+        List<BKTree.Match<String>> matches = tree.search("helo", 1);
+        assertEquals(List.of("hello", "help"), matches.stream().map(BKTree.Match::key).toList());
+        assertEquals("HELLO", matches.get(0).value());
+
+        assertEquals("stats", tree.search("stats", 2).get(0).key());
+        assertEquals(0, tree.search("stats", 2).get(0).distance());
+        assertEquals(List.of("ping", "pong"), tree.search("pung", 1).stream().map(BKTree.Match::key).toList());
+        assertTrue(tree.search("leaderboard", 2).isEmpty());
+    }
+
+    @Test
+    void replacesTheValueOfAKeyThatIsAddedTwice() {
+        BKTree<String> tree = tree("help");
+        tree.add("help", "replaced");
+        assertEquals(1, tree.size());
+        assertEquals("replaced", tree.search("help", 0).get(0).value());
+    }
+
+    @Test
+    void findsTheSameKeysAsAScan() {
+        Random random = new Random(7);
+        BKTree<String> tree = new BKTree<>();
+        List<String> keys = random.ints(500, 0, 1 << 20).mapToObj(Integer::toString).distinct().toList();
+        keys.forEach(key -> tree.add(key, key));
+
+        for (int i = 0; i < 50; i++) {
+            String query = Integer.toString(random.nextInt(1 << 20));
+            List<String> expected = keys.stream().filter(key -> BKTree.distance(query, key) <= 2).sorted().toList();
+            List<String> found = tree.search(query, 2).stream().map(BKTree.Match::key).sorted().toList();
+            assertEquals(expected, found, query);
+        }
+    }
+
+    @Test
+    void searchesAnEmptyTree() {
+        assertTrue(new BKTree<String>().search("help", 2).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> new BKTree<String>().search("help", -1));
+    }
+}
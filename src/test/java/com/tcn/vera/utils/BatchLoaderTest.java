@@ -0,0 +1,123 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchLoaderTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    private static Map<Integer, String> lookUp(Set<Integer> keys) {
+        Map<Integer, String> values = new HashMap<>();
+        keys.forEach(key -> values.put(key, "value " + key));
+        return values;
+    }
+
+    @Test
+    void loadsEveryKeyOfAWindowInOneBatch() throws Exception {
+        List<Set<Integer>> batches = new ArrayList<>();
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            batches.add(keys);
+            return lookUp(keys);
+        }, Duration.ofMinutes(1), 100, DIRECT);
+
+        CompletableFuture<String> first = loader.load(1);
+        CompletableFuture<String> second = loader.load(2);
+        CompletableFuture<String> again = loader.load(1);
+        assertSame(first, again);
+        assertFalse(first.isDone());
+        assertEquals(2, loader.getPendingCount());
+
+        loader.dispatch();
+        assertEquals("value 1", first.get());
+        assertEquals("value 2", second.get());
+        assertEquals(List.of(Set.of(1, 2)), batches);
+        assertEquals(0, loader.getPendingCount());
+    }
+
+    @Test
+    void sendsFullBatchesStraightAway() throws Exception {
+        List<Set<Integer>> batches = new ArrayList<>();
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            batches.add(keys);
+            return lookUp(keys);
+        }, Duration.ofMinutes(1), 2, DIRECT);
+
+        loader.load(1);
+        CompletableFuture<String> second = loader.load(2);
+        CompletableFuture<String> third = loader.load(3);
+        assertEquals("value 2", second.get());
+        assertFalse(third.isDone());
+        assertEquals(List.of(Set.of(1, 2)), batches);
+    }
+
+    @Test
+    void sendsTheBatchOnceTheWindowCloses() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(BatchLoaderTest::lookUp, Duration.ofMillis(5), 100, DIRECT);
+        assertEquals("value 7", loader.load(7).get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void missingKeysAreLoadedAsNull() throws Exception {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> Map.of(), Duration.ZERO, 100, DIRECT);
+        assertNull(loader.load(1).get());
+    }
+
+    @Test
+    void failuresCompleteEveryKeyOfTheBatch() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            throw new IllegalStateException("the backend is down");
+        }, Duration.ofMinutes(1), 100, DIRECT);
+
+        CompletableFuture<String> first = loader.load(1);
+        CompletableFuture<String> second = loader.load(2);
+        loader.dispatch();
+        assertThrows(ExecutionException.class, first::get);
+        assertThrows(ExecutionException.class, second::get);
+    }
+
+    @Test
+    void rejectsNullKeys() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>(BatchLoaderTest::lookUp, DIRECT);
+        assertThrows(IllegalArgumentException.class, () -> loader.load(null));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CommandCacheTest {
+
+    @Test
+    void sizeBoundEvictsLeastRecentlyUsed() {
+        CommandCache<String, Integer> cache = new CommandCache<>(2);
+        cache.add("one", 1);
+        cache.add("two", 2);
+        cache.get("one");
+        cache.add("three", 3);
+
+        assertTrue(cache.contains("one"));
+        assertFalse(cache.contains("two"));
+        assertTrue(cache.contains("three"));
+        assertEquals(1, cache.getStats().evictionCount());
+    }
+
+    @Test
+    void expiredEntriesAreRemovedAndReported() {
+        AtomicLong time = new AtomicLong();
+        List<String> evicted = new ArrayList<>();
+        CommandCache<String, Integer> cache = new CommandCache.Builder<String, Integer>()
+                .setExpireAfterAccess(Duration.ofNanos(10))
+                .setEvictionListener((key, value, cause) -> {
+                    if (cause == CommandCache.RemovalCause.EXPIRED) {
+                        evicted.add(key);
+                    }
+                })
+                .setTicker(time::get)
+                .build();
+
+        cache.add("one", 1);
+        time.set(5);
+        assertEquals(1, cache.get("one"));
+        time.set(14);
+        assertEquals(1, cache.get("one"));
+        time.set(30);
+        cache.cleanUp();
+
+        assertNull(cache.get("one"));
+        assertEquals(List.of("one"), evicted);
+        assertEquals(2, cache.getStats().hitCount());
+        assertEquals(1, cache.getStats().missCount());
+    }
+
+    @Test
+    void frequencyAdmissionProtectsPopularEntries() {
+        CommandCache<String, Integer> cache = new CommandCache.Builder<String, Integer>()
+                .setMaximumSize(10)
+                .enableFrequencyAdmission(true)
+                .build();
+
+        for (int i = 0; i < 10; i++) {
+            cache.add("popular" + i, i);
+            for (int j = 0; j < 5; j++) {
+                cache.get("popular" + i);
+            }
+        }
+
+        for (int i = 0; i < 100; i++) {
+            cache.add("oneOff" + i, i);
+        }
+
+        long survivors = 0;
+        for (int i = 0; i < 10; i++) {
+            if (cache.contains("popular" + i)) {
+                survivors++;
+            }
+        }
+        assertTrue(survivors >= 8, "Only " + survivors + " popular entries survived a burst of one-off entries");
+        assertTrue(cache.size() <= 10);
+    }
+
+    @Test
+    void explicitRemovalIsNotCountedAsEviction() {
+        CommandCache<String, Integer> cache = new CommandCache<>(5);
+        cache.add("one", 1);
+
+        assertEquals(1, cache.remove("one"));
+        assertNull(cache.remove("one"));
+        assertEquals(0, cache.getStats().evictionCount());
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import com.tcn.vera.utils.ComponentIdCodec.StatelessComponentId;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ComponentIdCodecTest {
+
+    private final ComponentIdCodec codec = new ComponentIdCodec("a very secret key that nobody knows".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void roundTrip() {
+        StatelessComponentId id = new StatelessComponentId("lb", "1052731948227629146", 42, 189123456789012345L, 1, "next");
+        String encoded = codec.encode(id);
+
+        assertTrue(encoded.length() <= ComponentIdCodec.MAX_ID_LENGTH);
+        assertEquals(id, codec.decode(encoded));
+    }
+
+    @Test
+    void tamperedIdsAreRejected() {
+        String encoded = codec.encode(new StatelessComponentId("lb", "guild", 1, 1234L, 0, "next"));
+        String tampered = encoded.replace(":1:", ":9:");
+
+        assertNotEquals(encoded, tampered);
+        assertNull(codec.decode(tampered));
+        assertNull(ComponentIdCodec.withRandomKey().decode(encoded));
+        assertNull(codec.decode("123456:7890:next"));
+    }
+
+    @Test
+    void oversizedIdsAreRejected() {
+        StatelessComponentId id = new StatelessComponentId("lb", "x".repeat(90), 0, 1234L, 0, "next");
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(id));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(new StatelessComponentId("lb", "a:b", 0, 1L, 0, "next")));
+    }
+}
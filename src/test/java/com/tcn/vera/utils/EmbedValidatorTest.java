@@ -0,0 +1,63 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import net.dv8tion.jda.api.EmbedBuilder;
+import net.dv8tion.jda.api.entities.EmbedType;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.Role;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbedValidatorTest {
+
+    @Test
+    void acceptsAnEmbedWithinTheLimits() {
+        MessageEmbed embed = new EmbedBuilder().setTitle("Title").setDescription("Some text").build();
+        assertSame(embed, EmbedValidator.validate(embed));
+        assertTrue(EmbedValidator.findProblems(embed).isEmpty());
+    }
+
+    @Test
+    void rejectsAnEmbedThatIsTooLongInTotal() {
+        //the embed builder refuses to build this, but embeds received from discord are not built with it
+        List<MessageEmbed.Field> fields = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            fields.add(new MessageEmbed.Field("Field", "b".repeat(MessageEmbed.VALUE_MAX_LENGTH), false));
+        }
+        MessageEmbed embed = new MessageEmbed(null, null, "a".repeat(MessageEmbed.DESCRIPTION_MAX_LENGTH), EmbedType.RICH,
+                null, Role.DEFAULT_COLOR_RAW, null, null, null, null, null, null, fields);
+
+        assertEquals(1, EmbedValidator.findProblems(embed).size());
+        assertThrows(IllegalArgumentException.class, () -> EmbedValidator.validate(embed));
+    }
+}
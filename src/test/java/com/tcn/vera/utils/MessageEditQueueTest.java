@@ -0,0 +1,169 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.requests.RestAction;
+import net.dv8tion.jda.api.utils.messages.MessageEditData;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageEditQueueTest {
+
+    //records the content of every edit that is sent, and lets the test decide when discord has accepted it
+    private static class RecordingSender implements Function<MessageEditData, RestAction<Message>> {
+        private final List<String> sent = new ArrayList<>();
+        //only the edits that were actually handed to discord, which a scheduler may not do for every edit
+        private final List<String> submitted = new ArrayList<>();
+        private final List<CompletableFuture<Message>> requests = new ArrayList<>();
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public RestAction<Message> apply(MessageEditData content) {
+            String text = content.getContent();
+            sent.add(text);
+            CompletableFuture<Message> request = new CompletableFuture<>();
+            requests.add(request);
+            return (RestAction<Message>) Proxy.newProxyInstance(RestAction.class.getClassLoader(), new Class<?>[]{RestAction.class},
+                    (proxy, method, args) -> {
+                        if (!method.getName().equals("submit")) {
+                            return null;
+                        }
+                        submitted.add(text);
+                        return request;
+                    });
+        }
+
+        private void finishRequest(int index) {
+            requests.get(index).complete(null);
+        }
+    }
+
+    @Test
+    void onlySendsTheNewestQueuedEdit() {
+        MessageEditQueue queue = new MessageEditQueue();
+        RecordingSender sender = new RecordingSender();
+
+        CompletableFuture<Message> first = queue.edit(1L, MessageEditData.fromContent("1"), sender);
+        CompletableFuture<Message> second = queue.edit(1L, MessageEditData.fromContent("2"), sender);
+        CompletableFuture<Message> third = queue.edit(1L, MessageEditData.fromContent("3"), sender);
+        assertEquals(List.of("1"), sender.sent);
+
+        sender.finishRequest(0);
+        assertTrue(first.isDone());
+        assertEquals(List.of("1", "3"), sender.sent);
+
+        sender.finishRequest(1);
+        //the replaced edit finishes along with the edit that replaced it
+        assertTrue(second.isDone());
+        assertTrue(third.isDone());
+    }
+
+    @Test
+    void skipsEditsThatWouldNotChangeTheMessage() {
+        MessageEditQueue queue = new MessageEditQueue();
+        RecordingSender sender = new RecordingSender();
+
+        queue.edit(1L, MessageEditData.fromContent("same"), sender);
+        queue.edit(1L, MessageEditData.fromContent("same"), sender);
+        sender.finishRequest(0);
+        CompletableFuture<Message> afterwards = queue.edit(1L, MessageEditData.fromContent("same"), sender);
+
+        assertEquals(List.of("same"), sender.sent);
+        assertTrue(afterwards.isDone());
+
+        queue.forget(1L);
+        queue.edit(1L, MessageEditData.fromContent("same"), sender);
+        assertEquals(List.of("same", "same"), sender.sent);
+    }
+
+    @Test
+    void messagesAreQueuedSeparately() {
+        MessageEditQueue queue = new MessageEditQueue();
+        RecordingSender sender = new RecordingSender();
+
+        queue.edit(1L, MessageEditData.fromContent("a"), sender);
+        queue.edit(2L, MessageEditData.fromContent("b"), sender);
+
+        assertEquals(List.of("a", "b"), sender.sent);
+    }
+
+    @Test
+    void aFailedEditIsNotRemembered() {
+        MessageEditQueue queue = new MessageEditQueue();
+        RecordingSender sender = new RecordingSender();
+
+        CompletableFuture<Message> failed = queue.edit(1L, MessageEditData.fromContent("a"), sender);
+        sender.requests.get(0).completeExceptionally(new IllegalStateException("rate limited"));
+        assertTrue(failed.isCompletedExceptionally());
+
+        queue.edit(1L, MessageEditData.fromContent("a"), sender);
+        assertEquals(List.of("a", "a"), sender.sent);
+    }
+
+    @Test
+    void urgentEditsAreNotDroppedBySaturatedScheduler() {
+        //one request in flight at a time, and no room for waiting edits
+        MessageEditQueue queue = new MessageEditQueue(1000, new OutboundScheduler(1, 0));
+        RecordingSender sender = new RecordingSender();
+
+        queue.edit(1L, MessageEditData.fromContent("busy"), sender);
+        CompletableFuture<Message> cosmetic = queue.edit(2L, MessageEditData.fromContent("page"), sender);
+        CompletableFuture<Message> urgent = queue.edit(3L, MessageEditData.fromContent("strip"), sender, OutboundScheduler.Priority.MESSAGE);
+        assertTrue(cosmetic.isCompletedExceptionally());
+        assertFalse(urgent.isDone());
+
+        sender.finishRequest(0);
+        assertEquals(List.of("busy", "strip"), sender.submitted);
+    }
+
+    @Test
+    void aQueuedEditKeepsThePriorityOfTheEditItReplaced() {
+        MessageEditQueue queue = new MessageEditQueue(1000, new OutboundScheduler(1, 0));
+        RecordingSender sender = new RecordingSender();
+
+        queue.edit(1L, MessageEditData.fromContent("first"), sender, OutboundScheduler.Priority.MESSAGE);
+        queue.edit(1L, MessageEditData.fromContent("queued"), sender, OutboundScheduler.Priority.MESSAGE);
+        CompletableFuture<Message> newest = queue.edit(1L, MessageEditData.fromContent("newest"), sender);
+        queue.edit(2L, MessageEditData.fromContent("other"), sender, OutboundScheduler.Priority.MESSAGE);
+
+        //the newest edit goes out behind the first one, and is not dropped even though the budget is used up
+        sender.finishRequest(0);
+        assertEquals(List.of("first", "other"), sender.submitted);
+        sender.finishRequest(1);
+        assertEquals(List.of("first", "other", "newest"), sender.submitted);
+        assertFalse(newest.isCompletedExceptionally());
+    }
+}
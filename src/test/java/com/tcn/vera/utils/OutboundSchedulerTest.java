@@ -0,0 +1,118 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import net.dv8tion.jda.api.requests.RestAction;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OutboundSchedulerTest {
+
+    //records the name of every request once it is actually sent, and lets the test decide when it finishes
+    private final List<String> sent = new ArrayList<>();
+    private final List<CompletableFuture<String>> requests = new ArrayList<>();
+
+    @SuppressWarnings("unchecked")
+    private RestAction<String> request(String name) {
+        return (RestAction<String>) Proxy.newProxyInstance(RestAction.class.getClassLoader(), new Class<?>[]{RestAction.class},
+                (proxy, method, args) -> {
+                    if (!method.getName().equals("submit")) {
+                        return null;
+                    }
+                    sent.add(name);
+                    CompletableFuture<String> request = new CompletableFuture<>();
+                    requests.add(request);
+                    return request;
+                });
+    }
+
+    @Test
+    void queuesRequestsOnceTheBudgetIsUsedUp() {
+        OutboundScheduler scheduler = new OutboundScheduler(1, 10);
+        CompletableFuture<String> first = scheduler.submit(request("first"), OutboundScheduler.Priority.MESSAGE);
+        scheduler.submit(request("second"), OutboundScheduler.Priority.MESSAGE);
+        assertEquals(List.of("first"), sent);
+        assertEquals(1, scheduler.getStats().queuedMessages());
+
+        requests.get(0).complete("done");
+        assertEquals("done", first.join());
+        assertEquals(List.of("first", "second"), sent);
+    }
+
+    @Test
+    void acknowledgementsSkipTheQueueAndMessagesGoBeforeEdits() {
+        OutboundScheduler scheduler = new OutboundScheduler(1, 10);
+        scheduler.submit(request("busy"), OutboundScheduler.Priority.MESSAGE);
+        scheduler.submit(request("edit"), OutboundScheduler.Priority.EDIT);
+        scheduler.submit(request("message"), OutboundScheduler.Priority.MESSAGE);
+        scheduler.submit(request("acknowledgement"), OutboundScheduler.Priority.ACKNOWLEDGEMENT);
+        assertEquals(List.of("busy", "acknowledgement"), sent);
+
+        requests.get(0).complete("done");
+        requests.get(1).complete("done");
+        assertEquals(List.of("busy", "acknowledgement", "message"), sent);
+
+        requests.get(2).complete("done");
+        assertEquals(List.of("busy", "acknowledgement", "message", "edit"), sent);
+    }
+
+    @Test
+    void shedsTheOldestEditsWhenTooManyAreWaiting() {
+        OutboundScheduler scheduler = new OutboundScheduler(1, 1);
+        scheduler.submit(request("busy"), OutboundScheduler.Priority.MESSAGE);
+        CompletableFuture<String> oldEdit = scheduler.submit(request("old edit"), OutboundScheduler.Priority.EDIT);
+        scheduler.submit(request("new edit"), OutboundScheduler.Priority.EDIT);
+
+        CompletionException shed = assertThrows(CompletionException.class, oldEdit::join);
+        assertInstanceOf(RejectedExecutionException.class, shed.getCause());
+        assertEquals(1, scheduler.getStats().editsShed());
+
+        requests.get(0).complete("done");
+        assertEquals(List.of("busy", "new edit"), sent);
+    }
+
+    @Test
+    void aFailedRequestFreesItsSlot() {
+        OutboundScheduler scheduler = new OutboundScheduler(1, 10);
+        CompletableFuture<String> failed = scheduler.submit(request("failed"), OutboundScheduler.Priority.MESSAGE);
+        scheduler.submit(request("next"), OutboundScheduler.Priority.MESSAGE);
+
+        requests.get(0).completeExceptionally(new IllegalStateException("unknown channel"));
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals(List.of("failed", "next"), sent);
+        assertEquals(2, scheduler.getStats().messagesSent());
+    }
+}
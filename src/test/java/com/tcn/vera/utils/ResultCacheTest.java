@@ -0,0 +1,125 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultCacheTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    @Test
+    void reusesResultsUntilTheyExpire() throws Exception {
+        ResultCache<String, Integer> cache = new ResultCache<>(10);
+        AtomicInteger computations = new AtomicInteger();
+
+        assertEquals(1, cache.get("stats", Duration.ofMinutes(1), computations::incrementAndGet, DIRECT).get());
+        assertEquals(1, cache.get("stats", Duration.ofMinutes(1), computations::incrementAndGet, DIRECT).get());
+        assertEquals(1, computations.get());
+
+        assertEquals(2, cache.get("lookup", Duration.ofNanos(1), computations::incrementAndGet, DIRECT).get());
+        Thread.sleep(1);
+        assertEquals(3, cache.get("lookup", Duration.ofNanos(1), computations::incrementAndGet, DIRECT).get());
+    }
+
+    @Test
+    void keysAreCachedSeparately() throws Exception {
+        ResultCache<String, String> cache = new ResultCache<>(10);
+        assertEquals("a", cache.get("a", Duration.ofMinutes(1), () -> "a", DIRECT).get());
+        assertEquals("b", cache.get("b", Duration.ofMinutes(1), () -> "b", DIRECT).get());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void coalescesConcurrentRequests() throws Exception {
+        ResultCache<String, Integer> cache = new ResultCache<>(10);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newCachedThreadPool();
+
+        try {
+            CompletableFuture<Integer> first = cache.get("stats", Duration.ofMinutes(1), () -> {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return computations.incrementAndGet();
+            }, executor);
+
+            CompletableFuture<Integer> second = cache.get("stats", Duration.ofMinutes(1), computations::incrementAndGet, executor);
+            assertSame(first, second);
+            assertFalse(second.isDone());
+
+            release.countDown();
+            assertEquals(1, first.get(5, TimeUnit.SECONDS));
+            assertEquals(1, second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, computations.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failuresAreNotCached() throws Exception {
+        ResultCache<String, String> cache = new ResultCache<>(10);
+        CompletableFuture<String> failed = cache.get("stats", Duration.ofMinutes(1), () -> {
+            throw new IllegalStateException("the database is down");
+        }, DIRECT);
+        assertThrows(ExecutionException.class, failed::get);
+
+        assertEquals("ok", cache.get("stats", Duration.ofMinutes(1), () -> "ok", DIRECT).get());
+    }
+
+    @Test
+    void invalidatedResultsAreComputedAgain() throws Exception {
+        ResultCache<String, Integer> cache = new ResultCache<>(10);
+        AtomicInteger computations = new AtomicInteger();
+        cache.get("stats", Duration.ofMinutes(1), computations::incrementAndGet, DIRECT).get();
+        cache.invalidate("stats");
+        assertEquals(2, cache.get("stats", Duration.ofMinutes(1), computations::incrementAndGet, DIRECT).get());
+    }
+
+    @Test
+    void rejectsTimesToLiveThatAreNotPositive() {
+        ResultCache<String, String> cache = new ResultCache<>(10);
+        assertThrows(IllegalArgumentException.class, () -> cache.get("stats", Duration.ZERO, () -> "", DIRECT));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Vera - a common library for all of TCN's discord bots.
+ *
+ * Copyright (C) 2023 Thomas Wessel and the rest of Team Creative Name
+ *
+ *
+ * This library is licensed under the GNU Lesser General Public License v2.1
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 51 Franklin Street, Fifth Floor, Boston, MA  02110-1301
+ * USA
+ *
+ *
+ * For more information, please check out the original repository of this project on github
+ * https://github.com/Team-Creative-Name/Vera
+ */
+package com.tcn.vera.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimingWheelTest {
+
+    //a small wheel, so that the longer timeouts have to wait for several turns
+    private final TimingWheel wheel = new TimingWheel(Duration.ofMillis(5), 8);
+
+    @AfterEach
+    void stopWheel() {
+        wheel.stop();
+    }
+
+    @Test
+    void timeoutsRunInOrderAfterTheirDelay() throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(2);
+        long start = System.nanoTime();
+        long[] ranAfter = new long[2];
+
+        wheel.schedule(Duration.ofMillis(150), () -> {
+            ranAfter[1] = System.nanoTime() - start;
+            latch.countDown();
+        });
+        wheel.schedule(Duration.ofMillis(20), () -> {
+            ranAfter[0] = System.nanoTime() - start;
+            latch.countDown();
+        });
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertTrue(ranAfter[0] >= TimeUnit.MILLISECONDS.toNanos(20));
+        assertTrue(ranAfter[1] >= TimeUnit.MILLISECONDS.toNanos(150));
+        assertTrue(ranAfter[0] < ranAfter[1]);
+    }
+
+    @Test
+    void cancelledTimeoutsNeverRun() throws InterruptedException {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        TimingWheel.Timeout cancelled = wheel.schedule(Duration.ofMillis(30), runs::incrementAndGet);
+        wheel.schedule(Duration.ofMillis(60), latch::countDown);
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertTrue(cancelled.isCancelled());
+    }
+}